@@ -1,5 +1,8 @@
 package com.example.blackjack.controllers;
 
+import com.example.blackjack.utils.ProtocolOutputStream;
+import com.example.blackjack.utils.server.BinaryProtocol;
+import com.example.blackjack.utils.server.GameStateSnapshot;
 import javafx.application.HostServices;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
@@ -27,6 +30,10 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.awt.Desktop;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -56,28 +63,45 @@ public class GameController {
     private Label player1Label, player2Label, player3Label, player4Label, player5Label, player6Label, player7Label, player8Label, playerBalanceLabel, timerLabel, winningsLabel, resultLabel, player1BetLabel, player2BetLabel, player3BetLabel, player4BetLabel ,player5BetLabel, player6BetLabel, player7BetLabel, player8BetLabel,player1ScoreLabel, player2ScoreLabel, player3ScoreLabel,player4ScoreLabel, player5ScoreLabel, player6ScoreLabel, player7ScoreLabel, player8ScoreLabel;
 
     private final Stage stage; // Die aktuelle Stage
-    private final DataOutputStream out; // OutputStream zum Senden von Daten an den Server
+    private final ProtocolOutputStream out; // OutputStream zum Senden von Daten an den Server
+    private final boolean binary_supported; // Stream der Verbindung (mit Heartbeat) kann auf das Binärprotokoll wechseln
     private final DataInputStream in; // InputStream zum Empfangen von Daten vom Server
     private final String user; // Der Benutzername des aktuellen Benutzers
     private int balance;
     private Timer timer;
     private final String table_name;
     private ArrayList<String> chat_messages;
+    private long chat_sequence; // Sequenznummer der letzten angezeigten Chat-Nachricht
     private ArrayList<ImageView> imageViewArray = new ArrayList<>();
     private ArrayList<Label> nameLabelList = new ArrayList<>();
     private ArrayList<Circle> circleList = new ArrayList<>();
     private Map<Label, Label> playerToBetLabelMap;
     private Map<Label, Label> playerToScoreLabelMap;
     private int count = 30;
+    private final BlockingQueue<String> responses = new LinkedBlockingQueue<>(); // Antworten auf eigene Anfragen
+    private final ReentrantLock reply_lock = new ReentrantLock(); // Zustellen der Antworten und Abbruch bei Timeout
+    private int late_replies = 0; // Antworten auf abgelaufene Anfragen, die noch verworfen werden müssen
+    private Thread push_reader; // liest alle Nachrichten des Servers und trennt Push-Nachrichten von Antworten
 
     /**
-     * Initialisiert den GameController. Setzt die Game-Initialisierung und startet den Timer,
-     * um den Spielzustand regelmäßig neu zu laden.
+     * Initialisiert den GameController. Setzt die Game-Initialisierung, abonniert den Spielzustand
+     * beim Server und startet den Timer, um den Chat regelmäßig neu zu laden.
+     * Der Spielzustand wird nicht mehr abgefragt, sondern vom Server bei jeder Änderung gesendet.
+     * Am Tisch wechselt die Verbindung dafür auf das Binärprotokoll, beim Verlassen zurück auf Text.
      *
      * @throws IOException Wenn ein I/O-Fehler auftritt.
      */
     public void initialize() throws IOException {
        initializeGame();
+       if (binary_supported && !out.switchProtocol(true, in)) {
+           System.out.println("[Client] Server unterstützt das Binärprotokoll nicht, verwende Text");
+       }
+
+       push_reader = new Thread(this::readServerMessages, "game-push-reader");
+       push_reader.setDaemon(true);
+       push_reader.start();
+
+       out.writeRequest("subscribe:" + table_name + ":" + user);
 
        timer = new Timer(true);
        timer.scheduleAtFixedRate(new TimerTask() {
@@ -86,7 +110,6 @@ public class GameController {
                try {
                    Platform.runLater(() -> {
                        try {
-                           reloadGameState();
                            reloadChatMessages();
                        } catch (IOException e) {
                            timer.cancel();
@@ -101,6 +124,126 @@ public class GameController {
        }, 0, 400);
     }
 
+    /**
+     * Liest alle Nachrichten des Servers, solange das Spiel abonniert ist. Push-Nachrichten mit dem
+     * Spielzustand werden auf dem JavaFX-Thread angezeigt, Antworten auf eigene Anfragen landen in
+     * der Warteschlange für request(). Endet mit der Bestätigung "unsubscribed" oder beim Schließen der Verbindung.
+     * Im Binärprotokoll kommen Push-Nachrichten als OP_PUSH_GAME_STATE und werden mit GameStateSnapshot dekodiert.
+     */
+    private void readServerMessages() {
+        try {
+            while (true) {
+                String message;
+                if (out.isBinary()) {
+                    byte[] frame = BinaryProtocol.readFrame(in);
+                    if ((frame[0] & 0xFF) == BinaryProtocol.OP_PUSH_GAME_STATE) {
+                        showGameState(GameStateSnapshot.decode(frame).toText());
+                        continue;
+                    }
+                    message = BinaryProtocol.decodeText(frame);
+                } else {
+                    message = in.readUTF();
+                }
+
+                if (message.startsWith("push:")) {
+                    showGameState(message.substring("push:".length()));
+                } else if (message.equals("unsubscribed")) {
+                    return;
+                } else {
+                    deliverReply(message);
+                }
+            }
+        } catch (IOException e) {
+            // Verbindung wurde beim Schließen des Fensters beendet
+        }
+    }
+
+    /**
+     * Zeigt einen gepushten Spielzustand auf dem JavaFX-Thread an.
+     *
+     * @param state Der Spielzustand im Format von "reloadgamestate", null wenn es keinen gibt
+     */
+    private void showGameState(String state) {
+        if (state == null) {
+            return;
+        }
+        Platform.runLater(() -> {
+            try {
+                applyGameState(state);
+            } catch (IOException e) {
+                System.out.println("[Client] Spielzustand konnte nicht angezeigt werden");
+            }
+        });
+    }
+
+    /**
+     * Stellt eine Antwort des Servers der wartenden Anfrage zu. Antworten auf Anfragen, deren Wartezeit
+     * bereits abgelaufen ist, werden verworfen, damit spätere Anfragen nicht die vorherige Antwort erhalten.
+     *
+     * @param message Die Antwort
+     */
+    private void deliverReply(String message) {
+        reply_lock.lock();
+        try {
+            if (late_replies > 0) {
+                late_replies--;
+            } else {
+                responses.add(message);
+            }
+        } finally {
+            reply_lock.unlock();
+        }
+    }
+
+    /**
+     * Sendet eine Anfrage an den Server und wartet auf die Antwort. Solange das Spiel abonniert ist,
+     * liest nur der Push-Reader vom InputStream, die Antwort kommt daher über die Warteschlange.
+     * Der Server beantwortet Anfragen in Reihenfolge; kommt eine Antwort zu spät, wird sie beim Eintreffen verworfen.
+     *
+     * @param request Die Anfrage
+     * @return Die Antwort des Servers
+     * @throws IOException Wenn ein I/O-Fehler auftritt oder keine Antwort kommt.
+     */
+    private String request(String request) throws IOException {
+        out.writeRequest(request);
+
+        try {
+            String response = responses.poll(5, TimeUnit.SECONDS);
+            if (response == null) {
+                reply_lock.lock();
+                try {
+                    response = responses.poll(); // kann gerade eben noch angekommen sein
+                    if (response == null) {
+                        late_replies++;
+                        throw new IOException("Keine Antwort vom Server auf " + request);
+                    }
+                } finally {
+                    reply_lock.unlock();
+                }
+            }
+            return response;
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Beendet das Abonnement des Spielzustands und wartet, bis der Push-Reader fertig ist,
+     * damit der nächste Controller wieder direkt vom InputStream lesen kann. Danach gilt wieder das Textprotokoll.
+     *
+     * @throws IOException Wenn ein I/O-Fehler auftritt.
+     */
+    private void unsubscribe() throws IOException {
+        out.writeRequest("unsubscribe:" + table_name);
+
+        try {
+            push_reader.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.switchProtocol(false, in);
+    }
+
     /**
      * Konstruktor für den GameController.
      *
@@ -112,7 +255,8 @@ public class GameController {
      */
     public GameController(Stage stage, DataOutputStream out, DataInputStream in, String user, String table_name) {
         this.stage = stage;
-        this.out = out;
+        this.binary_supported = out instanceof ProtocolOutputStream;
+        this.out = binary_supported ? (ProtocolOutputStream) out : new ProtocolOutputStream(out);
         this.in = in;
         this.user = user;
         this.table_name = table_name;
@@ -130,9 +274,9 @@ public class GameController {
     private void quitClick() throws IOException {
         timer.cancel();
         timer.purge();
+        unsubscribe();
 
-        out.writeUTF("leavetable:" + table_name + ":" + user);
-        out.flush();
+        out.writeRequest("leavetable:" + table_name + ":" + user);
 
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/lobby-view.fxml"));
         loader.setControllerFactory(param -> new LobbyController(stage, out, in, user));
@@ -177,8 +321,7 @@ public class GameController {
         playerToScoreLabelMap.put(player8Label, player8ScoreLabel);
 
 
-        out.writeUTF("initializegame:" + table_name + ":" + user);
-        out.flush();
+        out.writeRequest("initializegame:" + table_name + ":" + user);
 
         String info_string = in.readUTF();
         String[] info = info_string.split("@");
@@ -221,16 +364,12 @@ public class GameController {
     }
 
     /**
-     * Lädt den aktuellen Spielzustand vom Server neu und aktualisiert die Benutzeroberfläche.
+     * Zeigt einen vom Server gesendeten Spielzustand an und aktualisiert die Benutzeroberfläche.
      *
+     * @param state Der Spielzustand im Format von "reloadgamestate"
      * @throws IOException Wenn ein I/O-Fehler auftritt.
      */
-    private void reloadGameState() throws IOException {
-        out.writeUTF("reloadgamestate:" + table_name + ":" + user);
-        out.flush();
-
-        String state = in.readUTF();
-
+    private void applyGameState(String state) throws IOException {
         if (state.startsWith("countdown")) { // Spiel befindet sich in der "Einsatz setzen" Phase
 
             // Button state anpassen-------------------------------------------------------------
@@ -573,8 +712,7 @@ public class GameController {
                 stakes.put(user_name, stake);
             }
 
-            out.writeUTF("getallscores:" + table_name);
-            String allscores = in.readUTF();
+            String allscores = request("getallscores:" + table_name);
             //System.out.println("Alle Scores: " + allscores);
 
             for (String s : allscores.split(":")) {
@@ -626,8 +764,7 @@ public class GameController {
     public void setStake(ActionEvent actionEvent) throws IOException {
        if (!stakeField.getText().isEmpty()) {
            if (Integer.parseInt(stakeField.getText()) <= balance) {
-               out.writeUTF("setstake:" + table_name + ":" + user + ":" + stakeField.getText());
-               out.flush();
+               out.writeRequest("setstake:" + table_name + ":" + user + ":" + stakeField.getText());
 
                stakeField.setDisable(true);
                setStakeButton.setDisable(true);
@@ -649,8 +786,7 @@ public class GameController {
      * @throws IOException Wenn ein I/O-Fehler auftritt.
      */
     public void hitClick(ActionEvent actionEvent) throws IOException {
-       out.writeUTF("hit:" + table_name);
-       out.flush();
+       out.writeRequest("hit:" + table_name);
     }
 
     /**
@@ -661,8 +797,7 @@ public class GameController {
      * @throws IOException Wenn ein I/O-Fehler auftritt.
      */
     public void standClick(ActionEvent actionEvent) throws IOException {
-        out.writeUTF("stand:" + table_name);
-        out.flush();
+        out.writeRequest("stand:" + table_name);
     }
 
     /**
@@ -673,8 +808,7 @@ public class GameController {
      * @throws IOException Wenn ein I/O-Fehler auftritt.
      */
     public void DDClick(ActionEvent actionEvent) throws IOException {
-        out.writeUTF("doubledown:" + table_name);
-        out.flush();
+        out.writeRequest("doubledown:" + table_name);
     }
 
     /**
@@ -685,8 +819,7 @@ public class GameController {
      * @throws IOException Wenn ein I/O-Fehler auftritt.
      */
     public void splitClick(ActionEvent actionEvent) throws IOException {
-        out.writeUTF("split:" + table_name);
-        out.flush();
+        out.writeRequest("split:" + table_name);
     }
 
     /**
@@ -697,8 +830,7 @@ public class GameController {
      * @throws IOException Wenn ein I/O-Fehler auftritt.
      */
     public void surrenderClick(ActionEvent actionEvent) throws IOException {
-        out.writeUTF("surrender:" + table_name);
-        out.flush();
+        out.writeRequest("surrender:" + table_name);
     }
 
     /**
@@ -712,41 +844,29 @@ public class GameController {
             String message = chatField.getText();
             chatField.clear();
 
-            out.writeUTF("chatmessage:" + this.user + ":" + message);
-            out.flush();
+            out.writeRequest("chatmessage:table:" + table_name + ":" + this.user + ":" + message);
         }
     }
 
     /**
-     * Lädt die Chat-Nachrichten neu vom Server und aktualisiert die Ansicht.
+     * Lädt die neuen Chat-Nachrichten vom Server und hängt sie an die Ansicht an.
      * @throws IOException Falls ein Fehler bei der Kommunikation mit dem Server auftritt.
      */
     private void reloadChatMessages() throws IOException {
-        out.writeUTF("reloadchat");
-        out.flush();
-        String up_to_date_messages = in.readUTF();
+        String[] parts = request("reloadchat:table:" + table_name + ":" + chat_sequence).split("\n", 2);
+        chat_sequence = Long.parseLong(parts[0]);
 
-        if (!up_to_date_messages.equals("")) {
-            ArrayList<String> up_to_date_messages_arr = new ArrayList<>(Arrays.asList(up_to_date_messages.split("@")));
-
-            // Ersetze User durch "Me" für CSS-Styling
-            for (int i = 0; i < up_to_date_messages_arr.size(); i++) {
-                String message = up_to_date_messages_arr.get(i);
+        if (!parts[1].equals("")) {
+            for (String message : parts[1].split("@")) {
+                // Ersetze User durch "Me" für CSS-Styling
                 if (message.contains(user)) {
-                    up_to_date_messages_arr.set(i, message.replace(user, "Me"));
+                    message = message.replace(user, "Me");
                 }
+                chat_messages.add(message);
+                chatView.getItems().add(message);
             }
 
-            if (!up_to_date_messages_arr.equals(chat_messages)) {
-                int index = chat_messages.size();
-
-                for (int i = index; i < up_to_date_messages_arr.size(); i++) {
-                    chatView.getItems().add(up_to_date_messages_arr.get(i));
-                }
-
-                chatView.scrollTo(up_to_date_messages_arr.size() - 1);
-                chat_messages = up_to_date_messages_arr;
-            }
+            chatView.scrollTo(chat_messages.size() - 1);
         }
     }
 
@@ -772,11 +892,9 @@ public class GameController {
      */
     private void handleWindowClose(WindowEvent windowEvent) {
         try {
-            out.writeUTF("leavetable:" + table_name + ":" + user);
-            out.flush();
+            out.writeRequest("leavetable:" + table_name + ":" + user);
 
-            out.writeUTF("logout:" + user); // Logout an den Server senden
-            out.flush();
+            out.writeRequest("logout:" + user); // Logout an den Server senden
 
             timer.cancel();
             timer.purge();
@@ -1,5 +1,6 @@
 package com.example.blackjack.controllers;
 
+import com.example.blackjack.utils.RequestPipeline;
 import com.example.blackjack.utils.factories.ChatCellFactory;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -45,6 +46,8 @@ public class LobbyController {
     private String user;
     private ArrayList<String> chat_messages;
     private Timer timer;
+    private long chat_sequence; // Sequenznummer der letzten angezeigten Chat-Nachricht
+    private RequestPipeline pipeline; // sendet die Anfragen einer Aktualisierung gemeinsam
 
     /**
      * Konstruktor für den LobbyController.
@@ -59,6 +62,7 @@ public class LobbyController {
         this.in = in;
         this.user = user;
         this.chat_messages = new ArrayList<>();
+        this.pipeline = new RequestPipeline(out, in);
 
         this.stage.setOnCloseRequest(this::handleWindowClose);
     }
@@ -66,6 +70,7 @@ public class LobbyController {
     /**
      * Initialisiert die Controller-Klasse nach dem Laden des FXML.
      * Setzt die Chat-Zellen-Fabrik und startet den Timer für die Aktualisierung der Lobby-Daten.
+     * Eine Aktualisierung besteht aus den Anfragen "reloadlobby" und "reloadscoreboard:rank", die gemeinsam gesendet werden.
      */
     public void initialize() {
         chatView.setCellFactory(new ChatCellFactory());
@@ -77,10 +82,7 @@ public class LobbyController {
                 try {
                     Platform.runLater(() -> {
                         try {
-                            reloadScoreboard();
-                            reloadActiveUsers();
-                            reloadActiveRooms();
-                            reloadChatMessages();
+                            reloadLobby();
                         } catch (IOException e) {
                             timer.cancel();
                             timer.purge();
@@ -95,15 +97,32 @@ public class LobbyController {
     }
 
     /**
-     * Lädt die Daten für das Scoreboard neu vom Server.
+     * Lädt Scoreboard, aktive Benutzer, aktive Räume und neue Chat-Nachrichten mit einer einzigen
+     * Anfrage neu vom Server. Die Abschnitte haben dasselbe Format wie die Antworten der Einzelbefehle.
+     * Der eigene Platz im Scoreboard wird in derselben RequestPipeline angefragt, beide Antworten kommen in einer Round-Trip-Zeit.
      * @throws IOException Falls ein Fehler bei der Kommunikation mit dem Server auftritt.
      */
-    private void reloadScoreboard() throws IOException {
-        out.writeUTF("reloadscoreboard");
-        out.flush();
-        String scoreboard_string = in.readUTF();
+    private void reloadLobby() throws IOException {
+        String lobby_id = pipeline.add("reloadlobby:" + chat_sequence);
+        String rank_id = pipeline.add("reloadscoreboard:rank:" + user);
+        pipeline.send();
+        String[] lobby = pipeline.getResponse(lobby_id).split("\n", -1);
+        String own_rank = pipeline.getResponse(rank_id);
+
+        chat_sequence = Long.parseLong(lobby[0]);
+        reloadScoreboard(lobby[1], own_rank);
+        reloadActiveUsers(lobby[2]);
+        reloadActiveRooms(lobby[3]);
+        reloadChatMessages(lobby[4]);
+    }
 
-        String[] scores = scoreboard_string.split("@");
+    /**
+     * Aktualisiert das Scoreboard. Liegt der eigene Platz hinter den angezeigten Plätzen, wird er darunter angehängt.
+     * @param scoreboard_string Die ersten Plätze wie bei "reloadscoreboard:0:50".
+     * @param own_rank Die Antwort des Servers auf "reloadscoreboard:rank:benutzer" ("platz:score").
+     */
+    private void reloadScoreboard(String scoreboard_string, String own_rank) {
+        String[] scores = scoreboard_string.isEmpty() ? new String[0] : scoreboard_string.split("@");
 
         for (int i = 0; i < scores.length; i++) {
             String[] parts = scores[i].split(":");
@@ -114,32 +133,28 @@ public class LobbyController {
         }
 
         ObservableList<String> scoreboard_items = FXCollections.observableArrayList(scores);
+        String[] rank = own_rank.split(":");
+        if (Integer.parseInt(rank[0]) > scores.length) {
+            scoreboard_items.add(rank[0] + ". " + user + " (" + rank[1] + ")");
+        }
         leaderboardView.setItems(scoreboard_items);
     }
 
     /**
-     * Lädt die Liste der aktiven Benutzer neu vom Server.
-     * @throws IOException Falls ein Fehler bei der Kommunikation mit dem Server auftritt.
+     * Aktualisiert die Liste der aktiven Benutzer.
+     * @param active_users_string Die Antwort des Servers auf "reloadactiveusers".
      */
-    public void reloadActiveUsers() throws IOException {
-        out.writeUTF("reloadactiveusers");
-        out.flush();
-        String active_users_string = in.readUTF();
-
+    public void reloadActiveUsers(String active_users_string) {
         String[] active_users = active_users_string.split(":");
         ObservableList<String> active_user_items = FXCollections.observableArrayList(active_users);
         activeUsersView.setItems(active_user_items);
     }
 
     /**
-     * Lädt die Liste der aktiven Räume neu vom Server.
-     * @throws IOException Falls ein Fehler bei der Kommunikation mit dem Server auftritt.
+     * Aktualisiert die Liste der aktiven Räume.
+     * @param active_rooms_string Die Antwort des Servers auf "reloadactiverooms".
      */
-    private void reloadActiveRooms() throws IOException {
-        out.writeUTF("reloadactiverooms");
-        out.flush();
-        String active_rooms_string = in.readUTF();
-
+    private void reloadActiveRooms(String active_rooms_string) {
         if (!active_rooms_string.equals("")) {
             String[] active_rooms = active_rooms_string.split("@");
 
@@ -171,35 +186,21 @@ public class LobbyController {
     }
 
     /**
-     * Lädt die Chat-Nachrichten neu vom Server und aktualisiert die Ansicht.
-     * @throws IOException Falls ein Fehler bei der Kommunikation mit dem Server auftritt.
+     * Hängt die neuen Chat-Nachrichten an die Ansicht an.
+     * @param new_messages Die seit der letzten Aktualisierung hinzugekommenen Nachrichten, getrennt durch '@'.
      */
-    private void reloadChatMessages() throws IOException {
-        out.writeUTF("reloadchat");
-        out.flush();
-        String up_to_date_messages = in.readUTF();
-
-        if (!up_to_date_messages.equals("")) {
-            ArrayList<String> up_to_date_messages_arr = new ArrayList<>(Arrays.asList(up_to_date_messages.split("@")));
-
-            // Ersetze User durch "Me" für CSS-Styling
-            for (int i = 0; i < up_to_date_messages_arr.size(); i++) {
-                String message = up_to_date_messages_arr.get(i);
+    private void reloadChatMessages(String new_messages) {
+        if (!new_messages.equals("")) {
+            for (String message : new_messages.split("@")) {
+                // Ersetze User durch "Me" für CSS-Styling
                 if (message.contains(user)) {
-                    up_to_date_messages_arr.set(i, message.replace(user, "Me"));
+                    message = message.replace(user, "Me");
                 }
+                chat_messages.add(message);
+                chatView.getItems().add(message);
             }
 
-            if (!up_to_date_messages_arr.equals(chat_messages)) {
-                int index = chat_messages.size();
-
-                for (int i = index; i < up_to_date_messages_arr.size(); i++) {
-                    chatView.getItems().add(up_to_date_messages_arr.get(i));
-                }
-
-                chatView.scrollTo(up_to_date_messages_arr.size() - 1);
-                chat_messages = up_to_date_messages_arr;
-            }
+            chatView.scrollTo(chat_messages.size() - 1);
         }
     }
 
@@ -71,6 +71,13 @@ public class LoginController {
                 stage.getIcons().add(new Image(getClass().getResourceAsStream("/images/icon.png")));
                 stage.setResizable(false);
                 stage.show();
+            } else if (user.equals("busy")) {
+                // Server hat die Verbindung wegen Überlastung abgelehnt
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Server ausgelastet");
+                alert.setHeaderText(null);
+                alert.setContentText("Der Server ist momentan ausgelastet. Bitte versuchen Sie es später erneut!");
+                alert.showAndWait();
             } else {
                 Alert alert = new Alert(Alert.AlertType.ERROR);
                 alert.setTitle("Authentifizierungsfehler");
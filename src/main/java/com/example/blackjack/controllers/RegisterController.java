@@ -70,7 +70,8 @@ public class RegisterController {
             out.writeUTF("dupuser:" + username);
             String duplicate = in.readUTF();
 
-            if (!(duplicate.equals("true")) && (age > 5) && (!username.equals("")) && (!password.equals(""))) {
+            // "busy": Server hat die Verbindung wegen Überlastung abgelehnt
+            if (!(duplicate.equals("true")) && !(duplicate.equals("busy")) && (age > 5) && (!username.equals("")) && (!password.equals(""))) {
                 out.writeUTF("reg:" + username + ":" + password); // Sende Registrierungsdaten an Server
                 registerComplete = true;
             }
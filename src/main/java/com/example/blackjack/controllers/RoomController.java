@@ -1,5 +1,6 @@
 package com.example.blackjack.controllers;
 
+import com.example.blackjack.utils.RequestPipeline;
 import com.example.blackjack.utils.factories.ChatCellFactory;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -42,6 +43,8 @@ public class RoomController {
     private String roomname; // Der Name des aktuellen Chatraums
     private Timer timer; // Timer für periodische Aufgaben
     private ArrayList<String> chat_messages; // Liste der Chatnachrichten
+    private long chat_sequence; // Sequenznummer der letzten angezeigten Chatnachricht
+    private RequestPipeline pipeline; // sendet die Anfragen einer Aktualisierung gemeinsam
 
     /**
      * Konstruktor für RoomController.
@@ -59,6 +62,7 @@ public class RoomController {
         this.user = user;
         this.roomname = roomname;
         this.chat_messages = new ArrayList<>();
+        this.pipeline = new RequestPipeline(out, in);
 
         this.stage.setOnCloseRequest(this::handleWindowClose);
     }
@@ -78,9 +82,7 @@ public class RoomController {
                 try {
                     Platform.runLater(() -> {
                         try {
-                            reloadGameStart();
-                            reloadUsersInRoom();
-                            reloadChatMessages();
+                            reloadRoom();
                         } catch (IOException e) {
                             timer.cancel();
                             timer.purge();
@@ -106,7 +108,7 @@ public class RoomController {
             String message = chatField.getText();
             chatField.clear();
 
-            out.writeUTF("chatmessage:" + this.user + ":" + message);
+            out.writeUTF("chatmessage:room:" + roomname + ":" + this.user + ":" + message);
             out.flush();
         }
     }
@@ -162,47 +164,50 @@ public class RoomController {
     }
 
     /**
-     * Lädt die Chatnachrichten neu.
+     * Fragt Spielstart, Benutzer im Raum und Chatnachrichten mit einer einzigen Round-Trip-Zeit ab.
      *
      * @throws IOException Wenn ein E/A-Fehler auftritt
      */
-    private void reloadChatMessages() throws IOException {
-        out.writeUTF("reloadchat");
-        out.flush();
-        String up_to_date_messages = in.readUTF();
+    private void reloadRoom() throws IOException {
+        String started = pipeline.add("started:" + roomname);
+        String room_info = pipeline.add("reloadroominfo:" + roomname);
+        String chat = pipeline.add("reloadchat:room:" + roomname + ":" + chat_sequence);
+        pipeline.send();
+
+        reloadGameStart(pipeline.getResponse(started));
+        reloadUsersInRoom(pipeline.getResponse(room_info));
+        reloadChatMessages(pipeline.getResponse(chat));
+    }
 
-        if (!up_to_date_messages.equals("")) {
-            ArrayList<String> up_to_date_messages_arr = new ArrayList<>(Arrays.asList(up_to_date_messages.split("@")));
+    /**
+     * Hängt die neuen Chatnachrichten an die Ansicht an.
+     *
+     * @param new_messages Die Antwort des Servers auf "reloadchat:room:raumname:sequenz" ("sequenz\nnachricht@...")
+     */
+    private void reloadChatMessages(String new_messages) {
+        String[] parts = new_messages.split("\n", 2);
+        chat_sequence = Long.parseLong(parts[0]);
 
-            // Ersetze User durch "Me" für CSS-Styling
-            for (int i = 0; i < up_to_date_messages_arr.size(); i++) {
-                String message = up_to_date_messages_arr.get(i);
+        if (!parts[1].equals("")) {
+            for (String message : parts[1].split("@")) {
+                // Ersetze User durch "Me" für CSS-Styling
                 if (message.contains(user)) {
-                    up_to_date_messages_arr.set(i, message.replace(user, "Me"));
+                    message = message.replace(user, "Me");
                 }
+                chat_messages.add(message);
+                chatView.getItems().add(message);
             }
 
-            if (!up_to_date_messages_arr.equals(chat_messages)) {
-                int index = chat_messages.size();
-
-                for (int i = index; i < up_to_date_messages_arr.size(); i++) {
-                    chatView.getItems().add(up_to_date_messages_arr.get(i));
-                }
-
-                chatView.scrollTo(up_to_date_messages_arr.size() - 1);
-                chat_messages = up_to_date_messages_arr;
-            }
+            chatView.scrollTo(chat_messages.size() - 1);
         }
     }
 
     /**
-     * Lädt die Benutzer im Raum neu.
+     * Aktualisiert die Benutzer im Raum.
+     *
+     * @param info Die Antwort des Servers auf "reloadroominfo"
      */
-    private void reloadUsersInRoom() throws IOException {
-        out.writeUTF("reloadroominfo:" + roomname);
-        out.flush();
-
-        String info = in.readUTF();
+    private void reloadUsersInRoom(String info) {
         String[] tmp = info.split(":");
 
         if (!(tmp.length == 1)) {
@@ -230,12 +235,11 @@ public class RoomController {
 
     /**
      * Schaut ob das Game bereits durch einen anderen Spieler gestartet wurde
+     *
+     * @param started Die Antwort des Servers auf "started"
      */
-    private void reloadGameStart() throws IOException {
-        out.writeUTF("started:" + roomname);
-        out.flush();
-
-        if (in.readUTF().equals("true")) {
+    private void reloadGameStart(String started) throws IOException {
+        if (started.equals("true")) {
             timer.cancel();
             timer.purge();
 
@@ -9,17 +9,22 @@ import javafx.stage.Stage;
 
 import java.io.*;
 import java.net.*;
+import java.util.Timer;
+import java.util.TimerTask;
 
 /**
  * Diese Klasse stellt einen Client dar, der eine Verbindung zu einem Server aufbaut
  * und ein Anmeldefenster startet. Der Client kommuniziert über einen Socket mit dem Server.
+ * Solange die Verbindung besteht, sendet er regelmäßig "ping", damit der Server die Sitzung nicht als inaktiv schließt.
  */
 public class Client implements Runnable {
+    private static final long HEARTBEAT_INTERVAL = 15000; // deutlich kürzer als der Idle-Timeout des Servers (ms)
+
     private Stage stage;
     private Socket socket;
     private String serverName;
     private int port;
-    private DataOutputStream out;
+    private ProtocolOutputStream out; // kennt das aktuelle Protokoll (Text oder binär im Spiel)
     private DataInputStream in;
 
     /**
@@ -54,8 +59,9 @@ public class Client implements Runnable {
             try {
                 // Verbindungsaufbau
                 this.socket = new Socket(serverName, port);
-                this.out = new DataOutputStream(socket.getOutputStream());
+                this.out = new ProtocolOutputStream(socket.getOutputStream());
                 this.in = new DataInputStream(socket.getInputStream());
+                startHeartbeat();
 
                 //System.out.println("[Client] Verbunden mit " + socket.getRemoteSocketAddress());
 
@@ -75,4 +81,22 @@ public class Client implements Runnable {
             }
         });
     }
+
+    /**
+     * Startet den Heartbeat. "ping" hat keine Antwort, daher kann es unabhängig von den Anfragen der
+     * Controller gesendet werden; writeRequest sendet es im gerade gültigen Protokoll als einen Frame.
+     */
+    private void startHeartbeat() {
+        Timer heartbeat = new Timer("heartbeat", true);
+        heartbeat.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    out.writeRequest("ping");
+                } catch (IOException e) {
+                    heartbeat.cancel();
+                }
+            }
+        }, HEARTBEAT_INTERVAL, HEARTBEAT_INTERVAL);
+    }
 }
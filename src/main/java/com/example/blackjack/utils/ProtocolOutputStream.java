@@ -0,0 +1,98 @@
+package com.example.blackjack.utils;
+
+import com.example.blackjack.utils.server.BinaryProtocol;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * OutputStream der Verbindung zum Server, der weiß, ob gerade das Text- oder das Binärprotokoll gilt.
+ *
+ * Anfragen werden wie bisher als Text ("befehl:feld:feld") übergeben und mit writeRequest() im aktuellen
+ * Protokoll gesendet: im Textprotokoll mit writeUTF, im Binärprotokoll als Frame mit dem Opcode des Befehls.
+ * So können der Heartbeat und ein Controller, der auf das Binärprotokoll wechselt, denselben Stream verwenden.
+ * Während eines Wechsels wird nichts anderes gesendet, damit der Server keinen Frame im falschen Protokoll liest.
+ */
+public class ProtocolOutputStream extends DataOutputStream {
+    private final ReentrantLock write_lock = new ReentrantLock(); // ein Frame bzw. Protokollwechsel am Stück
+    private volatile boolean binary = false;
+
+    /**
+     * Konstruktor für den ProtocolOutputStream. Zu Beginn gilt das Textprotokoll.
+     *
+     * @param out der OutputStream des Sockets
+     */
+    public ProtocolOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    /**
+     * Gilt gerade das Binärprotokoll?
+     *
+     * @return true im Binärprotokoll
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Sendet eine Anfrage im aktuellen Protokoll.
+     *
+     * @param request die Anfrage im Textformat, z.B. "hit:tisch"
+     * @throws IOException Falls ein Fehler beim Schreiben auftritt.
+     */
+    public void writeRequest(String request) throws IOException {
+        write_lock.lock();
+        try {
+            if (binary) {
+                String[] data = request.split(":");
+                write(BinaryProtocol.encodeRequest(data[0], Arrays.copyOfRange(data, 1, data.length)));
+            } else {
+                writeUTF(request);
+            }
+            flush();
+        } finally {
+            write_lock.unlock();
+        }
+    }
+
+    /**
+     * Liest eine Text-Antwort im aktuellen Protokoll.
+     *
+     * @param in der InputStream der Verbindung
+     * @return die Antwort
+     * @throws IOException Falls ein Fehler beim Lesen auftritt.
+     */
+    public String readText(DataInputStream in) throws IOException {
+        return binary ? BinaryProtocol.decodeText(BinaryProtocol.readFrame(in)) : in.readUTF();
+    }
+
+    /**
+     * Wechselt das Protokoll der Verbindung. Niemand sonst darf währenddessen vom InputStream lesen.
+     *
+     * @param to_binary true für das Binärprotokoll, false für das Textprotokoll
+     * @param in der InputStream der Verbindung
+     * @return true, wenn danach das gewünschte Protokoll gilt
+     * @throws IOException Falls ein Fehler bei der Kommunikation auftritt.
+     */
+    public boolean switchProtocol(boolean to_binary, DataInputStream in) throws IOException {
+        write_lock.lock();
+        try {
+            if (binary == to_binary) {
+                return true;
+            }
+            String hello = to_binary ? BinaryProtocol.HELLO : BinaryProtocol.TEXT_HELLO;
+            writeRequest(hello);
+            if (readText(in).equals(hello)) {
+                binary = to_binary;
+            }
+            return binary == to_binary;
+        } finally {
+            write_lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.blackjack.utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sendet mehrere Anfragen an den Server, ohne zwischen ihnen auf die jeweilige Antwort zu warten.
+ * Jede Anfrage erhält eine Korrelations-ID ("#id#anfrage"), über die der Server seine Antworten
+ * kennzeichnet. Dadurch kostet z.B. die Aktualisierung der Lobby nur noch eine Round-Trip-Zeit
+ * statt einer pro Anfrage.
+ */
+public class RequestPipeline {
+    private DataOutputStream out;
+    private DataInputStream in;
+    private int next_id = 0;
+    private ArrayList<String> pending = new ArrayList<>(); // IDs der gesendeten, noch unbeantworteten Anfragen
+    private Map<String, String> responses = new HashMap<>(); // ID -> Antwort
+
+    /**
+     * Konstruktor für die RequestPipeline.
+     *
+     * @param out DataOutputStream zum Senden von Daten an den Server.
+     * @param in DataInputStream zum Empfangen von Daten vom Server.
+     */
+    public RequestPipeline(DataOutputStream out, DataInputStream in) {
+        this.out = out;
+        this.in = in;
+    }
+
+    /**
+     * Schreibt eine Anfrage mit neuer Korrelations-ID, ohne auf die Antwort zu warten.
+     *
+     * @param request die Anfrage, z.B. "reloadscoreboard"
+     * @return die Korrelations-ID, unter der die Antwort nach send() abgerufen werden kann
+     * @throws IOException Falls ein Fehler beim Schreiben auftritt.
+     */
+    public String add(String request) throws IOException {
+        String id = Integer.toString(next_id++);
+        out.writeUTF("#" + id + "#" + request);
+        pending.add(id);
+        return id;
+    }
+
+    /**
+     * Sendet alle hinzugefügten Anfragen und liest anschließend alle Antworten.
+     * Die Antworten vorheriger Aufrufe werden dabei verworfen.
+     *
+     * @throws IOException Falls ein Fehler bei der Kommunikation auftritt oder eine Antwort keiner Anfrage zugeordnet werden kann.
+     */
+    public void send() throws IOException {
+        out.flush();
+        responses.clear();
+
+        while (!pending.isEmpty()) {
+            String response = in.readUTF();
+            int end = response.startsWith("#") ? response.indexOf('#', 1) : -1;
+            if (end < 0 || !pending.remove(response.substring(1, end))) {
+                throw new IOException("Antwort ohne passende Korrelations-ID: " + response);
+            }
+            responses.put(response.substring(1, end), response.substring(end + 1));
+        }
+        next_id = 0;
+    }
+
+    /**
+     * Gibt die Antwort zu einer Anfrage zurück.
+     *
+     * @param id die Korrelations-ID aus add()
+     * @return die Antwort des Servers oder null, falls es keine Antwort zu dieser ID gibt
+     */
+    public String getResponse(String id) {
+        return responses.get(id);
+    }
+}
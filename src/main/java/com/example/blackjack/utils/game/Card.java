@@ -3,39 +3,108 @@ package com.example.blackjack.utils.game;
 
 /**
  * Dient der Darstellung einer einzigen Karte.
- * Diese besteht aus der deckId: (Es gibt 6 Decks die in einem vermischt werden: DeckID = [0...5]), 
+ * Diese besteht aus der deckId: (Es gibt 6 Decks die in einem vermischt werden: DeckID = [0...5]),
  * dem Rang: 13 Ranks (1:Ace, 2-10:Numbers, 11:Jack, 12:Queen, 13:King),
  * und dem Symbol: 4 Symbols (0:Hearts, 1:Diamonds, 2:Spades, 3:Clubs).
+ *
+ * Intern wird nur ein Kartencode gespeichert: deckId * 52 + symbol * 13 + rank - 1 (0...311).
+ * Für jeden Code gibt es eine gemeinsam genutzte Instanz (Card.of()); Stapel, Hände und Protokoll
+ * verwenden diese Instanzen bzw. die Codes, sodass beim Spielen keine Karten erzeugt werden.
+ * Zwei Karten mit demselben Code sind gleich (equals), auch wenn eine mit dem Konstruktor erzeugt wurde.
  */
 public class Card {
+    public static final int DECK_COUNT = 6; // Anzahl der Decks im Stapel
+    public static final int FACE_COUNT = 52; // verschiedene Karten pro Deck
+    public static final int CODE_COUNT = DECK_COUNT * FACE_COUNT; // Anzahl der Kartencodes
 
-    private final int deckId;
-    private final int rank; //13 Ranks (1:Ace, 2-10:Numbers, 11:Jack, 12:Queen, 13:King)
-    private final int symbol; // 4 Symbols (0:Hearts, 1:Diamonds, 2:Spades, 3:Clubs)
-    private final int bildIdent; // wird verwendet, um das richtige Kartenbild zu identifizieren
+    // Kartencode -> gemeinsam genutzte Karte
+    private static final Card[] CARDS = new Card[CODE_COUNT];
+
+    static {
+        for (int code = 0; code < CODE_COUNT; code++) {
+            CARDS[code] = new Card(code);
+        }
+    }
+
+    private final short code;
 
     /**
-     * Initialisieren einer Karte.
-     * 
+     * Initialisieren einer Karte. Für Karten im Spiel sollte Card.of() verwendet werden, das die
+     * gemeinsam genutzte Instanz zurückgibt.
+     *
      * @param deckId die ID des Decks: (Es gibt 6 Decks die in einem vermischt werden: DeckID = [0...5]).
      * @param rank der Rang der Karte: 13 Ranks (1:Ace, 2-10:Numbers, 11:Jack, 12:Queen, 13:King).
      * @param symbol das Symbol der Karte: 4 Symbols (0:Hearts, 1:Diamonds, 2:Spades, 3:Clubs).
+     * @throws IllegalArgumentException wenn einer der Werte außerhalb des gültigen Bereichs liegt
      */
     public Card(int deckId, int rank, int symbol) {
-        this.deckId = deckId;
-        this.rank = rank;
-        this.symbol = symbol;
-        this.bildIdent = symbol * 13 + rank;
+        this(code(deckId, rank, symbol));
+    }
+
+    private Card(int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * Gibt die gemeinsam genutzte Karte zu einem Kartencode zurück.
+     *
+     * @param code der Kartencode (0...311)
+     * @return die Karte
+     * @throws IllegalArgumentException wenn der Code ungültig ist
+     */
+    public static Card of(int code) {
+        if (code < 0 || code >= CODE_COUNT) {
+            throw new IllegalArgumentException("Ungültiger Kartencode: " + code);
+        }
+        return CARDS[code];
+    }
+
+    /**
+     * Gibt die gemeinsam genutzte Karte zurück.
+     *
+     * @param deckId die ID des Decks (0...5)
+     * @param rank der Rang der Karte (1...13)
+     * @param symbol das Symbol der Karte (0...3)
+     * @return die Karte
+     * @throws IllegalArgumentException wenn einer der Werte außerhalb des gültigen Bereichs liegt
+     */
+    public static Card of(int deckId, int rank, int symbol) {
+        return CARDS[code(deckId, rank, symbol)];
+    }
+
+    /**
+     * Berechnet den Kartencode.
+     *
+     * @param deckId die ID des Decks (0...5)
+     * @param rank der Rang der Karte (1...13)
+     * @param symbol das Symbol der Karte (0...3)
+     * @return der Kartencode (0...311)
+     * @throws IllegalArgumentException wenn einer der Werte außerhalb des gültigen Bereichs liegt
+     */
+    public static int code(int deckId, int rank, int symbol) {
+        if (deckId < 0 || deckId >= DECK_COUNT || rank < 1 || rank > 13 || symbol < 0 || symbol > 3) {
+            throw new IllegalArgumentException("Ungültige Karte: Deck " + deckId + ", Rang " + rank + ", Symbol " + symbol);
+        }
+        return deckId * FACE_COUNT + symbol * 13 + rank - 1;
+    }
+
+    /**
+     * Gibt den Kartencode zurück.
+     *
+     * @return deckId * 52 + symbol * 13 + rank - 1
+     */
+    public int getCode() {
+        return code;
     }
 
     /**
      * Gibt die DeckID der Karte zurück.
      * (Es gibt 6 Decks die in einem vermischt werden: DeckID = [0...5])
-     * 
+     *
      * @return Den Integer der DeckID.
      */
     public int getDeckId() {
-        return deckId;
+        return code / FACE_COUNT;
     }
 
     /**
@@ -45,7 +114,7 @@ public class Card {
      * @return Den Integer des Rangs.
      */
     public int getRank() {
-        return rank;
+        return code % 13 + 1;
     }
 
     /**
@@ -55,17 +124,25 @@ public class Card {
      * @return Den Integer des Symbols.
      */
     public int getSymbol() {
-        return symbol;
+        return (code % FACE_COUNT) / 13;
     }
 
     /**
      * Gibt die Identifikation des Kartenbildes zurück
      *
-     * @return die ID des Bildes (Name der Datei)
+     * @return die ID des Bildes (Name der Datei), symbol * 13 + rank
      */
     public int getBildIdent() {
-        return bildIdent;
+        return code % FACE_COUNT + 1;
     }
-}
 
+    @Override
+    public boolean equals(Object o) {
+        return (o instanceof Card other) && other.code == code;
+    }
 
+    @Override
+    public int hashCode() {
+        return code;
+    }
+}
@@ -10,12 +10,11 @@ import java.util.ArrayList;
  * Außerdem muss er den Rundenbeginn starten, indem er die Karten verteilt.
  */
 public class Dealer {
-    private final ArrayList<Card> hand;
+    private final Hand hand;
     private final Deck deck;
     private final Table table;
     private boolean secondCardVisibility;
     private boolean blackjack = false;
-    private int score = 0;
 
     /**
      * Initialisieren des Dealer-Objekts
@@ -24,7 +23,7 @@ public class Dealer {
      * @param table Das Table-Objekt auf dem das Spiel läuft.
      */
     public Dealer(Deck deck, Table table) {
-        this.hand = new ArrayList<>();
+        this.hand = new Hand();
         this.table = table;
         this.deck = deck;
     }
@@ -49,26 +48,34 @@ public class Dealer {
      * Beginnt die Runde.
      * Dabei erhällt jeder Spieler und der Dealer eine offene Karte.
      * Anschließend erhält jeder Spieler eine weitere offene Karte und der Dealer eine verdeckte.
+     * Ob der Schuh vorher neu gemischt wird, entscheidet Table.beginRound().
      *
      * @param activePlayers Die Liste aller aktiven (haben einen Einsatz gesetzt) Spieler
      * @throws DeckEmptyException wenn das Deck leer sein sollte.
      */
     public void beginRound(ArrayList<Player> activePlayers) throws DeckEmptyException {
-        deck.shuffle();
-
-        for (Player player: activePlayers) {
-            table.handCard(deck.dealCard(), player);
+        for (int seat = 0; seat < activePlayers.size(); seat++) {
+            table.handCard(deck.dealCard(), seat);
         }
         hand.add(deck.dealCard());
 
-        for (Player player: activePlayers) {
-            table.handCard(deck.dealCard(), player);
+        for (int seat = 0; seat < activePlayers.size(); seat++) {
+            table.handCard(deck.dealCard(), seat);
         }
 
         hand.add(deck.dealCard());
         secondCardVisibility = false;
     }
 
+    /**
+     * Setzt den Dealer für eine neue Runde zurück. Die Karten der Hand liegen bereits im Ablagestapel des Decks.
+     */
+    public void reset() {
+        hand.clear();
+        secondCardVisibility = false;
+        blackjack = false;
+    }
+
     /**
      * Lässt den Dealer nach den Regeln Karten ziehen, falls notwendig
      *
@@ -77,34 +84,11 @@ public class Dealer {
     public void makeMove() throws DeckEmptyException {
         secondCardVisibility = true; //decke 2. Karte auf
 
-        if (checkBlackjack()) {
-            this.blackjack = checkBlackjack();
-            this.score = 21;
-        } else {
-            int score = 0;
-            int anzAss = 0;
-
-            for (int i = 0; i <= hand.size() - 1; i++) {
-                int rank = hand.get(i).getRank();
-                if (rank == 1) {
-                    score += 11;
-                    anzAss++;
-                } else if (rank >= 2 && rank <= 9) {
-                    score += rank;
-                } else if (rank >= 10) {
-                    score += 10;
-                }
-            }
-            while (score > 21 && anzAss > 0) {
-                score -= 10;
-                anzAss--;
-            }
-            if (score <= 16) {
+        this.blackjack = hand.isBlackjack();
+        if (!blackjack) {
+            while (hand.getScore() <= 16) {
                 hand.add(deck.dealCard());
-                makeMove();
             }
-
-            this.score = score;
         }
     }
 
@@ -114,7 +98,7 @@ public class Dealer {
      * @return Wahrheitswert, ob der Spieler ein Blackjack hat.
      */
     public boolean checkBlackjack(){
-        return (hand.get(0).getRank() == 1 && hand.get(1).getRank() >= 10) | (hand.get(1).getRank() == 1 && hand.get(0).getRank() >= 10); // true wenn Blackjack
+        return hand.isBlackjack(); // true wenn Blackjack
     }
 
     /**
@@ -123,25 +107,7 @@ public class Dealer {
      * @return den Score des Dealers
      */
     public int getScore() {
-        int score = 0;
-        int anzAss = 0;
-        for(int i = 0; i <= hand.size() - 1; i++){
-            int rank = hand.get(i).getRank();
-            if(rank == 1){
-                score += 11;
-                anzAss++;
-            }else if(rank >= 2 && rank <= 9){
-                score += rank;
-            }else if(rank >= 10){
-                score += 10;
-            }
-        }
-        while(score > 21 && anzAss > 0){
-            score -= 10;
-            anzAss--;
-        }
-        this.score = score;
-        return score;
+        return hand.getScore();
     }
 
     /**
@@ -149,10 +115,19 @@ public class Dealer {
      *
      * @return Eine Liste von Karten, die die Hand des Dealers repräsentieren.
      */
-    public ArrayList<Card> getHand() {
+    public Hand getHand() {
         return hand;
     }
 
+    /**
+     * Ist die zweite (verdeckte) Karte des Dealers bereits aufgedeckt?
+     *
+     * @return true, wenn die zweite Karte sichtbar ist
+     */
+    public boolean isSecondCardVisible() {
+        return secondCardVisibility;
+    }
+
     /**
      * Hat der Dealer ein Blackjack?
      *
@@ -2,37 +2,314 @@ package com.example.blackjack.utils.game;
 
 import com.example.blackjack.utils.game.exceptions.DeckEmptyException;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Erstellen des Spieldecks und dessen Karten.
  * Das Deck kann gemischt werden, sowie die oberste Karte ausgeben.
  * Man kann Karten auch wieder hinzufügen.
+ *
+ * Die Karten liegen als Kartencodes (siehe Card.getCode()) in einem short-Array. Die oberste Karte steht an
+ * der Position next, ausgeteilt wird durch Weiterschieben von next statt durch Entfernen aus einer Liste.
+ * dealCard() gibt die gemeinsam genutzte Card-Instanz zum Code zurück und erzeugt dabei kein neues Objekt.
+ *
+ * Das Deck wird als Schuh über viele Runden verwendet. Ausgeteilte Karten bleiben vor next im Array liegen
+ * (Ablagestapel). Eine Schnittkarte (Penetration) markiert, wie weit der Schuh ausgeteilt wird; erst wenn sie
+ * erreicht ist, legt shuffleIfNeeded() vor der nächsten Runde den Ablagestapel zurück und mischt neu.
+ * Mit einem ShoePool wird dabei ein bereits im Hintergrund gemischter Schuh übernommen.
+ * Hinter der Schnittkarte bleiben immer mindestens ROUND_RESERVE Karten, genug für eine volle Runde an allen
+ * Plätzen. Läuft der Schuh in einer außergewöhnlich langen Runde trotzdem leer, wird der Ablagestapel der
+ * vorherigen Runden gemischt und weiter ausgeteilt; vor der nächsten Runde wird dann neu gemischt.
+ *
+ * Gemischt wird mit einem eigenen Zufallsgenerator des Decks (siehe RandomProvider). Jeder neue Schuh wird aus
+ * der Grundreihenfolge mit einem eigenen Seed gemischt; mit Seed und Anzahl der bereits ausgeteilten Karten
+ * stellt replay() den Schuh zu Beginn einer Runde exakt wieder her.
  */
 public class Deck {
+    public static final int DECK_COUNT = Card.DECK_COUNT; // Anzahl der Decks im Stapel
+    public static final int SIZE = Card.CODE_COUNT; // Karten in einem vollen Stapel
+    // Karten, die hinter der Schnittkarte bleiben: alle Plätze mit je zwei Händen (Split) zu 4 Karten und der Dealer
+    public static final int ROUND_RESERVE = Table.MAX_SEATS * 2 * 4 + 6;
+    // Anteil des Schuhs, der bis zur Schnittkarte ausgeteilt wird, überschreibbar mit -Dblackjack.table.penetration
+    public static final double DEFAULT_PENETRATION = defaultPenetration();
 
-    private final ArrayList<Card> cards;
+    private short[] cards; // Kartencodes: 0 bis next = Ablagestapel, next (oberste Karte) bis end (exklusiv) = Schuh
+    private int next = 0;
+    private int end = 0;
+    private double penetration;
+    private int cut_card; // Position der Schnittkarte im Array
+    private int round_start = 0; // Position der ersten Karte der laufenden Runde, davor liegt der Ablagestapel
+    private boolean shuffled = false; // wurde seit dem Erstellen schon einmal vollständig gemischt
+    private boolean complete = true; // enthält genau die SIZE Karten des Schuhs (keine mit addCard hinzugefügt)
+    private final ShoePool pool; // Vorrat an gemischten Schuhen, null = immer selbst mischen
+    private final RandomProvider random_provider;
+    private final RandomGenerator random; // eigener Generator: Seeds neuer Schuhe und shuffle()
+    private long shoe_seed; // Seed, mit dem der aktuelle Schuh gemischt wurde
 
     /**
-     * Initialisiere das Spieldeck. Erstellt die Karten.
+     * Initialisiere das Spieldeck. Erstellt die Karten. Die Schnittkarte liegt am Ende des Stapels.
      */
     public Deck() {
-        cards = new ArrayList<>(312);
-        for (int i = 0; i < 6; i++) { // 6 Decks (0-5)
+        this(1.0);
+    }
+
+    /**
+     * Initialisiere das Spieldeck als Schuh mit Schnittkarte. Erstellt die Karten.
+     *
+     * @param penetration Anteil der Karten, die bis zur Schnittkarte ausgeteilt werden (größer 0, höchstens 1)
+     * @throws IllegalArgumentException wenn die Penetration außerhalb des gültigen Bereichs liegt
+     */
+    public Deck(double penetration) {
+        this(penetration, null);
+    }
+
+    /**
+     * Initialisiere das Spieldeck als Schuh mit Schnittkarte, der beim Neumischen gemischte Schuhe
+     * aus einem ShoePool übernimmt. Erstellt die Karten.
+     *
+     * @param penetration Anteil der Karten, die bis zur Schnittkarte ausgeteilt werden (größer 0, höchstens 1)
+     * @param pool Vorrat an gemischten Schuhen oder null
+     * @throws IllegalArgumentException wenn die Penetration außerhalb des gültigen Bereichs liegt
+     */
+    public Deck(double penetration, ShoePool pool) {
+        this(penetration, pool, (pool != null) ? pool.getRandomProvider() : RandomProvider.DEFAULT);
+    }
+
+    /**
+     * Initialisiere das Spieldeck als Schuh mit Schnittkarte und eigenem Zufallsgenerator. Schuhe aus dem
+     * ShoePool werden nur übernommen, wenn der Vorrat denselben RandomProvider verwendet.
+     *
+     * @param penetration Anteil der Karten, die bis zur Schnittkarte ausgeteilt werden (größer 0, höchstens 1)
+     * @param pool Vorrat an gemischten Schuhen oder null
+     * @param random_provider erstellt den Zufallsgenerator des Decks
+     * @throws IllegalArgumentException wenn die Penetration außerhalb des gültigen Bereichs liegt
+     */
+    public Deck(double penetration, ShoePool pool, RandomProvider random_provider) {
+        setPenetration(penetration);
+        this.pool = (pool != null && pool.getRandomProvider() == random_provider) ? pool : null;
+        this.random_provider = random_provider;
+        this.random = random_provider.create(ThreadLocalRandom.current().nextLong());
+        cards = new short[SIZE];
+        for (int i = 0; i < DECK_COUNT; i++) { // 6 Decks (0-5)
             for (int j = 0; j < 4; j++) { // 4 Symbols (0:Hearts, 1:Diamonds, 2:Spades, 3:Clubs)
                 for (int k = 1; k <= 13; k++) { //13 Ranks (1:Ace, 2-10:Numbers, 11:Jack, 12:Queen, 13:King)
-                    cards.add(new Card(i, k, j));
+                    cards[end++] = (short) Card.code(i, k, j);
                 }
             }
         }
+        placeCutCard();
+    }
+
+    /**
+     * Stellt einen Schuh so wieder her, wie er zu Beginn einer Runde war.
+     *
+     * @param random_provider der RandomProvider des ursprünglichen Decks
+     * @param shoe_seed der Seed des Schuhs (getShoeSeed())
+     * @param dealt Anzahl der zu Rundenbeginn bereits ausgeteilten Karten (getDiscardSize())
+     * @return das Deck, dealCard() liefert dieselben Karten in derselben Reihenfolge wie in der Runde
+     * @throws IllegalArgumentException wenn dealt außerhalb des Schuhs liegt
+     */
+    public static Deck replay(RandomProvider random_provider, long shoe_seed, int dealt) {
+        if (dealt < 0 || dealt > SIZE) {
+            throw new IllegalArgumentException("Ungültige Anzahl ausgeteilter Karten: " + dealt);
+        }
+        Deck deck = new Deck(1.0, null, random_provider);
+        deck.reshuffle(shoe_seed);
+        deck.next = dealt;
+        deck.round_start = dealt;
+        return deck;
+    }
+
+    /**
+     * Liest die Standard-Penetration aus -Dblackjack.table.penetration. Ungültige Werte werden gemeldet
+     * und durch 0.75 ersetzt.
+     *
+     * @return die Penetration (größer 0, höchstens 1)
+     */
+    private static double defaultPenetration() {
+        String value = System.getProperty("blackjack.table.penetration", "0.75");
+        try {
+            double penetration = Double.parseDouble(value);
+            if (penetration > 0 && penetration <= 1) {
+                return penetration;
+            }
+        } catch (NumberFormatException e) {
+            // wie ein Wert außerhalb des Bereichs behandeln
+        }
+        System.out.println("[Server] Ungültige Penetration " + value + ", verwende 0.75");
+        return 0.75;
     }
 
     /**
-     * Mischt die Karten neu.
+     * Setzt die Penetration. Sie gilt ab dem nächsten Mischen des ganzen Schuhs. Die Schnittkarte wird dabei
+     * höchstens so weit hinten platziert, dass noch ROUND_RESERVE Karten dahinter liegen.
+     *
+     * @param penetration Anteil der Karten, die bis zur Schnittkarte ausgeteilt werden (größer 0, höchstens 1)
+     * @throws IllegalArgumentException wenn die Penetration außerhalb des gültigen Bereichs liegt
+     */
+    public void setPenetration(double penetration) {
+        if (!(penetration > 0 && penetration <= 1)) {
+            throw new IllegalArgumentException("Die Penetration muss größer 0 und höchstens 1 sein: " + penetration);
+        }
+        this.penetration = penetration;
+    }
+
+    public double getPenetration() {
+        return penetration;
+    }
+
+    /**
+     * Mischt die Karten neu (Fisher-Yates über die verbliebenen Karten).
      */
     public void shuffle(){
-        Collections.shuffle(cards);
+        shuffle(cards, next, end, random);
+    }
+
+    /**
+     * Mischt einen Bereich von Kartencodes (Fisher-Yates).
+     *
+     * @param codes die Kartencodes
+     * @param from erster Index (inklusive)
+     * @param to letzter Index (exklusiv)
+     * @param random der Zufallsgenerator
+     */
+    static void shuffle(short[] codes, int from, int to, RandomGenerator random) {
+        for (int i = to - 1; i > from; i--) {
+            int j = from + random.nextInt(i - from + 1);
+            short tmp = codes[i];
+            codes[i] = codes[j];
+            codes[j] = tmp;
+        }
+    }
+
+    /**
+     * Füllt ein Array mit dem Schuh, der sich aus einem Seed ergibt: Grundreihenfolge (Kartencode 0 bis SIZE - 1),
+     * gemischt mit einem Generator des RandomProviders.
+     *
+     * @param codes Ziel mit mindestens SIZE Plätzen
+     * @param random_provider der RandomProvider
+     * @param seed der Seed
+     */
+    static void fillShoe(short[] codes, RandomProvider random_provider, long seed) {
+        for (int code = 0; code < SIZE; code++) {
+            codes[code] = (short) code;
+        }
+        shuffle(codes, 0, SIZE, random_provider.create(seed));
+    }
+
+    /**
+     * Legt den Ablagestapel zurück in den Schuh und mischt alle Karten neu, wenn möglich mit einem
+     * bereits gemischten Schuh aus dem ShoePool.
+     */
+    public void reshuffle() {
+        OptionalLong pooled = (pool != null && complete) ? pool.take(cards) : OptionalLong.empty();
+        if (pooled.isPresent()) {
+            next = 0;
+            shoe_seed = pooled.getAsLong();
+            placeCutCard();
+            shuffled = true;
+        } else {
+            reshuffle(random.nextLong());
+        }
+    }
+
+    /**
+     * Legt den Ablagestapel zurück in den Schuh und mischt alle Karten mit dem angegebenen Seed neu.
+     * Enthält das Deck nur die SIZE Karten des Schuhs, ergibt derselbe Seed immer dieselbe Reihenfolge.
+     *
+     * @param seed der Seed
+     */
+    public void reshuffle(long seed) {
+        next = 0;
+        if (complete) {
+            fillShoe(cards, random_provider, seed);
+        } else {
+            shuffle(cards, 0, end, random_provider.create(seed));
+        }
+        shoe_seed = seed;
+        placeCutCard();
+        shuffled = true;
+    }
+
+    /**
+     * Gibt den Seed zurück, mit dem der aktuelle Schuh gemischt wurde.
+     *
+     * @return der Seed, 0 wenn noch nicht gemischt wurde
+     */
+    public long getShoeSeed() {
+        return shoe_seed;
+    }
+
+    public RandomProvider getRandomProvider() {
+        return random_provider;
+    }
+
+    /**
+     * Mischt den Schuh vor einer Runde neu, wenn er noch nie gemischt wurde oder die Schnittkarte
+     * erreicht ist. Sonst wird mit den restlichen Karten weitergespielt.
+     * Die Karten ab hier gehören zur neuen Runde; alle vorher ausgeteilten zum Ablagestapel.
+     *
+     * @return true, wenn neu gemischt wurde
+     */
+    public boolean shuffleIfNeeded() {
+        boolean reshuffled = false;
+        if (!shuffled || isCutCardReached()) {
+            reshuffle();
+            reshuffled = true;
+        }
+        round_start = next;
+        return reshuffled;
+    }
+
+    /**
+     * Prüft, ob die Schnittkarte erreicht ist.
+     *
+     * @return true, wenn mindestens so viele Karten ausgeteilt wurden, wie die Penetration vorgibt
+     */
+    public boolean isCutCardReached() {
+        return next >= cut_card;
+    }
+
+    /**
+     * Gibt die Anzahl der Karten im Ablagestapel zurück.
+     *
+     * @return Anzahl der seit dem letzten Mischen ausgeteilten Karten
+     */
+    public int getDiscardSize() {
+        return next;
+    }
+
+    private void placeCutCard() {
+        cut_card = Math.max(1, Math.min((int) (end * penetration), end - ROUND_RESERVE));
+    }
+
+    /**
+     * Legt den Ablagestapel der vorherigen Runden gemischt hinter die Karten der laufenden Runde, wenn der
+     * Schuh mitten in der Runde leer ist. Gemischt wird mit einem aus dem Seed des Schuhs abgeleiteten Generator,
+     * damit replay() dieselben Karten liefert. Die Schnittkarte gilt danach als erreicht.
+     *
+     * @return true, wenn es einen Ablagestapel gab
+     */
+    private boolean refillFromDiscard() {
+        int discard = round_start;
+        if (discard == 0) {
+            return false;
+        }
+        int in_play = next - round_start;
+        short[] refilled = new short[cards.length];
+        System.arraycopy(cards, round_start, refilled, 0, in_play);
+        System.arraycopy(cards, 0, refilled, in_play, discard);
+        shuffle(refilled, in_play, in_play + discard, random_provider.create(shoe_seed + next));
+        cards = refilled;
+        next = in_play;
+        end = in_play + discard;
+        round_start = 0;
+        cut_card = 0;
+        System.out.println("[Server] Schuh leer, mische " + discard + " Karten aus dem Ablagestapel");
+        return true;
     }
 
     /**
@@ -41,7 +318,7 @@ public class Deck {
      * @return Die Größe des Decks
      */
     public int getSize(){
-        return cards.size();
+        return end - next;
     }
 
     /**
@@ -51,17 +328,23 @@ public class Deck {
      * @param card Die Karte die dem Deck hinzugefügt werden soll.
      */
     public void addCard(Card card) {
-        cards.add(card);
+        if (end == cards.length) {
+            // Der Ablagestapel vor next bleibt erhalten
+            cards = Arrays.copyOf(cards, cards.length * 2);
+        }
+        complete = false;
+        cards[end++] = (short) card.getCode();
     }
 
     /**
      * Gibt die oberste Karte des Decks zurück und entfernt diese aus dem Deck.
+     * Ist der Schuh leer, wird zuerst der Ablagestapel der vorherigen Runden gemischt nachgelegt.
      *
-     * @throws DeckEmptyException wenn das Deck leer sein sollte.
+     * @throws DeckEmptyException wenn das Deck und der Ablagestapel leer sein sollten.
      */
     public Card dealCard() throws DeckEmptyException {
-        if (!cards.isEmpty()) {
-            return cards.remove(0);
+        if (next < end || refillFromDiscard()) {
+            return Card.of(cards[next++]);
         }else{
             throw new DeckEmptyException("Es befinden sich keine Karten im Deck!");
         }
@@ -0,0 +1,244 @@
+package com.example.blackjack.utils.game;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Die Karten einer Hand (eines Spielers oder des Dealers).
+ * Die Hand führt ihre Summe bei jeder hinzugefügten, ersetzten oder entfernten Karte mit:
+ * die harte Summe (jedes Ass zählt 1), die Anzahl der Asse und ob die ersten beiden Karten ein Blackjack sind.
+ * Score, Blackjack und Überbieten lassen sich dadurch ohne erneutes Durchlaufen der Karten abfragen.
+ *
+ * Die Hand ist eine ArrayList&lt;Card&gt;, sodass bestehender Code die Karten weiterhin als Liste lesen und ändern kann.
+ * Teillisten (subList) sind nur lesbar, da Änderungen darüber an der Summe vorbeigehen würden.
+ */
+public class Hand extends ArrayList<Card> {
+    private int hard_total = 0; // Summe, jedes Ass zählt 1
+    private int aces = 0; // Anzahl der Asse
+    private boolean blackjack = false; // Ass und Zehnerkarte als erste beiden Karten
+
+    /**
+     * Konstruktor für eine leere Hand.
+     */
+    public Hand() {
+        super(4);
+    }
+
+    /**
+     * Konstruktor für eine Hand mit den übergebenen Karten.
+     *
+     * @param cards die Karten der Hand
+     */
+    public Hand(Collection<? extends Card> cards) {
+        super(cards);
+        recount();
+    }
+
+    /**
+     * Gibt den Wert einer Karte zurück, wobei ein Ass 1 zählt.
+     *
+     * @param card die Karte
+     * @return 1 für ein Ass, 2-9 für Zahlenkarten, 10 für Zehn und Bildkarten
+     */
+    public static int points(Card card) {
+        int rank = card.getRank();
+        return (rank >= 10) ? 10 : rank;
+    }
+
+    /**
+     * Gibt den Score der Hand zurück. Ein Ass zählt 11, solange die Hand dadurch nicht über 21 kommt.
+     *
+     * @return der Score der Hand
+     */
+    public int getScore() {
+        return isSoft() ? hard_total + 10 : hard_total;
+    }
+
+    /**
+     * Gibt die harte Summe der Hand zurück, bei der jedes Ass 1 zählt.
+     *
+     * @return die harte Summe
+     */
+    public int getHardTotal() {
+        return hard_total;
+    }
+
+    /**
+     * Gibt die Anzahl der Asse in der Hand zurück.
+     *
+     * @return Anzahl der Asse
+     */
+    public int getAces() {
+        return aces;
+    }
+
+    /**
+     * Ist die Hand weich, zählt also ein Ass 11?
+     *
+     * @return true, wenn ein Ass 11 zählt
+     */
+    public boolean isSoft() {
+        return aces > 0 && hard_total <= 11;
+    }
+
+    /**
+     * Sind die ersten beiden Karten ein Ass und eine Zehnerkarte?
+     *
+     * @return true bei Blackjack
+     */
+    public boolean isBlackjack() {
+        return blackjack;
+    }
+
+    /**
+     * Hat sich die Hand überboten?
+     *
+     * @return true, wenn der Score über 21 liegt
+     */
+    public boolean isBust() {
+        return hard_total > 21;
+    }
+
+    @Override
+    public boolean add(Card card) {
+        super.add(card);
+        count(card, 1);
+        checkBlackjack();
+        return true;
+    }
+
+    @Override
+    public void add(int index, Card card) {
+        super.add(index, card);
+        count(card, 1);
+        checkBlackjack();
+    }
+
+    @Override
+    public Card set(int index, Card card) {
+        Card old = super.set(index, card);
+        count(old, -1);
+        count(card, 1);
+        checkBlackjack();
+        return old;
+    }
+
+    @Override
+    public Card remove(int index) {
+        Card old = super.remove(index);
+        count(old, -1);
+        checkBlackjack();
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!super.remove(o)) {
+            return false;
+        }
+        count((Card) o, -1);
+        checkBlackjack();
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        hard_total = 0;
+        aces = 0;
+        blackjack = false;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Card> cards) {
+        boolean changed = super.addAll(cards);
+        recount();
+        return changed;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Card> cards) {
+        boolean changed = super.addAll(index, cards);
+        recount();
+        return changed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> cards) {
+        boolean changed = super.removeAll(cards);
+        recount();
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> cards) {
+        boolean changed = super.retainAll(cards);
+        recount();
+        return changed;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Card> filter) {
+        boolean changed = super.removeIf(filter);
+        recount();
+        return changed;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<Card> operator) {
+        super.replaceAll(operator);
+        recount();
+    }
+
+    @Override
+    public void sort(Comparator<? super Card> comparator) {
+        super.sort(comparator);
+        checkBlackjack();
+    }
+
+    @Override
+    protected void removeRange(int from, int to) {
+        super.removeRange(from, to);
+        recount();
+    }
+
+    @Override
+    public List<Card> subList(int from, int to) {
+        return Collections.unmodifiableList(super.subList(from, to));
+    }
+
+    private void count(Card card, int sign) {
+        int points = points(card);
+        hard_total += sign * points;
+        if (points == 1) {
+            aces += sign;
+        }
+    }
+
+    private void checkBlackjack() {
+        if (size() < 2) {
+            blackjack = false;
+        } else {
+            int first = points(get(0));
+            int second = points(get(1));
+            blackjack = (first == 1 && second == 10) || (first == 10 && second == 1);
+        }
+    }
+
+    /**
+     * Berechnet Summe und Blackjack nach einer Änderung mehrerer Karten neu.
+     */
+    private void recount() {
+        hard_total = 0;
+        aces = 0;
+        for (int i = 0; i < size(); i++) {
+            count(get(i), 1);
+        }
+        checkBlackjack();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.blackjack.utils.game;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Erstellt die Zufallsgeneratoren, mit denen Schuhe gemischt werden. Jeder Tisch bzw. jeder Schuh erhält eine
+ * eigene Instanz mit eigenem Seed statt des gemeinsamen, unter Last umkämpften Standard-Random. Derselbe
+ * Seed ergibt dieselbe Kartenreihenfolge, dadurch lässt sich jede Runde nachspielen (siehe Deck.replay()).
+ *
+ * Der Standard wird beim Start über die System-Property "blackjack.table.random" gewählt
+ * (splittable oder xoshiro).
+ */
+@FunctionalInterface
+public interface RandomProvider {
+    /**
+     * java.util.SplittableRandom.
+     */
+    RandomProvider SPLITTABLE = SplittableRandom::new;
+
+    /**
+     * xoshiro256** (Xoshiro256).
+     */
+    RandomProvider XOSHIRO = Xoshiro256::new;
+
+    /**
+     * Der beim Start gewählte Standard aller Tische.
+     */
+    RandomProvider DEFAULT = fromSystemProperty();
+
+    /**
+     * Erstellt einen Zufallsgenerator. Zwei Generatoren mit demselben Seed liefern dieselbe Folge.
+     *
+     * @param seed der Seed
+     * @return der neue Zufallsgenerator
+     */
+    RandomGenerator create(long seed);
+
+    /**
+     * Liest den Zufallsgenerator aus der System-Property "blackjack.table.random" (splittable oder xoshiro).
+     *
+     * Ein unbekannter Wert wird gemeldet und durch SPLITTABLE ersetzt, da DEFAULT beim Laden der Klasse
+     * gelesen wird und ein Fehler dort jeden neuen Tisch scheitern ließe.
+     *
+     * @return der gewählte Provider, SPLITTABLE falls keine oder eine ungültige Property gesetzt ist
+     */
+    static RandomProvider fromSystemProperty() {
+        String name = System.getProperty("blackjack.table.random");
+        if (name == null || name.isBlank()) {
+            return SPLITTABLE;
+        }
+        return switch (name.trim().toLowerCase()) {
+            case "splittable" -> SPLITTABLE;
+            case "xoshiro" -> XOSHIRO;
+            default -> {
+                System.out.println("[Server] Unbekannter Zufallsgenerator " + name + ", verwende splittable");
+                yield SPLITTABLE;
+            }
+        };
+    }
+}
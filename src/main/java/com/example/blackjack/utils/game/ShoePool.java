@@ -0,0 +1,238 @@
+package com.example.blackjack.utils.game;
+
+import java.util.OptionalLong;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Vorrat an fertig gemischten Schuhen (Kartencodes aller Deck.SIZE Karten) für alle Tische des Servers.
+ * Muss ein Tisch neu mischen, übernimmt er einen fertigen Schuh aus dem Vorrat, statt selbst zu mischen;
+ * das Mischen läuft so nicht auf dem Thread, der die Runde beginnt. Ist der Vorrat leer (Fehlschlag), mischt
+ * der Tisch wie bisher selbst.
+ *
+ * Wenige Hintergrund-Threads füllen den Vorrat nach jeder Entnahme wieder bis zur eingestellten Tiefe auf.
+ * Entnommene Arrays werden wiederverwendet. Treffer, Fehlschläge und die Zeit vom Auftrag bis zum fertigen
+ * Schuh (Nachfüll-Latenz) werden gezählt.
+ *
+ * Jeder Schuh wird mit einem eigenen Seed gemischt, der zusammen mit dem Schuh ausgegeben wird, damit
+ * Runden auch mit Schuhen aus dem Vorrat nachgespielt werden können.
+ */
+public class ShoePool {
+    // Überschreibbar mit -Dblackjack.shoepool.depth und -Dblackjack.shoepool.workers
+    public static final int DEFAULT_DEPTH = Integer.getInteger("blackjack.shoepool.depth", 32);
+    public static final int DEFAULT_WORKERS = Integer.getInteger("blackjack.shoepool.workers", 2);
+
+    private static volatile ShoePool shared;
+
+    private final int depth;
+    private final RandomProvider random_provider;
+    private final ArrayBlockingQueue<Shoe> ready; // fertig gemischte Schuhe
+    private final ArrayBlockingQueue<short[]> recycled; // entnommene Arrays zum erneuten Füllen
+    private final ExecutorService workers;
+    private final AtomicInteger pending = new AtomicInteger(); // beauftragte, noch nicht fertige Schuhe
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+    private final LongAdder refill_nanos = new LongAdder();
+    private final AtomicLong max_refill_nanos = new AtomicLong();
+
+    private record Shoe(long seed, short[] codes) {
+    }
+
+    /**
+     * Gibt den gemeinsamen Vorrat aller Tische zurück und erstellt ihn beim ersten Aufruf.
+     *
+     * @return der Vorrat mit DEFAULT_DEPTH, DEFAULT_WORKERS und RandomProvider.DEFAULT
+     */
+    public static ShoePool getShared() {
+        ShoePool pool = shared;
+        if (pool == null) {
+            synchronized (ShoePool.class) {
+                pool = shared;
+                if (pool == null) {
+                    pool = new ShoePool(DEFAULT_DEPTH, DEFAULT_WORKERS, RandomProvider.DEFAULT);
+                    shared = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Konstruktor für einen ShoePool mit RandomProvider.DEFAULT. Das erste Füllen beginnt sofort im Hintergrund.
+     *
+     * @param depth Anzahl der vorrätig gehaltenen Schuhe
+     * @param worker_count Anzahl der Hintergrund-Threads
+     * @throws IllegalArgumentException wenn depth oder worker_count kleiner als 1 ist
+     */
+    public ShoePool(int depth, int worker_count) {
+        this(depth, worker_count, RandomProvider.DEFAULT);
+    }
+
+    /**
+     * Konstruktor für einen ShoePool. Das erste Füllen beginnt sofort im Hintergrund.
+     *
+     * @param depth Anzahl der vorrätig gehaltenen Schuhe
+     * @param worker_count Anzahl der Hintergrund-Threads
+     * @param random_provider erstellt die Zufallsgeneratoren zum Mischen
+     * @throws IllegalArgumentException wenn depth oder worker_count kleiner als 1 ist
+     */
+    public ShoePool(int depth, int worker_count, RandomProvider random_provider) {
+        if (depth < 1 || worker_count < 1) {
+            throw new IllegalArgumentException("Tiefe und Anzahl der Threads müssen mindestens 1 sein.");
+        }
+        this.depth = depth;
+        this.random_provider = random_provider;
+        this.ready = new ArrayBlockingQueue<>(depth);
+        this.recycled = new ArrayBlockingQueue<>(depth);
+        this.workers = Executors.newFixedThreadPool(worker_count, runnable -> {
+            Thread thread = new Thread(runnable, "shoe-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refill();
+    }
+
+    /**
+     * Kopiert einen fertig gemischten Schuh in das übergebene Array, ohne zu warten.
+     *
+     * @param target Ziel mit mindestens Deck.SIZE Plätzen
+     * @return der Seed des Schuhs bei einem Treffer, leer wenn der Vorrat leer war und der Aufrufer selbst
+     *         mischen muss
+     */
+    public OptionalLong take(short[] target) {
+        Shoe shoe = ready.poll();
+        if (shoe == null) {
+            misses.increment();
+            refill();
+            return OptionalLong.empty();
+        }
+        System.arraycopy(shoe.codes, 0, target, 0, Deck.SIZE);
+        recycled.offer(shoe.codes);
+        hits.increment();
+        refill();
+        return OptionalLong.of(shoe.seed);
+    }
+
+    /**
+     * Beauftragt so viele Schuhe, dass Vorrat und laufende Aufträge zusammen die Tiefe erreichen.
+     */
+    private void refill() {
+        while (true) {
+            int scheduled = pending.get();
+            if (ready.size() + scheduled >= depth) {
+                return;
+            }
+            if (pending.compareAndSet(scheduled, scheduled + 1)) {
+                long requested = System.nanoTime();
+                try {
+                    workers.execute(() -> fill(requested));
+                } catch (RejectedExecutionException e) {
+                    pending.decrementAndGet(); // nach shutdown()
+                    return;
+                }
+            }
+        }
+    }
+
+    private void fill(long requested) {
+        try {
+            short[] codes = recycled.poll();
+            if (codes == null) {
+                codes = new short[Deck.SIZE];
+            }
+            long seed = ThreadLocalRandom.current().nextLong();
+            Deck.fillShoe(codes, random_provider, seed);
+            ready.offer(new Shoe(seed, codes));
+
+            long nanos = System.nanoTime() - requested;
+            refills.increment();
+            refill_nanos.add(nanos);
+            max_refill_nanos.accumulateAndGet(nanos, Math::max);
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    public RandomProvider getRandomProvider() {
+        return random_provider;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gibt die Anzahl der aktuell vorrätigen Schuhe zurück.
+     *
+     * @return Anzahl der fertig gemischten Schuhe
+     */
+    public int getAvailable() {
+        return ready.size();
+    }
+
+    /**
+     * Gibt die Anzahl der Entnahmen zurück, bei denen ein fertiger Schuh bereitlag.
+     *
+     * @return Anzahl der Treffer
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gibt die Anzahl der Entnahmen zurück, bei denen der Vorrat leer war.
+     *
+     * @return Anzahl der Fehlschläge
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gibt die Anzahl der bisher gemischten Schuhe zurück.
+     *
+     * @return Anzahl der Nachfüllungen
+     */
+    public long getRefills() {
+        return refills.sum();
+    }
+
+    /**
+     * Gibt die durchschnittliche Zeit vom Auftrag bis zum fertigen Schuh zurück.
+     *
+     * @return Nachfüll-Latenz in Nanosekunden, 0 wenn noch nichts nachgefüllt wurde
+     */
+    public long getAverageRefillNanos() {
+        long count = refills.sum();
+        return (count == 0) ? 0 : refill_nanos.sum() / count;
+    }
+
+    /**
+     * Gibt die längste Zeit vom Auftrag bis zum fertigen Schuh zurück.
+     *
+     * @return maximale Nachfüll-Latenz in Nanosekunden
+     */
+    public long getMaxRefillNanos() {
+        return max_refill_nanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ShoePool[vorrätig=" + getAvailable() + "/" + depth + ", Treffer=" + getHits() + ", Fehlschläge=" + getMisses()
+                + ", Nachfüll-Latenz=" + getAverageRefillNanos() / 1000 + " µs (max " + getMaxRefillNanos() / 1000 + " µs)]";
+    }
+
+    /**
+     * Beendet die Hintergrund-Threads. Danach wird nicht mehr nachgefüllt.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
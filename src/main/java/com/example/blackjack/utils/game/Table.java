@@ -10,9 +10,11 @@ import javafx.application.Platform;
 import javafx.scene.chart.PieChart;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Die Klasse verwaltet den Zustand eines Blackjack-Spiels.
@@ -20,8 +22,10 @@ import java.util.TimerTask;
  */
 public class Table {
     private String table_name;
-    private Deck deck = new Deck();
-    private Dealer dealer = new Dealer(deck, this);
+    private final Deck deck = new Deck(Deck.DEFAULT_PENETRATION, ShoePool.getShared()); // Schuh, bleibt über alle Runden erhalten
+    private long round_seed; // Seed des Schuhs der laufenden Runde, siehe Deck.replay()
+    private int round_offset; // zu Rundenbeginn bereits aus dem Schuh ausgeteilte Karten
+    private final Dealer dealer = new Dealer(deck, this);
     private ArrayList<Player> players;
     private ArrayList<Player> activePlayers;
     private ArrayList<String> playersWhoAlreadyGotResult;
@@ -34,9 +38,74 @@ public class Table {
     Timer timer;
     boolean gameFinished = false;
     private Database database;
-    private HashMap<String, ArrayList<Integer>> stakes = new HashMap<>();
-    private HashMap<String, ArrayList<ArrayList<Card>>> gameCards = new HashMap<>();
-    private HashMap<String, ArrayList<WinningsEntry>> winnings = new HashMap<>();
+    private final Seat[] seats = new Seat[MAX_SEATS]; // Platz i gehört zu activePlayers.get(i)
+    private final CopyOnWriteArrayList<TableListener> listeners = new CopyOnWriteArrayList<>();
+    private final ArrayList<TableEvent> round_events = new ArrayList<>(); // Ereignisse der laufenden Runde, Sperre für die Versionen
+    private long state_version = 1; // steigt bei jeder Änderung, 0 bedeutet beim Client "noch kein Spielstand"
+    private long round_begin_version = 1; // erste Version der laufenden Runde
+    private static final int MAX_DELTA_EVENTS = 256; // mehr Ereignisse lohnen sich nicht gegenüber einem vollständigen Spielstand
+    public static final int MAX_SEATS = 8; // Spieler mit Einsatz pro Runde
+
+    /**
+     * Die beiden Hände eines Spielers (zweite Hand nach einem Split). Wird eine Hand von außen durch eine
+     * einfache Kartenliste ersetzt, werden deren Karten in die vorhandene Hand übernommen, damit Scores
+     * weiterhin mitgeführt werden.
+     */
+    private static class Hands extends ArrayList<ArrayList<Card>> {
+        Hands() {
+            super(2);
+            super.add(new Hand());
+            super.add(new Hand());
+        }
+
+        Hand hand(int index) {
+            return (Hand) get(index);
+        }
+
+        @Override
+        public ArrayList<Card> set(int index, ArrayList<Card> cards) {
+            Hand hand = hand(index);
+            ArrayList<Card> old = new ArrayList<>(hand);
+            if (cards != hand) {
+                hand.clear();
+                hand.addAll(cards);
+            }
+            return old;
+        }
+    }
+
+    /**
+     * Ein Platz am Tisch: Einsätze, Hände und Ergebnisse eines aktiven Spielers in der laufenden Runde.
+     * Die Plätze werden einmal angelegt und in jeder Runde wiederverwendet.
+     */
+    private static class Seat {
+        final int[] stakes = new int[2]; // Einsatz je Hand
+        int hand_count = 0; // gespielte Hände, 2 nach einem Split
+        final Hands hands = new Hands();
+        final ArrayList<WinningsEntry> results = new ArrayList<>(2);
+
+        /**
+         * Belegt den Platz für eine neue Runde.
+         *
+         * @param stake der Einsatz der ersten Hand
+         */
+        void take(int stake) {
+            stakes[0] = stake;
+            stakes[1] = 0;
+            hand_count = 1;
+            hands.hand(0).clear();
+            hands.hand(1).clear();
+            results.clear();
+        }
+
+        int getStakeSum() {
+            int sum = 0;
+            for (int i = 0; i < hand_count; i++) {
+                sum += stakes[i];
+            }
+            return sum;
+        }
+    }
 
     /**
      * Konstruktor für die Klasse.
@@ -48,16 +117,19 @@ public class Table {
         this.database = database;
         this.table_name = table_name;
         this.players = new ArrayList<>();
-        this.activePlayers = new ArrayList<>();
+        this.activePlayers = new ArrayList<>(MAX_SEATS);
         this.playersWhoAlreadyGotResult = new ArrayList<>();
         this.countdown = 30;
+        for (int i = 0; i < MAX_SEATS; i++) {
+            seats[i] = new Seat();
+        }
 
         timer = new Timer(true); // Countdown zum automatischen Spielstart
         timer.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
                 try {
-                    Platform.runLater(() -> {
+                    Platform.runLater(() -> runLocked(() -> {
                         //System.out.println("Tisch " + table_name + " läuft");
                         if (countdown <= 5) {
                             try {
@@ -75,6 +147,9 @@ public class Table {
 
                                 } else {
                                     countdown-=1;
+                                    if (countdown == 0) {
+                                        resetEvents(); // Runde wird sichtbar, Deltas ab hier
+                                    }
                                 }
 
                             } catch (DeckEmptyException e) {
@@ -83,7 +158,8 @@ public class Table {
                         } else {
                             countdown-=1;
                         }
-                    });
+                        fireTableChanged();
+                    }));
                 } catch (Exception e) {
                     timer.cancel();
                     timer.purge();
@@ -96,6 +172,93 @@ public class Table {
         return players;
     }
 
+    /**
+     * Meldet einen Listener an, der bei jeder Zustandsänderung des Tisches benachrichtigt wird.
+     *
+     * @param listener der Listener
+     */
+    public void addTableListener(TableListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Meldet einen Listener wieder ab.
+     *
+     * @param listener der Listener
+     */
+    public void removeTableListener(TableListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gibt die aktuelle Version des Tisches zurück. Sie steigt bei jeder Zustandsänderung.
+     *
+     * @return die Version
+     */
+    public long getStateVersion() {
+        synchronized (round_events) {
+            return state_version;
+        }
+    }
+
+    /**
+     * Gibt die Ereignisse der laufenden Runde seit einer bestimmten Version zurück.
+     *
+     * @param version die zuletzt bekannte Version des Clients
+     * @return die Ereignisse in Reihenfolge, oder null, wenn der Client einen vollständigen Spielstand braucht
+     *         (Version aus einer früheren Runde, zu viele Ereignisse oder eine nicht als Delta darstellbare Änderung)
+     */
+    public ArrayList<TableEvent> getEventsSince(long version) {
+        synchronized (round_events) {
+            if (version < round_begin_version || version > state_version) {
+                return null;
+            }
+
+            ArrayList<TableEvent> events = new ArrayList<>();
+            for (int i = round_events.size() - 1; i >= 0 && round_events.get(i).getVersion() > version; i--) {
+                TableEvent event = round_events.get(i);
+                if (event.getType() == TableEvent.Type.RESYNC || events.size() == MAX_DELTA_EVENTS) {
+                    return null;
+                }
+                events.add(event);
+            }
+            Collections.reverse(events);
+            return events;
+        }
+    }
+
+    /**
+     * Hält ein Ereignis der laufenden Runde fest. Es gehört zur nächsten Version, die mit
+     * fireTableChanged() sichtbar wird.
+     */
+    private void recordEvent(TableEvent.Type type, String player, int hand, int value) {
+        synchronized (round_events) {
+            round_events.add(new TableEvent(type, state_version + 1, player, hand, value));
+        }
+    }
+
+    /**
+     * Beginnt ein neues Ereignisprotokoll. Clients mit einer älteren Version erhalten danach einen vollständigen Spielstand.
+     */
+    private void resetEvents() {
+        synchronized (round_events) {
+            round_events.clear();
+            round_begin_version = state_version + 1;
+        }
+    }
+
+    /**
+     * Erhöht die Version und benachrichtigt alle Listener über eine Zustandsänderung.
+     */
+    private void fireTableChanged() {
+        synchronized (round_events) {
+            state_version++;
+        }
+        for (TableListener listener : listeners) {
+            listener.tableChanged(this);
+        }
+    }
+
     public ArrayList<Player> getActivePlayers() {
         return activePlayers;
     }
@@ -121,12 +284,63 @@ public class Table {
         return gameFinished;
     }
 
+    /**
+     * Gibt den Platz eines aktiven Spielers zurück.
+     *
+     * @param user_name der Name des Spielers
+     * @return der Index des Platzes (wie in getActivePlayers()), -1 wenn der Spieler keinen Einsatz gesetzt hat
+     */
+    public int getSeat(String user_name) {
+        for (int i = 0; i < activePlayers.size(); i++) {
+            if (activePlayers.get(i).getUsername().equals(user_name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     public ArrayList<WinningsEntry> getResults(String user_name) {
-        return (winnings.get(user_name));
+        int seat = getSeat(user_name);
+        return (seat < 0) ? null : seats[seat].results;
     }
 
+    /**
+     * Gibt die Einsätze eines Spielers je Hand zurück.
+     *
+     * @param user_name der Name des Spielers
+     * @return eine Kopie der Einsätze, null wenn der Spieler keinen Einsatz gesetzt hat
+     */
     public ArrayList<Integer> getStake(String user_name) {
-        return stakes.get(user_name);
+        int seat = getSeat(user_name);
+        if (seat < 0) {
+            return null;
+        }
+        ArrayList<Integer> stake = new ArrayList<>(seats[seat].hand_count);
+        for (int i = 0; i < seats[seat].hand_count; i++) {
+            stake.add(seats[seat].stakes[i]);
+        }
+        return stake;
+    }
+
+    /**
+     * Gibt die Summe aller Einsätze eines Spielers zurück (wie im Spielstand angezeigt).
+     *
+     * @param user_name der Name des Spielers
+     * @return die Summe der Einsätze, 0 wenn der Spieler keinen Einsatz gesetzt hat
+     */
+    public int getStakeSum(String user_name) {
+        int seat = getSeat(user_name);
+        return (seat < 0) ? 0 : seats[seat].getStakeSum();
+    }
+
+    /**
+     * Gibt die Summe aller Einsätze auf einem Platz zurück.
+     *
+     * @param seat der Index des Platzes (wie in getActivePlayers())
+     * @return die Summe der Einsätze
+     */
+    public int getSeatStakeSum(int seat) {
+        return seats[seat].getStakeSum();
     }
 
     /**
@@ -180,17 +394,59 @@ public class Table {
     }
 
     public ArrayList<ArrayList<Card>> getHand(String user_name) {
-        return gameCards.get(user_name);
+        int seat = getSeat(user_name);
+        return (seat < 0) ? null : seats[seat].hands;
+    }
+
+    /**
+     * Gibt den Platz des aktuellen Spielers zurück.
+     *
+     * @return der aktuelle Platz
+     */
+    private Seat currentSeat() {
+        return seats[playerPos];
+    }
+
+    /**
+     * Gibt die Hand zurück, die der aktuelle Spieler gerade spielt.
+     *
+     * @return die aktuelle Hand
+     */
+    private Hand currentHand() {
+        return seats[playerPos].hands.hand(currentPlayerCardPointer);
     }
 
     public void setCurPlayer(Player p){
         currentPlayer = p;
+        int seat = activePlayers.indexOf(p);
+        if (seat >= 0) {
+            playerPos = seat;
+        }
     }
 
     public Deck getDeck() {
         return deck;
     }
 
+    /**
+     * Gibt den Seed des Schuhs zurück, aus dem die laufende (bzw. letzte) Runde ausgeteilt wurde.
+     * Zusammen mit getRoundOffset() lässt sich die Runde mit Deck.replay() nachspielen.
+     *
+     * @return der Seed des Schuhs
+     */
+    public long getRoundSeed() {
+        return round_seed;
+    }
+
+    /**
+     * Gibt die Anzahl der Karten zurück, die zu Beginn der Runde bereits aus dem Schuh ausgeteilt waren.
+     *
+     * @return Position der ersten Karte der Runde im Schuh
+     */
+    public int getRoundOffset() {
+        return round_offset;
+    }
+
     /**
      * Entfernt einen Spieler vom Tisch.
      *
@@ -205,16 +461,23 @@ public class Table {
             }
         }
 
-        for (Player p : activePlayers) {
-            if (p.getUsername().equals(user_name)) {
-                if (!(currentPlayer == null) && currentPlayer.equals(p)) {
-                    nextPlayer();
-                    playerPos--;
-                }
-                activePlayers.remove(p);
-                break;
+        int seat = getSeat(user_name);
+        if (seat >= 0) {
+            Player p = activePlayers.get(seat);
+            if (!(currentPlayer == null) && currentPlayer.equals(p)) {
+                nextPlayer();
+                playerPos--;
+            } else if (seat < playerPos) {
+                playerPos--; // Plätze dahinter rücken auf
             }
+            activePlayers.remove(seat);
+
+            Seat free = seats[seat];
+            System.arraycopy(seats, seat + 1, seats, seat, MAX_SEATS - seat - 1);
+            seats[MAX_SEATS - 1] = free;
         }
+        recordEvent(TableEvent.Type.RESYNC, user_name, 0, 0);
+        fireTableChanged();
     }
 
     /**
@@ -224,10 +487,7 @@ public class Table {
         // Reset Arrays vom vorherigen Spiel
         //System.out.println("[Server] Starte Spiel an Tisch " + table_name + " neu");
 
-        this.activePlayers = new ArrayList<>();
-        this.gameCards = new HashMap<>();
-        this.winnings = new HashMap<>();
-        this.stakes = new HashMap<>();
+        this.activePlayers.clear(); // Plätze werden beim nächsten Einsatz neu belegt, die Liste wird weiterverwendet
         this.playersWhoAlreadyGotResult = new ArrayList<>();
 
         this.playerPos = 0;
@@ -238,15 +498,16 @@ public class Table {
         this.currentPlayerCardPointer = 0;
         this.currentPlayer = null;
 
-        this.deck = new Deck();
-        this.dealer = new Dealer(deck, this);
+        this.dealer.reset(); // Schuh und Ablagestapel bleiben, gemischt wird erst an der Schnittkarte
+        resetEvents();
+        fireTableChanged();
 
         timer = new Timer(true); // Countdown zum automatischen Spielstart
         timer.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
                 try {
-                    Platform.runLater(() -> {
+                    Platform.runLater(() -> runLocked(() -> {
                         //System.out.println("Tisch " + table_name + " läuft");
                         if (countdown <= 5) {
                             try {
@@ -264,6 +525,9 @@ public class Table {
 
                                 } else {
                                     countdown-=1;
+                                    if (countdown == 0) {
+                                        resetEvents(); // Runde wird sichtbar, Deltas ab hier
+                                    }
                                 }
 
                             } catch (DeckEmptyException e) {
@@ -272,7 +536,8 @@ public class Table {
                         } else {
                             countdown-=1;
                         }
-                    });
+                        fireTableChanged();
+                    }));
                 } catch (Exception e) {
                     timer.cancel();
                     timer.purge();
@@ -288,7 +553,18 @@ public class Table {
      * @param player der Spieler der die Karte erhält.
      */
     public void handCard(Card card, Player player) {
-        gameCards.get(player.getUsername()).get(0).add(card);
+        handCard(card, getSeat(player.getUsername()));
+    }
+
+    /**
+     * weißt dem Spieler auf dem übergebenen Platz die übergebene Karte zu
+     *
+     * @param card die Karte die der Spieler erhält.
+     * @param seat der Platz des Spielers (wie in getActivePlayers()).
+     */
+    void handCard(Card card, int seat) {
+        seats[seat].hands.hand(0).add(card);
+        recordEvent(TableEvent.Type.CARD, activePlayers.get(seat).getUsername(), 0, card.getBildIdent());
     }
 
     /**
@@ -309,9 +585,16 @@ public class Table {
     public void beginRound() throws DeckEmptyException { // ruft beginRound in Dealer auf
         System.out.println("[Server] Starte Spiel an Tisch " + table_name);
 
+        resetEvents();
+        if (deck.shuffleIfNeeded()) {
+            System.out.println("[Server] Neuer Schuh an Tisch " + table_name + " (Seed " + deck.getShoeSeed() + ")");
+        }
+        round_seed = deck.getShoeSeed();
+        round_offset = deck.getDiscardSize();
         dealer.beginRound(activePlayers);
 
         currentPlayer = activePlayers.get(0);
+        fireTableChanged();
     }
 
     /**
@@ -326,23 +609,13 @@ public class Table {
             throw new InvalidMoveException("Spieler hat nicht genug Geld, den Einsatz zu setzen!"); // Doppelte Überprüfung, wird auch vor Absenden auf Client gecheckt
         } else {
             if (!activePlayers.contains(player)) {
+                if (activePlayers.size() == MAX_SEATS) {
+                    throw new InvalidMoveException("Alle " + MAX_SEATS + " Plätze am Tisch sind bereits besetzt!");
+                }
+                seats[activePlayers.size()].take(stake); // Hände und Ergebnisse der letzten Runde leeren
                 activePlayers.add(player);
-                ArrayList<Integer> s = new ArrayList<>();
-                s.add(stake);
-                stakes.put(player.getUsername(), s);
                 player.setWealth(player.getWealth() - stake);
-
-                // Init Hände
-                ArrayList<Card> temp_hand_1= new ArrayList<>();
-                ArrayList<Card> temp_hand_2= new ArrayList<>();
-                ArrayList<ArrayList<Card>> temp = new ArrayList<>();
-                temp.add(temp_hand_1);
-                temp.add(temp_hand_2);
-
-                gameCards.put(player.getUsername(), temp);
-
-                ArrayList<WinningsEntry> winn_info = new ArrayList<>();
-                winnings.put(player.getUsername(), winn_info);
+                fireTableChanged();
             }
         }
     }
@@ -353,10 +626,7 @@ public class Table {
      * @return Wahrheitswert, ob der Spieler ein Blackjack hat.
      */
     public boolean checkBlackjack(){
-        ArrayList<Card> pointer = gameCards.get(currentPlayer.getUsername()).get(currentPlayerCardPointer);
-        int card1 = pointer.get(0).getRank();
-        int card2 = pointer.get(1).getRank();
-        return (card1 == 1 && card2 >= 10) | (card2 == 1 && card1 >= 10); // true wenn Blackjack
+        return currentHand().isBlackjack(); // true wenn Blackjack
     }
 
     /**
@@ -366,34 +636,28 @@ public class Table {
      */
     public void nextMove() throws DeckEmptyException {
         //System.out.println("[Server] Nächster Move für Tisch " + table_name + " wird berechnet");
-        ArrayList<Card> pointer = gameCards.get(currentPlayer.getUsername()).get(0);
+        Seat seat = currentSeat();
+        Hands hands = seat.hands;
         if(split){
             if(checkBlackjack()){
                 split = false;
-                winnings.get(currentPlayer.getUsername()).add(new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), getCardScore(), false));
+                seat.results.add(new WinningsEntry(seat.stakes[currentPlayerCardPointer], getCardScore(), false));
                 currentPlayerCardPointer++;
                 return; // same Player
             }else{
-                if(getCardScore() > 21){
-                    winnings.get(currentPlayer.getUsername()).add(new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), getCardScore(), false));
+                if(currentHand().isBust()){
+                    seat.results.add(new WinningsEntry(seat.stakes[currentPlayerCardPointer], getCardScore(), false));
                     split = false;
                     currentPlayerCardPointer++; // same Player, other hand
                 }else if(doubleDown){
                     split = false;
                     doubleDown = false;
-                    winnings.get(currentPlayer.getUsername()).add(new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), getCardScore(), false));
+                    seat.results.add(new WinningsEntry(seat.stakes[currentPlayerCardPointer], getCardScore(), false));
                     currentPlayerCardPointer++; // same Player, other hand
-                }else if(pointer.get(0).getRank() == 1){
-                    winnings.get(currentPlayer.getUsername()).add(new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), getCardScore(), false));
-                    ArrayList<Card> pointer1 = gameCards.get(currentPlayer.getUsername()).get(1);
-                    int rank = pointer1.get(1).getRank();
-                    if(rank >= 10){
-                        winnings.get(currentPlayer.getUsername()).add(new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), 21, true));
-                    }else if(rank == 1){
-                        winnings.get(currentPlayer.getUsername()).add(new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), 12, false));
-                    }else{
-                        winnings.get(currentPlayer.getUsername()).add(new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), rank + 11, false));
-                    }
+                }else if(hands.hand(0).get(0).getRank() == 1){
+                    seat.results.add(new WinningsEntry(seat.stakes[currentPlayerCardPointer], getCardScore(), false));
+                    Hand second = hands.hand(1); // geteilte Asse erhalten nur eine Karte
+                    seat.results.add(new WinningsEntry(seat.stakes[1], second.getScore(), second.isBlackjack()));
                     nextPlayer();
                 }else{
                     return; //same Player
@@ -401,17 +665,17 @@ public class Table {
             }
         }else{
             if(currentPlayerCardPointer == 1 && checkBlackjack()){
-                winnings.get(currentPlayer.getUsername()).add( new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), 21, false));
+                seat.results.add( new WinningsEntry(seat.stakes[currentPlayerCardPointer], 21, false));
                 nextPlayer();
             }else if(checkBlackjack()){
-                winnings.get(currentPlayer.getUsername()).add( new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), 21, true));
+                seat.results.add( new WinningsEntry(seat.stakes[currentPlayerCardPointer], 21, true));
                 nextPlayer();
             }else{
-                if(getCardScore() > 21){
-                    winnings.get(currentPlayer.getUsername()).add( new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), getCardScore(), false));
+                if(currentHand().isBust()){
+                    seat.results.add( new WinningsEntry(seat.stakes[currentPlayerCardPointer], getCardScore(), false));
                     nextPlayer();
                 }else if(doubleDown){
-                    winnings.get(currentPlayer.getUsername()).add( new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), getCardScore(), false));
+                    seat.results.add( new WinningsEntry(seat.stakes[currentPlayerCardPointer], getCardScore(), false));
                     nextPlayer();
                 }else{
                     return; //same Player
@@ -424,8 +688,11 @@ public class Table {
      * Lässt den Spieler eine neue Karte ziehen
      */
     public void hit() throws DeckEmptyException {
-        gameCards.get(currentPlayer.getUsername()).get(currentPlayerCardPointer).add(deck.dealCard());
+        Card card = deck.dealCard();
+        currentHand().add(card);
+        recordEvent(TableEvent.Type.CARD, currentPlayer.getUsername(), currentPlayerCardPointer, card.getBildIdent());
         nextMove();
+        fireTableChanged();
     }
 
     /**
@@ -436,8 +703,10 @@ public class Table {
      * @throws DeckEmptyException wenn der Dealer anschließend ein leeres Spieldeck haben sollte
      */
     public void stand() throws DeckEmptyException {
-        winnings.get(currentPlayer.getUsername()).add(currentPlayerCardPointer, new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), getCardScore(), false));
+        Seat seat = currentSeat();
+        seat.results.add(currentPlayerCardPointer, new WinningsEntry(seat.stakes[currentPlayerCardPointer], getCardScore(), false));
         nextPlayer();
+        fireTableChanged();
     }
 
     /**
@@ -446,12 +715,17 @@ public class Table {
      * @throws DeckEmptyException wenn das Spieldeck leer sein sollte.
      */
     public void doubleDown() throws DeckEmptyException {
+        Seat seat = currentSeat();
         doubleDown = true;
-        gameCards.get(currentPlayer.getUsername()).get(currentPlayerCardPointer).add(deck.dealCard());
-        currentPlayer.addWealth(-stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer));
-        stakes.get(currentPlayer.getUsername()).add(currentPlayerCardPointer, stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer) * 2);
+        Card card = deck.dealCard();
+        seat.hands.hand(currentPlayerCardPointer).add(card);
+        currentPlayer.addWealth(-seat.stakes[currentPlayerCardPointer]);
+        seat.stakes[currentPlayerCardPointer] *= 2;
+        recordEvent(TableEvent.Type.CARD, currentPlayer.getUsername(), currentPlayerCardPointer, card.getBildIdent());
+        recordEvent(TableEvent.Type.STAKE, currentPlayer.getUsername(), 0, seat.getStakeSum());
 
         nextMove();
+        fireTableChanged();
     }
 
     /**
@@ -463,7 +737,7 @@ public class Table {
         if(hasThirdCard()){
             return false; // Spieler hat bereits eine dritte Karte erhalten (DD)!
         }
-        return currentPlayer.getWealth() >= stakes.get(currentPlayer.getUsername()).get(0); //Spieler hat nicht genug Geld, um DD durchzuführen
+        return currentPlayer.getWealth() >= currentSeat().stakes[0]; //Spieler hat nicht genug Geld, um DD durchzuführen
     }
 
     /**
@@ -472,12 +746,8 @@ public class Table {
      * @return Wahrheitswert, ob eine dritte Karte erhalten wurde.
      */
     private boolean hasThirdCard(){
-        int numberCards = 0;
-
-        for (int i = 0; i < gameCards.get(currentPlayer.getUsername()).size(); i++){
-            numberCards += gameCards.get(currentPlayer.getUsername()).get(i).size();
-        }
-        return numberCards > 2;
+        Hands hands = currentSeat().hands;
+        return hands.hand(0).size() + hands.hand(1).size() > 2;
     }
 
     /**
@@ -486,20 +756,23 @@ public class Table {
      * @throws DeckEmptyException, falls das Deck leer sein sollte.
      */
     public void split() throws DeckEmptyException {
-        ArrayList<Card> pointer = gameCards.get(currentPlayer.getUsername()).get(0);
-        ArrayList<Card> pointer1 = gameCards.get(currentPlayer.getUsername()).get(1);
+        Seat seat = currentSeat();
+        Hand pointer = seat.hands.hand(0);
+        Hand pointer1 = seat.hands.hand(1);
 
         split = true;
+        recordEvent(TableEvent.Type.RESYNC, currentPlayer.getUsername(), 0, 0); // Karten wechseln die Hand
         Card c1 = deck.dealCard();
         Card c2 = deck.dealCard();
         pointer1.add(pointer.get(1));
         pointer.remove(1);
         pointer.add(c1);
         pointer1.add(c2);
-        stakes.get(currentPlayer.getUsername()).add(currentPlayerCardPointer + 1, stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer));
-        currentPlayer.addWealth(-stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer));
+        seat.stakes[currentPlayerCardPointer + 1] = seat.stakes[currentPlayerCardPointer];
+        seat.hand_count = 2;
+        currentPlayer.addWealth(-seat.stakes[currentPlayerCardPointer]);
         nextMove();
-
+        fireTableChanged();
     }
 
     /**
@@ -508,7 +781,8 @@ public class Table {
      * @return true, falls splitten erlaubt ist
      */
     public boolean isSplitAllowed(){
-        ArrayList<Card> pointer = gameCards.get(currentPlayer.getUsername()).get(0);
+        Seat seat = currentSeat();
+        Hand pointer = seat.hands.hand(0);
         if(pointer.size() != 2){
             return false; // Es kann zum aktuellen Zeitpunkt nicht gesplittet werden!
         }else{
@@ -516,10 +790,10 @@ public class Table {
                 return false; // Es darf bei verschiedenen Karten nicht gesplittet werden!
             }
         }
-        if(currentPlayer.getWealth() < stakes.get(currentPlayer.getUsername()).get(0)){
+        if(currentPlayer.getWealth() < seat.stakes[0]){
             return false; // Spieler hat nicht genug Geld, um einen Split durchzuführen
         }
-        return gameCards.get(currentPlayer.getUsername()).get(1).isEmpty(); // Mehrmaliges Teilen nicht möglich
+        return seat.hands.hand(1).isEmpty(); // Mehrmaliges Teilen nicht möglich
     }
 
     /**
@@ -528,9 +802,10 @@ public class Table {
      * @throws DeckEmptyException wenn der Dealer anschließend ein leeres Spieldeck haben sollte
      */
     public void surrender() throws DeckEmptyException {
-        winnings.get(currentPlayer.getUsername()).add(currentPlayerCardPointer, new WinningsEntry(stakes.get(currentPlayer.getUsername()).get(currentPlayerCardPointer), 0, false));
+        Seat seat = currentSeat();
+        seat.results.add(currentPlayerCardPointer, new WinningsEntry(seat.stakes[currentPlayerCardPointer], 0, false));
         nextPlayer();
-
+        fireTableChanged();
     }
 
     /**
@@ -549,31 +824,11 @@ public class Table {
      * @return Score der Hand
      */
     public int getCardScoreOfPlayer(String user_name, int hand) {
-        int score = 0;
-        int anzAss = 0;
-        try {
-            ArrayList<Card> pointer = gameCards.get(user_name).get(hand);
-            for(int i = 0; i <= pointer.size() - 1; i++){
-                int rank = pointer.get(i).getRank();
-                if(rank == 1){
-                    score += 11;
-                    anzAss++;
-                }else if(rank >= 2 && rank <= 9){
-                    score += rank;
-                }else if(rank >= 10){
-                    score += 10;
-                }
-            }
-            while(score > 21 && anzAss > 0){
-                score -= 10;
-                anzAss--;
-            }
-            return score;
-
-        } catch (NullPointerException e) {
-            return 0;
+        int seat = getSeat(user_name);
+        if (seat < 0) {
+            return 0; // Spieler nimmt nicht an der Runde teil
         }
-
+        return seats[seat].hands.hand(hand).getScore();
     }
 
     /**
@@ -582,25 +837,7 @@ public class Table {
      * @return Score der aktuellen Hand
      */
     public int getCardScore(){
-        int score = 0;
-        int anzAss = 0;
-        ArrayList<Card> pointer = gameCards.get(currentPlayer.getUsername()).get(currentPlayerCardPointer);
-        for(int i = 0; i <= pointer.size() - 1; i++){
-            int rank = pointer.get(i).getRank();
-            if(rank == 1){
-                score += 11;
-                anzAss++;
-            }else if(rank >= 2 && rank <= 9){
-                score += rank;
-            }else if(rank >= 10){
-                score += 10;
-            }
-        }
-        while(score > 21 && anzAss > 0){
-                score -= 10;
-                anzAss--;
-        }
-        return score;
+        return currentHand().getScore();
     }
 
     /**
@@ -622,6 +859,26 @@ public class Table {
         }
     }
 
+    /**
+     * Führt eine Aktion der Timer unter dem Lock des Tisches aus, damit sie sich nicht mit Spielzügen
+     * und Lesezugriffen der Database überschneidet. Ohne Database (Tests) wird die Aktion direkt ausgeführt.
+     *
+     * @param action die Aktion
+     */
+    private void runLocked(Runnable action) {
+        if (database == null) {
+            action.run();
+            return;
+        }
+        ReentrantLock lock = database.getGameLock(table_name);
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * warte 400ms damit die Clients genug Zeit haben sich die Results zu haben
      */
@@ -630,7 +887,7 @@ public class Table {
         TimerTask task = new TimerTask() {
             @Override
             public void run() {
-                restartGame();
+                runLocked(() -> restartGame());
             }
         };
 
@@ -647,38 +904,41 @@ public class Table {
         int dealerScore = dealer.getScore();
         if (dealer.getBlackjack()) { // dealer blackjack
             System.out.println("[Server] An Tisch " + table_name + " hat Dealer Blackjack");
-            for (Player player : activePlayers) {
-                for(int i = 0; i <= winnings.get(player.getUsername()).size() - 1; i++) {
-                    if (winnings.get(player.getUsername()).get(i).isBlackjack()){
+            for (int s = 0; s < activePlayers.size(); s++) {
+                Player player = activePlayers.get(s);
+                ArrayList<WinningsEntry> results = seats[s].results;
+                for(int i = 0; i <= results.size() - 1; i++) {
+                    if (results.get(i).isBlackjack()){
                         if (player instanceof SimpleBot || player instanceof AdvancedBot) {
-                            database.saveChatMessage("[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " mit dem Dealer zusammen Blackjack ("+ player.getWealth() + ")");
+                            database.saveChatMessage(Database.tableChannel(table_name), "[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " mit dem Dealer zusammen Blackjack ("+ player.getWealth() + ")");
                         }
-                        player.addWealth(winnings.get(player.getUsername()).get(i).getStake()); // blackjack
-                    } else if (winnings.get(player.getUsername()).get(i).getScore() == 0) {
+                        player.addWealth(results.get(i).getStake()); // blackjack
+                    } else if (results.get(i).getScore() == 0) {
                         if (player instanceof SimpleBot || player instanceof AdvancedBot) {
-                            database.saveChatMessage("[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " aufgegeben ("+ player.getWealth() + ")");
+                            database.saveChatMessage(Database.tableChannel(table_name), "[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " aufgegeben ("+ player.getWealth() + ")");
                         }
-                        player.addWealth(winnings.get(player.getUsername()).get(i).getStake() / 2); // surrender
+                        player.addWealth(results.get(i).getStake() / 2); // surrender
                     }
                 }
             }
         } else {
-            for (Player player : activePlayers) {
-                ArrayList<WinningsEntry> pointer = winnings.get(player.getUsername());
+            for (int s = 0; s < activePlayers.size(); s++) {
+                Player player = activePlayers.get(s);
+                ArrayList<WinningsEntry> pointer = seats[s].results;
                 for (int i = 0; i < pointer.size(); i++) {
                     if (pointer.get(i).isBlackjack()) {
                         System.out.println("[Server] An Tisch " + table_name + " hat " + player.getUsername() + " mit Blackjack gewonnen");
                         player.addWealth(pointer.get(i).getStake() * 5 / 2); // Blackjack
 
                         if (player instanceof SimpleBot || player instanceof AdvancedBot) {
-                            database.saveChatMessage("[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " mit Blackjack gewonnen ("+ player.getWealth() + ")");
+                            database.saveChatMessage(Database.tableChannel(table_name), "[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " mit Blackjack gewonnen ("+ player.getWealth() + ")");
                         }
 
                     } else if(pointer.get(i).getScore() == 0) {
                         player.addWealth(pointer.get(i).getStake() / 2); // surrender
 
                         if (player instanceof SimpleBot || player instanceof AdvancedBot) {
-                            database.saveChatMessage("[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " aufgegeben ("+ player.getWealth() + ")");
+                            database.saveChatMessage(Database.tableChannel(table_name), "[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " aufgegeben ("+ player.getWealth() + ")");
                         }
 
                     } else if ((pointer.get(i).getScore() > dealerScore && pointer.get(i).getScore() <= 21) || (dealerScore > 21 && pointer.get(i).getScore() <= 21)) {
@@ -686,7 +946,7 @@ public class Table {
                         player.addWealth(pointer.get(i).getStake() * 2); // Gewinn
 
                         if (player instanceof SimpleBot || player instanceof AdvancedBot) {
-                            database.saveChatMessage("[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " gewonnen ("+ player.getWealth() + ")");
+                            database.saveChatMessage(Database.tableChannel(table_name), "[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " gewonnen ("+ player.getWealth() + ")");
                         }
 
                     } else if (pointer.get(i).getScore() == dealerScore && dealerScore <= 21) {
@@ -694,15 +954,15 @@ public class Table {
                         player.addWealth(pointer.get(i).getStake()); // Gleichstand
 
                         if (player instanceof SimpleBot || player instanceof AdvancedBot) {
-                            database.saveChatMessage("[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " einen Gleichstand mit dem Dealer ("+ player.getWealth() + ")");
+                            database.saveChatMessage(Database.tableChannel(table_name), "[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " einen Gleichstand mit dem Dealer ("+ player.getWealth() + ")");
                         }
                     }
 
                     if (((pointer.get(i).getScore() > 21) || (pointer.get(i).getScore() < dealerScore && dealerScore <= 21)) && (player instanceof SimpleBot || player instanceof AdvancedBot)) {
-                        database.saveChatMessage("[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " seinen Einsatz verloren ("+ player.getWealth() + ")");
+                        database.saveChatMessage(Database.tableChannel(table_name), "[Server]", "Bot " + player.getUsername() + " hat an Tisch " + table_name + " seinen Einsatz verloren ("+ player.getWealth() + ")");
                     }
                     if (player.getWealth() == 0) {
-                        database.saveChatMessage("[Server]", player.getUsername() + " ist an Tisch " + table_name + " Pleite gegangen");
+                        database.saveChatMessage(Database.tableChannel(table_name), "[Server]", player.getUsername() + " ist an Tisch " + table_name + " Pleite gegangen");
                     }
                 }
 
@@ -711,8 +971,9 @@ public class Table {
 
         // Speichere Winnings
 
-        for (Player p : activePlayers) {
-            ArrayList<WinningsEntry> winning = winnings.get(p.getUsername());
+        for (int s = 0; s < activePlayers.size(); s++) {
+            Player p = activePlayers.get(s);
+            ArrayList<WinningsEntry> winning = seats[s].results;
 
             for (WinningsEntry w : winning) {
                 w.setPlayer(p);
@@ -720,6 +981,7 @@ public class Table {
         }
 
         this.gameFinished = true;
+        fireTableChanged();
         waitTimeForClientsToReceiveResults();
     }
 }
@@ -0,0 +1,60 @@
+package com.example.blackjack.utils.game;
+
+/**
+ * Eine einzelne Änderung an einem Tisch während der laufenden Runde. Aus den Ereignissen seit der
+ * zuletzt bekannten Version kann ein Client seinen Spielstand fortschreiben, ohne den ganzen
+ * Spielstand neu zu laden.
+ */
+public class TableEvent {
+    /**
+     * Art des Ereignisses.
+     */
+    public enum Type {
+        CARD, // Spieler erhält eine Karte auf eine seiner Hände
+        STAKE, // Einsatzsumme eines Spielers ändert sich
+        RESYNC // Änderung, die sich nicht als Delta darstellen lässt (z.B. Split, Spieler verlässt den Tisch)
+    }
+
+    private final Type type;
+    private final long version;
+    private final String player;
+    private final int hand;
+    private final int value; // Kartenbild (CARD) oder Einsatzsumme (STAKE)
+
+    /**
+     * Konstruktor für ein Ereignis.
+     *
+     * @param type die Art des Ereignisses
+     * @param version die Version des Tisches, mit der das Ereignis sichtbar wird
+     * @param player der betroffene Spieler oder null
+     * @param hand die betroffene Hand des Spielers (0 oder 1)
+     * @param value Kartenbild oder Einsatzsumme
+     */
+    public TableEvent(Type type, long version, String player, int hand, int value) {
+        this.type = type;
+        this.version = version;
+        this.player = player;
+        this.hand = hand;
+        this.value = value;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getPlayer() {
+        return player;
+    }
+
+    public int getHand() {
+        return hand;
+    }
+
+    public int getValue() {
+        return value;
+    }
+}
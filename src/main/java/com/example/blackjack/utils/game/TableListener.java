@@ -0,0 +1,17 @@
+package com.example.blackjack.utils.game;
+
+/**
+ * Wird benachrichtigt, sobald sich der Zustand eines Tisches ändert (Countdown, Einsatz gesetzt,
+ * Karte ausgeteilt, nächster Spieler, Auswertung, Neustart).
+ * Die Benachrichtigung erfolgt im Thread, der den Tisch verändert hat, und sollte daher nur
+ * kurz arbeiten und die eigentliche Verarbeitung weiterreichen.
+ */
+@FunctionalInterface
+public interface TableListener {
+    /**
+     * Der Zustand des Tisches hat sich geändert.
+     *
+     * @param table der veränderte Tisch
+     */
+    void tableChanged(Table table);
+}
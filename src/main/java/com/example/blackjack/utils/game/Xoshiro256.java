@@ -0,0 +1,49 @@
+package com.example.blackjack.utils.game;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Schneller Zufallsgenerator xoshiro256** (Blackman/Vigna) mit 256 Bit Zustand. Der Zustand wird mit
+ * SplitMix64 aus dem Seed erzeugt, sodass auch ähnliche Seeds unabhängige Folgen liefern.
+ * Nicht threadsicher: jeder Schuh verwendet seine eigene Instanz.
+ */
+public class Xoshiro256 implements RandomGenerator {
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    /**
+     * Konstruktor für einen Xoshiro256.
+     *
+     * @param seed der Seed
+     */
+    public Xoshiro256(long seed) {
+        long x = seed;
+        s0 = splitMix(x += 0x9E3779B97F4A7C15L);
+        s1 = splitMix(x += 0x9E3779B97F4A7C15L);
+        s2 = splitMix(x += 0x9E3779B97F4A7C15L);
+        s3 = splitMix(x + 0x9E3779B97F4A7C15L);
+    }
+
+    private static long splitMix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+
+        return result;
+    }
+}
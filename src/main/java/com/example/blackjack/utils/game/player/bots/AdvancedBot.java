@@ -41,11 +41,7 @@ public class AdvancedBot extends Player {
     public void init() {
         //System.out.println("[Server] Initialisiere Bot " + getUsername() + " für Tisch " + table_name);
 
-        for (Table t : database.getActive_tables()) {
-            if (t.getTableName().equals(table_name)) {
-                this.table = t;
-            }
-        }
+        this.table = database.getTable(table_name);
 
         timer = new Timer(true);
         timer.scheduleAtFixedRate(new TimerTask() {
@@ -0,0 +1,114 @@
+package com.example.blackjack.utils.server;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Zugangskontrolle für neue Verbindungen. Begrenzt die Anzahl gleichzeitiger Sitzungen und die
+ * Accept-Rate (Token-Bucket) und zählt angenommene sowie abgelehnte Verbindungen, damit sich
+ * Serverinstanzen dimensionieren lassen.
+ */
+public class AdmissionControl {
+    /**
+     * Antwort, die ein abgelehnter Client statt einer Wartezeit sofort erhält.
+     */
+    public static final String BUSY_REPLY = "busy";
+
+    private final int max_sessions;
+    private final int max_accepts_per_second;
+    private final AtomicInteger active_sessions = new AtomicInteger();
+    private final AtomicLong accepted_connections = new AtomicLong();
+    private final AtomicLong rejected_connections = new AtomicLong();
+    private double tokens;
+    private long last_refill;
+
+    /**
+     * Konstruktor für die Zugangskontrolle.
+     *
+     * @param max_sessions maximale Anzahl gleichzeitiger Sitzungen
+     * @param max_accepts_per_second maximale Anzahl neuer Verbindungen pro Sekunde
+     */
+    public AdmissionControl(int max_sessions, int max_accepts_per_second) {
+        if (max_sessions < 1 || max_accepts_per_second < 1) {
+            throw new IllegalArgumentException("Die Limits müssen größer als 0 sein.");
+        }
+        this.max_sessions = max_sessions;
+        this.max_accepts_per_second = max_accepts_per_second;
+        this.tokens = max_accepts_per_second;
+        this.last_refill = System.nanoTime();
+    }
+
+    /**
+     * Prüft, ob eine neue Verbindung angenommen werden darf, und reserviert in diesem Fall eine Sitzung.
+     * Eine abgelehnte Verbindung wird mitgezählt.
+     *
+     * @return true, wenn die Verbindung angenommen wurde, sonst false
+     */
+    public synchronized boolean tryAdmit() {
+        refillTokens();
+
+        if (tokens < 1 || active_sessions.get() >= max_sessions) {
+            rejected_connections.incrementAndGet();
+            return false;
+        }
+
+        tokens -= 1;
+        active_sessions.incrementAndGet();
+        accepted_connections.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Gibt eine zuvor reservierte Sitzung wieder frei (Verbindung beendet).
+     */
+    public void release() {
+        active_sessions.decrementAndGet();
+    }
+
+    /**
+     * Gibt eine bereits reservierte Sitzung frei und zählt die Verbindung als abgelehnt,
+     * z.B. wenn die Handshake-Warteschlange voll ist.
+     */
+    public void releaseRejected() {
+        active_sessions.decrementAndGet();
+        accepted_connections.decrementAndGet();
+        rejected_connections.incrementAndGet();
+    }
+
+    private void refillTokens() {
+        long now = System.nanoTime();
+        tokens = Math.min(max_accepts_per_second, tokens + (now - last_refill) * max_accepts_per_second / 1e9);
+        last_refill = now;
+    }
+
+    /**
+     * Schreibt die "busy"-Antwort an einen abgelehnten Client. Der Aufrufer schließt die Verbindung danach.
+     *
+     * @param out der OutputStream der abgelehnten Verbindung
+     * @throws IOException wenn ein I/O-Fehler beim Schreiben auftritt
+     */
+    public static void writeBusyReply(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeUTF(BUSY_REPLY);
+        data.flush();
+    }
+
+    public int getActiveSessions() {
+        return active_sessions.get();
+    }
+
+    public long getAcceptedConnections() {
+        return accepted_connections.get();
+    }
+
+    public long getRejectedConnections() {
+        return rejected_connections.get();
+    }
+
+    public int getMaxSessions() {
+        return max_sessions;
+    }
+}
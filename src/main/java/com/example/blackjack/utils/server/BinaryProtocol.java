@@ -0,0 +1,283 @@
+package com.example.blackjack.utils.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kompaktes Binärprotokoll als Alternative zum textbasierten writeUTF-Protokoll.
+ *
+ * Ein Client wechselt, indem er (z.B. direkt nach dem Verbindungsaufbau) den Text-Frame
+ * "protocol:binary:1" sendet. Antwortet der Server mit "protocol:binary:1", sind alle folgenden Frames
+ * in beide Richtungen binär; bei jeder anderen Antwort bleibt es beim Textprotokoll. Mit dem binären
+ * Frame "protocol:text:1" wechselt der Client zurück zum Textprotokoll (siehe ProtocolOutputStream).
+ *
+ * Aufbau eines Frames: Länge (Varint) | Opcode (1 Byte) | Nutzdaten
+ * - Anfragen: Opcode des Befehls, danach die Felder als Strings (Varint-Länge + UTF-8)
+ * - Antworten: OP_TEXT mit einem String oder OP_GAME_STATE mit einem GameStateSnapshot
+ * - Push-Nachrichten: OP_PUSH_GAME_STATE mit einem GameStateSnapshot
+ * Ganzzahlen werden als Varint übertragen, Karten als ein Byte (Card.getBildIdent()).
+ */
+public final class BinaryProtocol {
+    public static final String NAME = "binary";
+    public static final int VERSION = 1;
+    public static final String HELLO = "protocol:" + NAME + ":" + VERSION;
+    public static final String TEXT_HELLO = "protocol:text:1"; // Wechsel zurück zum Textprotokoll
+
+    // Opcodes der Antworten (Server -> Client)
+    public static final int OP_TEXT = 1;
+    public static final int OP_GAME_STATE = 2;
+    public static final int OP_PUSH_GAME_STATE = 3; // Spielstand aus einem Abonnement ("subscribe")
+
+    /**
+     * Größte zulässige Länge eines Frames. Im Gegensatz zu writeUTF nicht auf 64 KB begrenzt.
+     */
+    public static final int MAX_FRAME_LENGTH = 1 << 20;
+
+    // Opcodes der Anfragen (Client -> Server): Index im Array. Neue Befehle nur hinten anhängen!
+    private static final String[] REQUEST_KEYWORDS = {
+            null, "auth", "dupuser", "reg", "delete", "logout",
+            "reloadactiveusers", "reloadactiverooms", "reloadscoreboard", "chatmessage", "reloadchat",
+            "addroom", "duproom", "joinroom", "leaveroom", "reloadroominfo", "removesimplebot", "removehardbot",
+            "startgame", "started", "initializegame", "reloadgamestate", "leavetable", "getallscores",
+            "setstake", "hit", "stand", "doubledown", "split", "surrender",
+            "subscribe", "unsubscribe", "gamestatedelta", "reloadlobby", "ping", "protocol"
+    };
+    private static final Map<String, Integer> REQUEST_OPCODES = new HashMap<>();
+
+    static {
+        for (int opcode = 1; opcode < REQUEST_KEYWORDS.length; opcode++) {
+            REQUEST_OPCODES.put(REQUEST_KEYWORDS[opcode], opcode);
+        }
+    }
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Gibt den Opcode zu einem Befehl zurück.
+     *
+     * @param keyword das Schlüsselwort des Befehls, z.B. "reloadgamestate"
+     * @return der Opcode
+     */
+    public static int opcodeOf(String keyword) {
+        Integer opcode = REQUEST_OPCODES.get(keyword);
+        if (opcode == null) {
+            throw new IllegalArgumentException("Kein Opcode für Befehl: " + keyword);
+        }
+        return opcode;
+    }
+
+    /**
+     * Gibt den Befehl zu einem Opcode zurück.
+     *
+     * @param opcode der Opcode
+     * @return das Schlüsselwort des Befehls oder null, wenn der Opcode unbekannt ist
+     */
+    public static String keywordOf(int opcode) {
+        return (opcode > 0 && opcode < REQUEST_KEYWORDS.length) ? REQUEST_KEYWORDS[opcode] : null;
+    }
+
+    /**
+     * Kodiert eine Anfrage als vollständigen Frame.
+     *
+     * @param keyword das Schlüsselwort des Befehls
+     * @param fields die Felder der Anfrage (ohne Schlüsselwort)
+     * @return der Frame inklusive Längenpräfix
+     */
+    public static byte[] encodeRequest(String keyword, String... fields) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(32);
+        payload.write(opcodeOf(keyword));
+        for (String field : fields) {
+            writeString(payload, field);
+        }
+        return frame(payload);
+    }
+
+    /**
+     * Dekodiert die Nutzdaten einer Anfrage in dieselbe Form wie input.split(":") beim Textprotokoll.
+     *
+     * @param frame Opcode und Nutzdaten ohne Längenpräfix
+     * @return Schlüsselwort gefolgt von den Feldern; das Schlüsselwort ist null bei unbekanntem Opcode
+     * @throws IOException wenn der Frame fehlerhaft ist
+     */
+    public static String[] decodeRequest(byte[] frame) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        ArrayList<String> data = new ArrayList<>(4);
+        try {
+            data.add(keywordOf(buffer.get() & 0xFF));
+            while (buffer.hasRemaining()) {
+                data.add(readString(buffer));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Fehlerhafter Frame");
+        }
+        return data.toArray(new String[0]);
+    }
+
+    /**
+     * Schreibt eine Text-Antwort als Frame.
+     *
+     * @param out der Stream der Verbindung
+     * @param text die Antwort
+     * @throws IOException wenn ein I/O-Fehler beim Schreiben auftritt
+     */
+    public static void writeText(DataOutputStream out, String text) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(text.length() + 4);
+        payload.write(OP_TEXT);
+        writeString(payload, text);
+        out.write(frame(payload));
+        out.flush();
+    }
+
+    /**
+     * Liest einen vollständigen Frame aus einem blockierenden Stream.
+     *
+     * @param in der Stream der Verbindung
+     * @return Opcode und Nutzdaten ohne Längenpräfix
+     * @throws IOException wenn ein I/O-Fehler auftritt oder der Frame zu groß ist
+     */
+    public static byte[] readFrame(DataInputStream in) throws IOException {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            if (shift >= 21) {
+                throw new IOException("Fehlerhafte Frame-Länge");
+            }
+        }
+        checkFrameLength(length);
+
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return frame;
+    }
+
+    /**
+     * Prüft die Länge eines empfangenen Frames.
+     *
+     * @param length die gelesene Länge
+     * @throws IOException wenn der Frame leer oder zu groß ist
+     */
+    static void checkFrameLength(int length) throws IOException {
+        if (length < 1 || length > MAX_FRAME_LENGTH) {
+            throw new IOException("Ungültige Frame-Länge: " + length);
+        }
+    }
+
+    /**
+     * Setzt Längenpräfix und Nutzdaten zu einem Frame zusammen.
+     *
+     * @param payload Opcode und Nutzdaten
+     * @return der Frame
+     */
+    static byte[] frame(ByteArrayOutputStream payload) {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.size() + 3);
+        writeVarint(frame, payload.size());
+        frame.writeBytes(payload.toByteArray());
+        return frame.toByteArray();
+    }
+
+    /**
+     * Liest ein Varint aus einem Puffer, ohne über dessen Ende hinauszulesen.
+     *
+     * @param buffer der Puffer
+     * @return der Wert oder -1, wenn das Varint unvollständig ist (die Position ist dann unbestimmt)
+     */
+    static int readVarintIfComplete(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35 && buffer.hasRemaining(); shift += 7) {
+            int b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new BufferUnderflowException();
+    }
+
+    /**
+     * Schreibt eine vorzeichenbehaftete Zahl (ZigZag), damit auch negative Werte kurz bleiben.
+     */
+    static void writeSignedVarint(ByteArrayOutputStream out, int value) {
+        writeVarint(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readSignedVarint(ByteBuffer buffer) {
+        int value = readVarint(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Liest eine Längenangabe und prüft, dass sie nicht über das Ende des Puffers hinausgeht.
+     */
+    static int readLength(ByteBuffer buffer) {
+        int length = readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        return length;
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = readLength(buffer);
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Liest eine Antwort vom Typ OP_TEXT.
+     *
+     * @param frame Opcode und Nutzdaten ohne Längenpräfix
+     * @return der Text
+     * @throws IOException wenn der Frame keine Text-Antwort ist
+     */
+    public static String decodeText(byte[] frame) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        try {
+            if ((buffer.get() & 0xFF) != OP_TEXT) {
+                throw new IOException("Keine Text-Antwort");
+            }
+            return readString(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Fehlerhafter Frame");
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.blackjack.utils.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chat-Verlauf als Ringpuffer fester Größe. Jede Nachricht erhält eine fortlaufende Sequenznummer (ab 1).
+ * Clients merken sich die Sequenznummer der letzten angezeigten Nachricht und fragen nur neuere Nachrichten ab;
+ * ältere Nachrichten können seitenweise nachgeladen werden. Sind mehr als CAPACITY Nachrichten geschrieben
+ * worden, überschreibt jede neue Nachricht die älteste.
+ *
+ * Eine Antwort enthält höchstens PAGE_SIZE Nachrichten, damit sie unabhängig vom Verlauf unter der
+ * 64-KB-Grenze von writeUTF bleibt.
+ *
+ * Jeder Chat-Kanal (Lobby, Raum, Tisch) hat einen eigenen ChatLog. Die Antwort für eine Sequenznummer wird
+ * bis zur nächsten Nachricht nur einmal erstellt und kodiert und von allen Clients des Kanals geteilt.
+ */
+public class ChatLog {
+    public static final int CAPACITY = 1000; // gespeicherte Nachrichten
+    public static final int PAGE_SIZE = 100; // Nachrichten pro Antwort
+    public static final int CHANNEL_CAPACITY = 200; // gespeicherte Nachrichten in Raum- und Tisch-Kanälen
+
+    private final String[] messages;
+    private long latest_sequence = 0; // Sequenznummer der neuesten Nachricht, 0 = noch keine Nachricht
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Letzte bekannte Sequenznummer -> Antwort, gilt bis zur nächsten Nachricht
+    private final Map<Long, SharedReply> replies = new ConcurrentHashMap<>();
+
+    /**
+     * Konstruktor für einen ChatLog mit CAPACITY Nachrichten.
+     */
+    public ChatLog() {
+        this(CAPACITY);
+    }
+
+    /**
+     * Konstruktor für einen ChatLog.
+     *
+     * @param capacity Anzahl der gespeicherten Nachrichten
+     */
+    public ChatLog(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Die Kapazität muss mindestens 1 sein.");
+        }
+        this.messages = new String[capacity];
+    }
+
+    /**
+     * Hängt eine Nachricht an.
+     *
+     * @param message die Nachricht
+     * @return die Sequenznummer der Nachricht
+     */
+    public long append(String message) {
+        lock.writeLock().lock();
+        try {
+            latest_sequence++;
+            messages[index(latest_sequence)] = message;
+            replies.clear();
+            return latest_sequence;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gibt die Sequenznummer der neuesten Nachricht zurück.
+     *
+     * @return die Sequenznummer, 0 wenn es noch keine Nachricht gibt
+     */
+    public long getLatestSequence() {
+        lock.readLock().lock();
+        try {
+            return latest_sequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gibt die Sequenznummer der ältesten noch gespeicherten Nachricht zurück.
+     *
+     * @return die Sequenznummer, 1 wenn noch keine Nachricht überschrieben wurde
+     */
+    public long getOldestSequence() {
+        lock.readLock().lock();
+        try {
+            return oldest();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hängt die Nachrichten nach einer Sequenznummer, jeweils mit "@" abgeschlossen, an. Sind es mehr als count,
+     * werden nur die neuesten count Nachrichten angehängt; die übersprungenen können mit appendBefore() nachgeladen
+     * werden.
+     *
+     * @param sequence die Sequenznummer der letzten bekannten Nachricht (0 = keine)
+     * @param count maximale Anzahl der Nachrichten
+     * @param out hier werden die Nachrichten angehängt
+     * @return die Sequenznummer der neuesten Nachricht, die der Client danach kennt (auch wenn sequence größer war)
+     */
+    public long appendSince(long sequence, int count, StringBuilder out) {
+        lock.readLock().lock();
+        try {
+            long from = Math.max(Math.max(sequence + 1, oldest()), latest_sequence - count + 1);
+            appendRange(from, latest_sequence, out);
+            return latest_sequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gibt die Antwort auf "reloadchat" für eine Sequenznummer zurück: "sequenznummer\nnachricht@nachricht@..."
+     * mit höchstens PAGE_SIZE Nachrichten nach der angegebenen Sequenznummer. Clients mit derselben
+     * Sequenznummer erhalten bis zur nächsten Nachricht dieselbe Instanz.
+     *
+     * @param sequence die Sequenznummer der letzten bekannten Nachricht (0 = keine)
+     * @return die geteilte Antwort
+     */
+    public SharedReply getReplySince(long sequence) {
+        lock.readLock().lock();
+        try {
+            // Unter der Lesesperre: append() leert den Cache erst, wenn keine Antwort mehr erstellt wird
+            long known = Math.max(0, Math.min(sequence, latest_sequence));
+            return replies.computeIfAbsent(known, k -> {
+                StringBuilder messages = new StringBuilder();
+                long latest = appendSince(k, PAGE_SIZE, messages);
+                return new SharedReply(latest + "\n" + messages);
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hängt bis zu count Nachrichten vor einer Sequenznummer, jeweils mit "@" abgeschlossen, an,
+     * z.B. um ältere Nachrichten nachzuladen.
+     *
+     * @param sequence die Sequenznummer der ältesten bekannten Nachricht
+     * @param count maximale Anzahl der Nachrichten
+     * @param out hier werden die Nachrichten angehängt
+     * @return die Sequenznummer der ersten angehängten Nachricht, 0 wenn es keine älteren Nachrichten mehr gibt
+     */
+    public long appendBefore(long sequence, int count, StringBuilder out) {
+        lock.readLock().lock();
+        try {
+            long to = Math.min(sequence - 1, latest_sequence);
+            long from = Math.max(oldest(), to - count + 1);
+            appendRange(from, to, out);
+            return (from <= to) ? from : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gibt alle gespeicherten Nachrichten zurück.
+     *
+     * @return die Nachrichten von getOldestSequence() bis getLatestSequence()
+     */
+    public List<String> getAll() {
+        lock.readLock().lock();
+        try {
+            return copy(oldest(), latest_sequence);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long oldest() {
+        return Math.max(1, latest_sequence - messages.length + 1);
+    }
+
+    private int index(long sequence) {
+        return (int) ((sequence - 1) % messages.length);
+    }
+
+    private void appendRange(long from, long to, StringBuilder out) {
+        for (long s = from; s <= to; s++) {
+            out.append(messages[index(s)]).append("@");
+        }
+    }
+
+    private List<String> copy(long from, long to) {
+        List<String> copy = new ArrayList<>();
+        for (long s = from; s <= to; s++) {
+            copy.add(messages[index(s)]);
+        }
+        return copy;
+    }
+}
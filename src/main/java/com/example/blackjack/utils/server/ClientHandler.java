@@ -5,17 +5,34 @@ import com.example.blackjack.utils.game.exceptions.InvalidMoveException;
 
 import java.io.*;
 import java.net.*;
-import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Der ClientHandler behandelt die Kommunikation mit einem einzelnen Client in einem Blackjack-Server.
- * Er verarbeitet eingehende Anfragen des Clients und führt entsprechende Aktionen durch.
+ * Er verarbeitet eingehende Anfragen des Clients und führt die in der CommandRegistry registrierten Befehle aus.
+ * Der Server entscheidet, ob der ClientHandler auf einem Plattform- oder einem virtuellen Thread läuft.
  */
-public class ClientHandler extends Thread {
+public class ClientHandler implements Runnable {
+    private static final CommandRegistry COMMANDS = createCommands(); // Schlüsselwort -> Befehl, von allen Verbindungen geteilt
+
     private Socket socket; // Die Socket-Verbindung zum Client
     private Database database; // Die Datenbank für die Benutzer- und Rauminformationen
     private DataInputStream in; // Input-Stream zum Lesen von Daten vom Client
     private DataOutputStream out; // Output-Stream zum Senden von Daten zum Client
+    // Sperre für Antworten und Push-Nachrichten. ReentrantLock statt synchronized: blockierende Schreibvorgänge
+    // auf den Socket pinnen so keine Carrier-Threads von virtuellen Threads
+    private final ReentrantLock write_lock = new ReentrantLock();
+    private volatile boolean binary = false; // true, nachdem der Client auf das Binärprotokoll gewechselt hat
+    private final Map<String, GameStateSubscription> subscriptions = new ConcurrentHashMap<>(); // Tischname -> Abonnement
+    private Runnable push_listener; // wird nach jedem Push aufgerufen (NioServer: Antwortpuffer senden)
+    private String correlation_id; // Korrelations-ID der gerade bearbeiteten Anfrage oder null
+    private boolean replied; // true, sobald die gerade bearbeitete Anfrage beantwortet wurde
+    private volatile long last_activity = System.nanoTime(); // Zeitpunkt der letzten Anfrage (System.nanoTime)
+    private volatile String session_user; // angemeldeter Benutzer dieser Verbindung oder null
+    private volatile String session_room; // Raum, in dem sich der Benutzer befindet, oder null
+    private volatile String session_table; // Tisch, an dem der Benutzer spielt, oder null
 
     /**
      * Konstruktor für ClientHandler.
@@ -28,11 +45,24 @@ public class ClientHandler extends Thread {
         this.socket = socket;
         this.database = database;
         this.in = new DataInputStream(socket.getInputStream());
-        this.out = new DataOutputStream(socket.getOutputStream());
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * Konstruktor für einen ClientHandler ohne eigene Socket-Verbindung.
+     * Wird vom NioServer verwendet: Die Anfragen werden dort bereits dekodiert über
+     * handleRequest übergeben, die Antworten landen in dem übergebenen OutputStream.
+     *
+     * @param database Die Datenbank, die vom Server verwendet wird
+     * @param out Der OutputStream, in den die Antworten geschrieben werden
+     */
+    ClientHandler(Database database, DataOutputStream out) {
+        this.database = database;
+        this.out = out;
     }
 
     /**
-     * Hauptmethode, die während der Thread-Ausführung läuft.
+     * Hauptmethode, die während der Thread-Ausführung läuft (Plattform- oder virtueller Thread).
      * Sie wartet auf eingehende Anfragen vom Client und führt entsprechende Aktionen aus.
      */
     @Override
@@ -53,6 +83,8 @@ public class ClientHandler extends Thread {
         } catch (InterruptedException e) {
             System.out.println("[Server] Beim Neustarten eines Spieltisches kam es zu einem Fehler");
         } finally {
+            closeSubscriptions();
+            releaseSession();
             try {
                 socket.close();
             } catch (IOException e) {
@@ -67,382 +99,364 @@ public class ClientHandler extends Thread {
      * @throws IOException Wenn ein Fehler beim Lesen oder Schreiben von Daten auftritt
      */
     private void waitForRequest() throws IOException, InvalidMoveException, DeckEmptyException, InterruptedException {
-        String input = in.readUTF();
-
-        // Authentifizierung
-        if (input.startsWith("auth")) {
-            String[] data = input.split(":");
-
-            if (data.length == 3) {
-                String username = data[1];
-                String password = data[2];
-                out.writeUTF(String.valueOf(authenticateUser(username, password)));
-                out.flush();
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
-        }
-
-        // Überprüfung, ob Benutzername bereits vergeben ist (Registrierung)
-        if (input.startsWith("dupuser")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String username = data[1];
-                out.writeUTF(String.valueOf(duplicateUsername(username)));
-                out.flush();
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
-        }
-
-        // Registrierung eines neuen Benutzers
-        if (input.startsWith("reg")) {
-            String[] data = input.split(":");
-
-            if (data.length == 3) {
-                String username = data[1];
-                String password = data[2];
-                addUser(username, password);
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
-        }
-
-        // Löschen eines Benutzers
-        if (input.startsWith("delete")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String user = data[1];
-                deleteUser(user);
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
-        }
-
-        // Logout eines Benutzers
-        if (input.startsWith("logout")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String user = data[1];
-                logout(user);
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
-        }
-
-        // Liste der aktiven Benutzer senden
-        if (input.startsWith("reloadactiveusers")) {
-            out.writeUTF(getActiveUsers());
-            out.flush();
-        }
-
-        // Liste der aktiven Räume senden
-        if (input.startsWith("reloadactiverooms")) {
-            out.writeUTF(getActiveRooms());
-            out.flush();
-        }
-
-        // Aktuelles Scoreboard senden
-        if (input.startsWith("reloadscoreboard")) {
-            out.writeUTF(getScoreboard());
-            out.flush();
-        }
-
-        // Chatnachricht senden
-        if (input.startsWith("chatmessage")) {
-            String[] data = input.split(":");
-            if (data.length == 3) {
-                saveChatMessage(data[1], data[2]);
-            }
-        }
-
-        // Chatnachrichten empfangen
-        if (input.startsWith("reloadchat")) {
-            StringBuilder messages_string = new StringBuilder();
-            for (String message : getChatMessages()) {
-                messages_string.append(message).append("@");
-            }
-            out.writeUTF(messages_string.toString());
-            out.flush();
+        if (binary) {
+            handleBinaryRequest(BinaryProtocol.readFrame(in));
+        } else {
+            handleRequest(in.readUTF());
         }
 
-        // Raum erstellen
-        if (input.startsWith("addroom")) {
-            String[] data = input.split(":");
-
-            if (data.length == 4) {
-                String roomname = data[1];
-                String simple_bot_count = data[2];
-                String advanced_bot_count = data[3];
-                addRoom(roomname, Integer.parseInt(simple_bot_count), Integer.parseInt(advanced_bot_count));
-
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
-        }
-
-        // Überprüfen, ob Raumname bereits vorhanden ist
-        if (input.startsWith("duproom")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String roomname = data[1];
-                out.writeUTF(String.valueOf(duplicateRoomName(roomname)));
+        // Liegen bereits weitere Anfragen vor (Pipelining), werden die Antworten gesammelt gesendet
+        if (in.available() == 0) {
+            write_lock.lock();
+            try {
                 out.flush();
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
-        }
-
-        // Einem Raum beitreten
-        if (input.startsWith("joinroom")) {
-            String[] data = input.split(":");
-
-            if (data.length == 3) {
-                String roomname = data[1];
-                String username = data[2];
-
-                joinRoom(roomname, username);
-
-            } else {
-                System.out.println("[Server] Format Fehler");
+            } finally {
+                write_lock.unlock();
             }
         }
+    }
 
-        // Einen Raum verlassen
-        if (input.startsWith("leaveroom")) {
-            String[] data = input.split(":");
-
-            if (data.length == 3) {
-                String roomname = data[1];
-                String username = data[2];
-
-                leaveRoom(roomname, username);
-
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
+    /**
+     * Führt die zu einer bereits gelesenen Anfrage passende Aktion aus.
+     *
+     * Beginnt die Anfrage mit einer Korrelations-ID ("#id#reloadscoreboard"), erhält der Client genau
+     * eine Antwort mit derselben ID davor ("#id#..."), bei Befehlen ohne Antwort nur "#id#". So kann ein
+     * Client mehrere Anfragen hintereinander senden, ohne auf die jeweilige Antwort zu warten.
+     *
+     * @param input Die Anfrage des Clients
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt
+     */
+    void handleRequest(String input) throws IOException, InvalidMoveException, DeckEmptyException, InterruptedException {
+        last_activity = System.nanoTime();
+        int end = input.startsWith("#") ? input.indexOf('#', 1) : -1;
+        if (end < 0) {
+            COMMANDS.dispatch(this, input);
+            return;
         }
 
-        // Einen Raum verlassen
-        if (input.startsWith("reloadroominfo")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String roomname = data[1];
-
-                out.writeUTF(reloadRoomInfo(roomname));
-                out.flush();
-
-            } else {
-                System.out.println("[Server] Format Fehler");
+        correlation_id = input.substring(1, end);
+        replied = false;
+        try {
+            COMMANDS.dispatch(this, input.substring(end + 1));
+            if (!replied) {
+                reply("");
             }
+        } finally {
+            correlation_id = null;
         }
+    }
 
-        // Simple Bot aus Raum werfen
-        if (input.startsWith("removesimplebot")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String roomname = data[1];
+    /**
+     * Führt die Aktion zu einem bereits gelesenen Frame des Binärprotokolls aus.
+     *
+     * @param frame Opcode und Nutzdaten ohne Längenpräfix
+     * @throws IOException Wenn der Frame fehlerhaft ist oder ein Fehler beim Schreiben der Antwort auftritt
+     */
+    void handleBinaryRequest(byte[] frame) throws IOException, InvalidMoveException, DeckEmptyException, InterruptedException {
+        last_activity = System.nanoTime();
+        COMMANDS.dispatch(this, BinaryProtocol.decodeRequest(frame));
+    }
 
-                removeSimpleBot(roomname);
+    /**
+     * Gibt zurück, wie lange die letzte Anfrage dieser Verbindung zurückliegt.
+     *
+     * @param now Der aktuelle Zeitpunkt (System.nanoTime)
+     * @return Die Zeit seit der letzten Anfrage in Millisekunden
+     */
+    long getIdleMillis(long now) {
+        return (now - last_activity) / 1_000_000;
+    }
 
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
+    /**
+     * Räumt die Sitzung so auf, als hätte der Client "leavetable" bzw. "leaveroom" und "logout" gesendet.
+     * Wird aufgerufen, wenn die Verbindung endet oder der SessionReaper sie wegen Inaktivität schließt.
+     * Hat sich der Client bereits abgemeldet, passiert nichts.
+     */
+    synchronized void releaseSession() {
+        String user = session_user;
+        if (user == null) {
+            return;
         }
+        System.out.println("[Server] Sitzung von " + user + " wird aufgeräumt");
 
-        // Hard Bot aus Raum werfen
-        if (input.startsWith("removehardbot")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String roomname = data[1];
-
-                removeHardBot(roomname);
-
-            } else {
-                System.out.println("[Server] Format Fehler");
+        try {
+            if (session_table != null) {
+                database.leaveTable(session_table, user);
+            } else if (session_room != null && database.hasGameStarted(session_room)) {
+                database.leaveTable(session_room, user);
+            } else if (session_room != null) {
+                database.leaveRoom(session_room, user);
             }
+        } catch (DeckEmptyException | InterruptedException e) {
+            System.out.println("[Server] Beim Verlassen des Tisches " + session_table + " kam es zu einem Fehler");
+        } finally {
+            session_table = null;
+            session_room = null;
+            session_user = null;
+            database.removeActiveUser(user);
         }
+    }
 
-        // Spielstart
-        if (input.startsWith("startgame")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String roomname = data[1];
-
-                startGame(roomname);
+    /**
+     * Gibt zurück, ob die Verbindung das Binärprotokoll verwendet.
+     *
+     * @return true beim Binärprotokoll, false beim Textprotokoll
+     */
+    boolean isBinary() {
+        return binary;
+    }
 
+    /**
+     * Sendet eine Antwort an den Client, je nach Protokoll als writeUTF- oder als Binär-Frame.
+     * Im Textprotokoll wird die Korrelations-ID der Anfrage vorangestellt, falls sie eine hatte.
+     * Gesendet wird die Antwort spätestens, wenn keine weiteren Anfragen mehr vorliegen.
+     *
+     * @param response Die Antwort
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt
+     */
+    void reply(String response) throws IOException {
+        write_lock.lock();
+        try {
+            if (binary) {
+                BinaryProtocol.writeText(out, response);
+            } else if (correlation_id != null) {
+                out.writeUTF("#" + correlation_id + "#" + response);
+                replied = true;
             } else {
-                System.out.println("[Server] Format Fehler");
+                out.writeUTF(response);
             }
+        } finally {
+            write_lock.unlock();
         }
+    }
 
-        // Spielstart bereits geschehen
-        if (input.startsWith("started")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String roomname = data[1];
-
-                out.writeUTF(String.valueOf(hasGameStarted(roomname)));
-                out.flush();
-
-            } else {
-                System.out.println("[Server] Format Fehler");
+    /**
+     * Sendet einen Spielstand an den Client, je nach Protokoll im bisherigen Textformat oder binär.
+     *
+     * @param state Der Spielstand
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt
+     */
+    void replyGameState(GameStateSnapshot state) throws IOException {
+        if (binary) {
+            write_lock.lock();
+            try {
+                state.writeTo(out);
+            } finally {
+                write_lock.unlock();
             }
+        } else {
+            reply(state.toText());
         }
+    }
 
-        // Initialisiere Spieler mit ihren Informationen
-        if (input.startsWith("initializegame")) {
-            String[] data = input.split(":");
-
-            if (data.length == 3) {
-                String table_name = data[1];
-                String user_name = data[2];
-
-                out.writeUTF(initializeGame(table_name, user_name));
-
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
+    /**
+     * Sendet eine Antwort, die mit anderen Clients geteilt wird (z.B. LobbySnapshot). Im Textprotokoll ohne
+     * Korrelations-ID werden die bereits kodierten, geteilten Bytes direkt geschrieben.
+     *
+     * @param shared Die geteilte Antwort
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt
+     */
+    void replyShared(SharedReply shared) throws IOException {
+        if (binary || correlation_id != null) {
+            reply(shared.getText());
+            return;
         }
-
-        // Aktuellsten Spielstand bekommen
-        if (input.startsWith("reloadgamestate")) {
-            String[] data = input.split(":");
-
-            if (data.length == 3) {
-                String table_name = data[1];
-                String user_name = data[2];
-
-                out.writeUTF(getGameState(table_name, user_name));
-
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
+        write_lock.lock();
+        try {
+            out.write(shared.getEncoded());
+        } finally {
+            write_lock.unlock();
         }
+    }
 
-        // Tisch verlassen
-        if (input.startsWith("leavetable")) {
-            String[] data = input.split(":");
-
-            if (data.length == 3) {
-                String table_name = data[1];
-                String user_name = data[2];
-
-                leaveTable(table_name, user_name);
+    /**
+     * Sendet einen Spielstand unaufgefordert an den Client (Abonnement). Im Textprotokoll wird dem
+     * Spielstand "push:" vorangestellt, im Binärprotokoll wird OP_PUSH_GAME_STATE verwendet.
+     * Kann aus beliebigen Threads aufgerufen werden.
+     *
+     * @param state Der Spielstand
+     * @throws IOException Wenn ein Fehler beim Schreiben auftritt
+     */
+    void push(GameStateSnapshot state) throws IOException {
+        // außerhalb der Sperre kodieren, geschrieben wird nur noch
+        byte[] frame = binary ? state.encode(BinaryProtocol.OP_PUSH_GAME_STATE) : null;
+        String text = (frame == null) ? "push:" + state.toText() : null;
 
+        write_lock.lock();
+        try {
+            if (binary) { // das Protokoll kann inzwischen gewechselt haben
+                out.write((frame != null) ? frame : state.encode(BinaryProtocol.OP_PUSH_GAME_STATE));
             } else {
-                System.out.println("[Server] Format Fehler");
+                out.writeUTF((text != null) ? text : "push:" + state.toText());
             }
+            out.flush();
+        } finally {
+            write_lock.unlock();
         }
-
-        // Einsatz setzen
-        if (input.startsWith("setstake")) {
-            String[] data = input.split(":");
-
-            if (data.length == 4) {
-                String table_name = data[1];
-                String user_name = data[2];
-                int stake = Integer.parseInt(data[3]);
-
-                setStake(table_name, user_name, stake);
-
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
+        if (push_listener != null) {
+            push_listener.run();
         }
+    }
 
-        // Karte ziehen
-        if (input.startsWith("hit")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String table_name = data[1];
+    /**
+     * Gibt die Sperre zurück, unter der in den Output-Stream geschrieben wird. Der NioServer nimmt den
+     * Antwortpuffer unter derselben Sperre heraus.
+     *
+     * @return die Schreibsperre
+     */
+    ReentrantLock getWriteLock() {
+        return write_lock;
+    }
 
-                hit(table_name);
+    /**
+     * Setzt eine Aktion, die nach jedem Push ausgeführt wird. Der NioServer nutzt das, um den
+     * Antwortpuffer auch ohne vorherige Anfrage zu senden.
+     *
+     * @param push_listener Die Aktion
+     */
+    void setPushListener(Runnable push_listener) {
+        this.push_listener = push_listener;
+    }
 
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
+    /**
+     * Abonniert den Spielstand eines Tisches. Der Client erhält sofort den aktuellen Spielstand und danach
+     * bei jeder Änderung des Tisches einen neuen, ohne "reloadgamestate" abfragen zu müssen.
+     *
+     * @param table_name Der Name des Tisches
+     * @param user_name Der Spieler, aus dessen Sicht der Spielstand erstellt wird
+     */
+    private void subscribe(String table_name, String user_name) {
+        GameStateSubscription subscription = new GameStateSubscription(this, database, table_name, user_name);
+        GameStateSubscription previous = subscriptions.put(table_name, subscription);
+        if (previous != null) {
+            previous.cancel();
         }
 
-        // Stand Move
-        if (input.startsWith("stand")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String table_name = data[1];
-
-                stand(table_name);
-
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
+        if (database.addTableListener(table_name, subscription)) {
+            subscription.schedulePush();
+        } else {
+            subscriptions.remove(table_name, subscription);
+            System.out.println("[Server] Tisch " + table_name + " kann nicht abonniert werden, er existiert nicht");
         }
+    }
 
-        // Doubledown Move
-        if (input.startsWith("doubledown")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String table_name = data[1];
-
-                doubledown(table_name);
-
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
+    /**
+     * Beendet das Abonnement eines Tisches und bestätigt mit "unsubscribed". Nach der Bestätigung
+     * folgen für diesen Tisch keine Push-Nachrichten mehr.
+     *
+     * @param table_name Der Name des Tisches
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt
+     */
+    private void unsubscribe(String table_name) throws IOException {
+        GameStateSubscription subscription = subscriptions.remove(table_name);
+        if (subscription != null) {
+            subscription.cancel();
         }
+        reply("unsubscribed");
+    }
 
-        // Split Move
-        if (input.startsWith("split")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String table_name = data[1];
-
-                split(table_name);
-
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
+    /**
+     * Beendet alle Abonnements dieser Verbindung, z.B. wenn sie geschlossen wird.
+     */
+    void closeSubscriptions() {
+        for (GameStateSubscription subscription : subscriptions.values()) {
+            subscription.cancel();
         }
+        subscriptions.clear();
+    }
 
-        // Surrender Move
-        if (input.startsWith("surrender")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String table_name = data[1];
-
-                surrender(table_name);
-
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
+    /**
+     * Aushandlung des Protokolls ("protocol:binary:1"). Wird die Version unterstützt, bestätigt der Server
+     * mit derselben Zeichenfolge und alle folgenden Frames sind binär, sonst antwortet er "protocol:text:1".
+     * Mit "protocol:text:1" im Binärprotokoll wechselt ein Client zurück; der Server bestätigt noch binär,
+     * danach sind alle Frames wieder Text.
+     *
+     * @param name Das gewünschte Protokoll
+     * @param version Die gewünschte Version
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt
+     */
+    private void negotiateProtocol(String name, String version) throws IOException {
+        if (!binary && name.equals(BinaryProtocol.NAME) && version.equals(String.valueOf(BinaryProtocol.VERSION))) {
+            reply(BinaryProtocol.HELLO);
+            binary = true;
+        } else if (!binary) {
+            reply(BinaryProtocol.TEXT_HELLO);
+        } else if (name.equals("text")) {
+            reply(BinaryProtocol.TEXT_HELLO);
+            binary = false;
         }
+    }
 
-        // Alle Score von aktiven Spieler bekommen
-        if (input.startsWith("getallscores")) {
-            String[] data = input.split(":");
-
-            if (data.length == 2) {
-                String table_name = data[1];
-
-                out.writeUTF(getAllScores(table_name));
+    /**
+     * Gibt die Befehlstabelle zurück, die alle ClientHandler gemeinsam verwenden,
+     * z.B. um die Aufrufzähler auszulesen.
+     *
+     * @return Die Befehlstabelle
+     */
+    public static CommandRegistry getCommands() {
+        return COMMANDS;
+    }
 
-            } else {
-                System.out.println("[Server] Format Fehler");
-            }
-        }
+    /**
+     * Erstellt die Befehlstabelle. Ein neuer Befehl wird hier mit seinem Schlüsselwort und
+     * der erwarteten Anzahl an ":"-getrennten Feldern (inklusive Schlüsselwort) registriert.
+     *
+     * @return Die befüllte Befehlstabelle
+     */
+    private static CommandRegistry createCommands() {
+        CommandRegistry commands = new CommandRegistry();
+
+        // Protokoll-Aushandlung (Text oder Binär)
+        commands.register("protocol", 3, (handler, data) -> handler.negotiateProtocol(data[1], data[2]));
+
+        // Heartbeat: hält die Sitzung am Leben, ohne Antwort (mit Korrelations-ID nur "#id#")
+        commands.register("ping", 1, (handler, data) -> { });
+
+        // Benutzer: Authentifizierung, Registrierung, Löschen und Logout
+        commands.register("auth", 3, (handler, data) -> handler.reply(String.valueOf(handler.authenticateUser(data[1], data[2]))));
+        commands.register("dupuser", 2, (handler, data) -> handler.reply(String.valueOf(handler.duplicateUsername(data[1]))));
+        commands.register("reg", 3, (handler, data) -> handler.addUser(data[1], data[2]));
+        commands.register("delete", 2, (handler, data) -> handler.deleteUser(data[1]));
+        commands.register("logout", 2, (handler, data) -> handler.logout(data[1]));
+
+        // Lobby: aktive Benutzer, aktive Räume, Scoreboard und Chat
+        commands.register("reloadactiveusers", CommandRegistry.ANY_LENGTH, (handler, data) -> handler.replyShared(handler.getActiveUsers()));
+        commands.register("reloadactiverooms", CommandRegistry.ANY_LENGTH, (handler, data) -> handler.replyShared(handler.getActiveRooms()));
+        commands.register("reloadscoreboard", CommandRegistry.ANY_LENGTH, (handler, data) -> handler.reloadScoreboard(data));
+        commands.register("reloadlobby", CommandRegistry.ANY_LENGTH, (handler, data) ->
+                handler.replyShared(handler.getLobbySnapshot(data.length > 1 ? Long.parseLong(data[1]) : 0)));
+        commands.register("chatmessage", CommandRegistry.ANY_LENGTH, (handler, data) -> handler.saveChatMessage(data));
+        commands.register("reloadchat", CommandRegistry.ANY_LENGTH, (handler, data) -> handler.reloadChat(data));
+
+        // Räume: Erstellen, Beitreten, Verlassen und Bots entfernen
+        commands.register("addroom", 4, (handler, data) -> handler.addRoom(data[1], Integer.parseInt(data[2]), Integer.parseInt(data[3])));
+        commands.register("duproom", 2, (handler, data) -> handler.reply(String.valueOf(handler.duplicateRoomName(data[1]))));
+        commands.register("joinroom", 3, (handler, data) -> handler.joinRoom(data[1], data[2]));
+        commands.register("leaveroom", 3, (handler, data) -> handler.leaveRoom(data[1], data[2]));
+        commands.register("reloadroominfo", 2, (handler, data) -> handler.reply(handler.reloadRoomInfo(data[1])));
+        commands.register("removesimplebot", 2, (handler, data) -> handler.removeSimpleBot(data[1]));
+        commands.register("removehardbot", 2, (handler, data) -> handler.removeHardBot(data[1]));
+
+        // Spiel: Start, Spielstand und Tisch verlassen
+        commands.register("startgame", 2, (handler, data) -> handler.startGame(data[1]));
+        commands.register("started", 2, (handler, data) -> handler.reply(String.valueOf(handler.hasGameStarted(data[1]))));
+        commands.register("initializegame", 3, (handler, data) -> handler.reply(handler.initializeGame(data[1], data[2])));
+        commands.register("gamestatedelta", 4, (handler, data) -> handler.reply(handler.getGameStateDelta(data[1], data[2], Long.parseLong(data[3]))));
+        commands.register("reloadgamestate", 3, (handler, data) -> handler.replyGameState(handler.getGameState(data[1], data[2])));
+        commands.register("leavetable", 3, (handler, data) -> handler.leaveTable(data[1], data[2]));
+        commands.register("subscribe", 3, (handler, data) -> handler.subscribe(data[1], data[2]));
+        commands.register("unsubscribe", 2, (handler, data) -> handler.unsubscribe(data[1]));
+        commands.register("getallscores", 2, (handler, data) -> handler.reply(handler.getAllScores(data[1])));
+
+        // Spielzüge
+        commands.register("setstake", 4, (handler, data) -> handler.setStake(data[1], data[2], Integer.parseInt(data[3])));
+        commands.register("hit", 2, (handler, data) -> handler.hit(data[1]));
+        commands.register("stand", 2, (handler, data) -> handler.stand(data[1]));
+        commands.register("doubledown", 2, (handler, data) -> handler.doubledown(data[1]));
+        commands.register("split", 2, (handler, data) -> handler.split(data[1]));
+        commands.register("surrender", 2, (handler, data) -> handler.surrender(data[1]));
+
+        return commands;
     }
 
     /**
@@ -453,7 +467,11 @@ public class ClientHandler extends Thread {
      * @return Der Token des authentifizierten Benutzers oder "null" bei fehlerhaften Anmeldeinformationen
      */
     private String authenticateUser(String username, String password) {
-        return database.authenticate(username, password);
+        String user = database.authenticate(username, password);
+        if (user != null) {
+            session_user = user;
+        }
+        return user;
     }
 
     /**
@@ -473,6 +491,11 @@ public class ClientHandler extends Thread {
      */
     private void logout(String token) {
         database.removeActiveUser(token);
+        if (token.equals(session_user)) {
+            session_user = null;
+            session_room = null;
+            session_table = null;
+        }
     }
 
     /**
@@ -497,19 +520,19 @@ public class ClientHandler extends Thread {
     /**
      * Gibt eine Liste der aktiven Benutzer zurück.
      *
-     * @return Eine Zeichenfolge, die die aktiven Benutzer enthält
+     * @return Die aktiven Benutzer, bis zur nächsten An- oder Abmeldung für alle Clients dieselbe Antwort
      */
-    private String getActiveUsers() {
-        return database.getActiveUsers();
+    private SharedReply getActiveUsers() {
+        return database.getActiveUsersReply();
     }
 
     /**
      * Gibt eine Liste der aktiven Räume zurück.
      *
-     * @return Eine Zeichenfolge, die die aktiven Räume enthält
+     * @return Die aktiven Räume, bis zur nächsten Änderung für alle Clients dieselbe Antwort
      */
-    private String getActiveRooms() {
-        return database.getActiveRooms();
+    private SharedReply getActiveRooms() {
+        return database.getActiveRoomsReply();
     }
 
     /**
@@ -532,6 +555,7 @@ public class ClientHandler extends Thread {
      */
     private void joinRoom(String roomname, String username) {
         database.joinRoom(roomname, username);
+        session_room = roomname;
     }
 
     /**
@@ -542,6 +566,7 @@ public class ClientHandler extends Thread {
      */
     private void leaveRoom(String roomname, String username) {
         database.leaveRoom(roomname, username);
+        session_room = null;
     }
 
     /**
@@ -609,6 +634,7 @@ public class ClientHandler extends Thread {
      */
     private void leaveTable(String table_name, String user_name) throws DeckEmptyException, InterruptedException {
         database.leaveTable(table_name, user_name);
+        session_table = null;
     }
 
     /**
@@ -617,8 +643,20 @@ public class ClientHandler extends Thread {
      * @param table_name Der zu überprüfende Tisch
      * @return GameState
      */
-    private String getGameState(String table_name, String user_name) {
-        return database.getGameState(table_name, user_name);
+    private GameStateSnapshot getGameState(String table_name, String user_name) {
+        return database.getGameStateSnapshot(table_name, user_name);
+    }
+
+    /**
+     * Gibt nur die Änderungen des Spielstands seit der zuletzt gesehenen Version zurück
+     *
+     * @param table_name Der zu überprüfende Tisch
+     * @param user_name Der Spieler, aus dessen Sicht der Spielstand erstellt wird
+     * @param version Die zuletzt gesehene Version (0 beim ersten Aufruf)
+     * @return "unchanged", "delta" oder "full" mit Version, siehe Database.getGameStateDelta
+     */
+    private String getGameStateDelta(String table_name, String user_name, long version) {
+        return database.getGameStateDelta(table_name, user_name, version);
     }
 
     /**
@@ -629,6 +667,8 @@ public class ClientHandler extends Thread {
      * @return Initial Game State
      */
     private String initializeGame(String table_name, String user_name) {
+        session_room = null;
+        session_table = table_name;
         return database.initializeGame(table_name, user_name);
     }
 
@@ -699,30 +739,111 @@ public class ClientHandler extends Thread {
     }
 
     /**
-     * Gibt das aktuelle Scoreboard (Punktestand-Tabelle) zurück.
+     * Sendet das aktuelle Scoreboard (Punktestand-Tabelle) oder einen Teil davon.
+     * "reloadscoreboard"                          das gesamte Scoreboard (geteilte Antwort)
+     * "reloadscoreboard:offset:anzahl"            die Plätze offset + 1 bis offset + anzahl
+     * "reloadscoreboard:rank:benutzer"            "platz:score" des Benutzers
+     * "reloadscoreboard:around:benutzer:abstand"  die Plätze um den Benutzer herum, davor der erste Platz
      *
-     * @return Eine Zeichenfolge, die das Scoreboard enthält
-     */
-    private String getScoreboard() {
-        return database.getScoreboard();
+     * @param data Die Felder der Anfrage
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt
+     */
+    private void reloadScoreboard(String[] data) throws IOException {
+        if (data.length == 3 && data[1].equals("rank")) {
+            reply(database.getScoreboardRank(data[2]));
+        } else if (data.length == 4 && data[1].equals("around")) {
+            reply(database.getScoreboardAround(data[2], Integer.parseInt(data[3])));
+        } else if (data.length == 3) {
+            reply(database.getScoreboard(Integer.parseInt(data[1]), Integer.parseInt(data[2])));
+        } else {
+            replyShared(database.getScoreboardReply());
+        }
     }
 
     /**
-     * Speichert eine Chatnachricht in der Datenbank.
+     * Holt Scoreboard, aktive Benutzer, aktive Räume und neue Chatnachrichten gemeinsam aus der Datenbank.
      *
-     * @param user Der Benutzername des Absenders der Nachricht
-     * @param message Der Inhalt der Chatnachricht
+     * @param known_sequence Sequenznummer der letzten Chatnachricht, die der Client bereits kennt
+     * @return Der (von allen Lobby-Clients geteilte) LobbySnapshot
      */
-    private void saveChatMessage(String user, String message) {
-        database.saveChatMessage(user, message);
+    private LobbySnapshot getLobbySnapshot(long known_sequence) {
+        return database.getLobbySnapshot(known_sequence);
     }
 
     /**
-     * Holt eine Liste der Chatnachrichten aus der Datenbank.
+     * Chat-Kanal einer Anfrage.
      *
-     * @return Eine ArrayList von Zeichenfolgen, die die Chatnachrichten enthält
+     * @param name der Kanalname
+     * @param first Index des ersten Feldes nach dem Kanal
      */
-    private ArrayList<String> getChatMessages() {
-        return database.getChatMessages();
+    private record ChatChannel(String name, int first) {
+    }
+
+    /**
+     * Liest den Chat-Kanal aus einer Anfrage. Nach dem Schlüsselwort folgt optional "lobby", "room:raumname"
+     * oder "table:tischname"; ohne Angabe ist der Lobby-Kanal gemeint.
+     * Ein Kanal wird nur erkannt, wenn danach noch min_fields bis max_fields Felder folgen. So bleibt z.B.
+     * "chatmessage:room:hallo" eine Lobby-Nachricht des Benutzers "room".
+     *
+     * @param data Die Felder der Anfrage
+     * @param min_fields Mindestanzahl der Felder nach dem Kanal
+     * @param max_fields Höchstanzahl der Felder nach dem Kanal
+     * @return Kanalname und Index des ersten Feldes nach dem Kanal
+     */
+    private static ChatChannel parseChatChannel(String[] data, int min_fields, int max_fields) {
+        int named_fields = data.length - 3; // Felder nach "room:raumname" bzw. "table:tischname"
+        int lobby_fields = data.length - 2; // Felder nach "lobby"
+        if (named_fields >= min_fields && named_fields <= max_fields && data[1].equals("room")) {
+            return new ChatChannel(Database.roomChannel(data[2]), 3);
+        } else if (named_fields >= min_fields && named_fields <= max_fields && data[1].equals("table")) {
+            return new ChatChannel(Database.tableChannel(data[2]), 3);
+        } else if (lobby_fields >= min_fields && lobby_fields <= max_fields && data[1].equals(Database.LOBBY_CHANNEL)) {
+            return new ChatChannel(Database.LOBBY_CHANNEL, 2);
+        }
+        return new ChatChannel(Database.LOBBY_CHANNEL, 1);
+    }
+
+    /**
+     * Speichert eine Chatnachricht in der Datenbank.
+     * "chatmessage:benutzer:nachricht"                    im Lobby-Kanal
+     * "chatmessage:room:raumname:benutzer:nachricht"      im Kanal eines Raums
+     * "chatmessage:table:tischname:benutzer:nachricht"    im Kanal eines Tisches
+     *
+     * @param data Die Felder der Anfrage
+     */
+    private void saveChatMessage(String[] data) {
+        ChatChannel channel = parseChatChannel(data, 2, 2);
+        int first = channel.first();
+        if (data.length != first + 2) {
+            System.out.println("[Server] Format Fehler");
+            return;
+        }
+        database.saveChatMessage(channel.name(), data[first], data[first + 1]);
+    }
+
+    /**
+     * Sendet Chatnachrichten eines Kanals, höchstens ChatLog.PAGE_SIZE pro Antwort. Vor "sequenz" bzw. "before"
+     * kann der Kanal stehen ("lobby", "room:raumname", "table:tischname"), ohne Angabe der Lobby-Kanal.
+     * "reloadchat"                     die neuesten Nachrichten der Lobby, getrennt durch '@' (ohne Sequenznummer)
+     * "reloadchat:sequenz"             "sequenz\n..." mit den Nachrichten nach der angegebenen Sequenznummer
+     * "reloadchat:before:sequenz"      "sequenz\n..." mit älteren Nachrichten vor der angegebenen Sequenznummer
+     *
+     * @param data Die Felder der Anfrage
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt
+     */
+    private void reloadChat(String[] data) throws IOException {
+        ChatChannel channel = parseChatChannel(data, 0, 2);
+        String name = channel.name();
+        int first = channel.first();
+
+        if (data.length == first + 2 && data[first].equals("before")) {
+            reply(database.getChatHistory(name, Long.parseLong(data[first + 1])));
+        } else if (data.length == first + 1) {
+            // Geteilte Antwort: einmal pro Kanal und Sequenznummer erstellt und kodiert
+            replyShared(database.getChatMessagesSince(name, Long.parseLong(data[first])));
+        } else {
+            String messages = database.getChatMessagesSince(name, 0).getText();
+            reply(messages.substring(messages.indexOf('\n') + 1));
+        }
     }
 }
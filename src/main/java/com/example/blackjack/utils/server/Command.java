@@ -0,0 +1,21 @@
+package com.example.blackjack.utils.server;
+
+import com.example.blackjack.utils.game.exceptions.DeckEmptyException;
+import com.example.blackjack.utils.game.exceptions.InvalidMoveException;
+
+import java.io.IOException;
+
+/**
+ * Ein Befehl des Client-Protokolls, der in der CommandRegistry unter seinem Schlüsselwort registriert ist.
+ */
+@FunctionalInterface
+public interface Command {
+    /**
+     * Führt den Befehl für einen Client aus.
+     *
+     * @param handler der ClientHandler der Verbindung, über den auch die Antwort gesendet wird
+     * @param data die an ":" getrennte Anfrage, data[0] ist das Schlüsselwort
+     * @throws IOException wenn ein Fehler beim Schreiben der Antwort auftritt
+     */
+    void execute(ClientHandler handler, String[] data) throws IOException, InvalidMoveException, DeckEmptyException, InterruptedException;
+}
@@ -0,0 +1,129 @@
+package com.example.blackjack.utils.server;
+
+import com.example.blackjack.utils.game.exceptions.DeckEmptyException;
+import com.example.blackjack.utils.game.exceptions.InvalidMoveException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Befehlstabelle des Servers. Jede Anfrage wird anhand ihres Schlüsselworts (Text vor dem ersten ":")
+ * mit einem einzigen Hash-Zugriff ihrem Befehl zugeordnet. Zusätzlich wird pro Befehl gezählt,
+ * wie oft er aufgerufen wurde.
+ *
+ * Die Tabelle wird einmalig befüllt und danach nur noch gelesen, sie kann daher von allen
+ * ClientHandlern gleichzeitig verwendet werden.
+ */
+public class CommandRegistry {
+    /**
+     * Anzahl der Felder für Befehle, deren Anfrage beliebig viele Felder haben darf.
+     */
+    public static final int ANY_LENGTH = -1;
+
+    private final Map<String, Entry> commands = new HashMap<>();
+    private final LongAdder unknown_commands = new LongAdder();
+
+    /**
+     * Registriert einen Befehl.
+     *
+     * @param keyword das Schlüsselwort der Anfrage, z.B. "hit"
+     * @param length die erwartete Anzahl an ":"-getrennten Feldern inklusive Schlüsselwort oder ANY_LENGTH
+     * @param command der auszuführende Befehl
+     */
+    public void register(String keyword, int length, Command command) {
+        if (commands.putIfAbsent(keyword, new Entry(length, command)) != null) {
+            throw new IllegalArgumentException("Befehl bereits registriert: " + keyword);
+        }
+    }
+
+    /**
+     * Führt den zur Anfrage passenden Befehl aus. Unbekannte Befehle und Anfragen mit falscher
+     * Feldanzahl werden protokolliert und ignoriert.
+     *
+     * @param handler der ClientHandler, der die Anfrage erhalten hat
+     * @param input die Anfrage des Clients
+     * @return true, wenn ein Befehl ausgeführt wurde, sonst false
+     * @throws IOException wenn ein Fehler beim Schreiben der Antwort auftritt
+     */
+    public boolean dispatch(ClientHandler handler, String input) throws IOException, InvalidMoveException, DeckEmptyException, InterruptedException {
+        return dispatch(handler, input.split(":"));
+    }
+
+    /**
+     * Führt den Befehl zu einer bereits zerlegten Anfrage aus, z.B. aus einem Frame des Binärprotokolls.
+     *
+     * @param handler der ClientHandler, der die Anfrage erhalten hat
+     * @param data Schlüsselwort gefolgt von den Feldern der Anfrage
+     * @return true, wenn ein Befehl ausgeführt wurde, sonst false
+     * @throws IOException wenn ein Fehler beim Schreiben der Antwort auftritt
+     */
+    public boolean dispatch(ClientHandler handler, String[] data) throws IOException, InvalidMoveException, DeckEmptyException, InterruptedException {
+        String keyword = data.length > 0 ? data[0] : "";
+
+        Entry entry = commands.get(keyword);
+        if (entry == null) {
+            unknown_commands.increment();
+            System.out.println("[Server] Unbekannter Befehl: " + keyword);
+            return false;
+        }
+
+        if (entry.length != ANY_LENGTH && data.length != entry.length) {
+            System.out.println("[Server] Format Fehler");
+            return false;
+        }
+
+        entry.invocations.increment();
+        entry.command.execute(handler, data);
+        return true;
+    }
+
+    /**
+     * Gibt zurück, wie oft ein Befehl seit dem Start ausgeführt wurde.
+     *
+     * @param keyword das Schlüsselwort des Befehls
+     * @return Anzahl der Aufrufe, 0 für unbekannte Befehle
+     */
+    public long getInvocationCount(String keyword) {
+        Entry entry = commands.get(keyword);
+        return entry == null ? 0 : entry.invocations.sum();
+    }
+
+    /**
+     * Gibt die Aufrufzähler aller registrierten Befehle zurück, alphabetisch sortiert.
+     *
+     * @return Schlüsselwort und Anzahl der Aufrufe
+     */
+    public Map<String, Long> getInvocationCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, Entry> command : commands.entrySet()) {
+            counts.put(command.getKey(), command.getValue().invocations.sum());
+        }
+        return counts;
+    }
+
+    /**
+     * Gibt zurück, wie viele Anfragen mit unbekanntem Schlüsselwort eingegangen sind.
+     *
+     * @return Anzahl unbekannter Anfragen
+     */
+    public long getUnknownCommandCount() {
+        return unknown_commands.sum();
+    }
+
+    /**
+     * Ein registrierter Befehl mit erwarteter Feldanzahl und Aufrufzähler.
+     */
+    private static class Entry {
+        private final int length;
+        private final Command command;
+        private final LongAdder invocations = new LongAdder();
+
+        private Entry(int length, Command command) {
+            this.length = length;
+            this.command = command;
+        }
+    }
+}
@@ -10,34 +10,107 @@ import com.example.blackjack.utils.game.player.bots.SimpleBot;
 import java.io.*;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Die Database-Klasse verwaltet Benutzerdaten, aktive Benutzer, aktive Räume, Scoreboard und Chat-Nachrichten.
  * Sie bietet Methoden zur Benutzer-Authentifizierung, Raumverwaltung und Datenpersistenz.
+ *
+ * Es gibt keine Sperre für die gesamte Datenbank: Züge und Raumänderungen sperren nur ihren Tisch bzw. Raum
+ * (gameLock, nach Name gestreift), Benutzer, Scoreboard und Chat (ChatLog) haben jeweils eine eigene Sperre, und die
+ * Räume, Tische und Benutzer liegen in nach Namen indizierten ConcurrentHashMaps: Suchen nach Namen brauchen
+ * keinen Durchlauf und keine Sperre, und die Maps können jederzeit ohne Sperre durchlaufen werden.
+ * Werden mehrere Sperren benötigt, dann immer in der Reihenfolge Tisch/Raum, Benutzer, Scoreboard, Chat.
+ *
+ * Die Benutzer im Speicher sind maßgeblich: login.txt wird nur beim Erstellen der Database gelesen. Änderungen
+ * werden verzögert von einem Hintergrund-Thread geschrieben (write-behind), mehrere Änderungen kurz
+ * hintereinander ergeben dabei nur einen Schreibvorgang. Anmeldung und Namensprüfung lesen die Datei nicht mehr.
+ * Punktestände werden ebenfalls nur beim Erstellen geladen und danach über das ScoreJournal gespeichert.
  */
 public class Database {
-    private final Set<User> users;
-    private final Set<User> active_users;
-    private final ArrayList<Room> active_rooms;
-    private final ArrayList<Table> active_tables;
-    private ArrayList<Score> scoreboard;
-    private final ArrayList<String> chat;
+    private static final int GAME_LOCK_STRIPES = 64; // Anzahl der Sperren für Tische und Räume
+    public static final String LOBBY_CHANNEL = "lobby"; // Chat-Kanal der Lobby
+    private static final SharedReply EMPTY_CHAT = new SharedReply("0\n"); // Antwort für Kanäle ohne Nachrichten
+    // Schreibt login.txt für alle Database-Instanzen in Auftragsreihenfolge
+    private static final ExecutorService USER_WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // Ausstehende Änderungen an login.txt beim Beenden der JVM noch schreiben
+        Runtime.getRuntime().addShutdownHook(new Thread(Database::awaitUserWrites, "user-writer-shutdown"));
+    }
+
+    private final Map<String, User> users; // Benutzername -> User
+    private final Map<String, User> active_users; // Benutzername -> User
+    private final Map<String, Room> active_rooms; // Raumname -> Room
+    private final Map<String, Table> active_tables; // Tischname -> Table
+    private final Leaderboard scoreboard; // nach Punkten sortiert, eigene Lese-/Schreibsperre
+    private final ScoreJournal score_journal;
+    private final ChatLog chat; // Lobby-Kanal, Ringpuffer mit eigener Lese-/Schreibsperre
+    private final Map<String, ChatLog> chat_channels = new ConcurrentHashMap<>(); // Raum- und Tisch-Kanäle
     private String jarDir;
+    // ReentrantLock statt synchronized: blockierendes Datei-I/O pinnt so keine Carrier-Threads von virtuellen Threads
+    private final ReentrantLock[] game_locks = new ReentrantLock[GAME_LOCK_STRIPES]; // Tische und Räume, nach Name gestreift
+    private final ReentrantLock users_lock = new ReentrantLock(); // Anlegen, Löschen und Laden von Benutzern
+    private final AtomicBoolean users_save_pending = new AtomicBoolean(); // ein Schreibauftrag für login.txt wartet
+    private final ReentrantLock scoreboard_lock = new ReentrantLock(); // Änderungen an scoreboard in Journal-Reihenfolge
+    private final AtomicLong lobby_epoch = new AtomicLong(); // wird bei jeder Änderung an Lobby-Daten erhöht
+    private final Map<Long, LobbySnapshot> lobby_snapshots = new ConcurrentHashMap<>(); // letzte bekannte Chat-Sequenznummer -> Snapshot
+    private long lobby_snapshots_epoch = -1; // Epoche der Einträge in lobby_snapshots
+    // Listen für die Lobby, werden nur nach einer Änderung beim nächsten Lesen neu erstellt
+    private final VersionedCache active_users_listing = new VersionedCache(this::formatActiveUsers);
+    private final VersionedCache active_rooms_listing = new VersionedCache(this::formatActiveRooms);
+    private final VersionedCache scoreboard_listing = new VersionedCache(() -> getScoreboard(0, Integer.MAX_VALUE));
+    private final VersionedCache top_scores_listing = new VersionedCache(this::formatTopScores);
 
     /**
      * Konstruktor initialisiert die Datenbank und lädt Benutzer und Scoreboard aus der Datei.
      */
     public Database() {
-        this.users = new HashSet<>();
-        this.active_users = new HashSet<>();
-        this.active_rooms = new ArrayList<>();
-        this.active_tables = new ArrayList<>();
-        this.scoreboard = new ArrayList<>();
-        this.chat = new ArrayList<>();
+        this(null);
+    }
+
+    /**
+     * Konstruktor initialisiert die Datenbank und lädt Benutzer und Scoreboard aus den Dateien im angegebenen
+     * Verzeichnis statt neben der JAR-Datei, z.B. für Benchmarks mit vielen Benutzern.
+     *
+     * @param data_dir das Verzeichnis mit temp_login.txt und temp_scoreboard.txt, null für das Verzeichnis der JAR-Datei
+     */
+    public Database(String data_dir) {
+        this.jarDir = data_dir;
+        this.users = new ConcurrentHashMap<>();
+        this.active_users = new ConcurrentHashMap<>();
+        this.active_rooms = new ConcurrentHashMap<>();
+        this.active_tables = new ConcurrentHashMap<>();
+        this.scoreboard = new Leaderboard();
+        this.chat = new ChatLog();
+        for (int i = 0; i < GAME_LOCK_STRIPES; i++) {
+            this.game_locks[i] = new ReentrantLock();
+        }
         initializeFiles();
+        // Noch nicht geschriebene Änderungen einer anderen Instanz zuerst abwarten
+        awaitUserWrites();
         loadUsersFromFile();
-        loadScoreboardFromFile();
+        try {
+            this.score_journal = ScoreJournal.open(jarDir, ScoreJournal.COMPACT_AFTER);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        loadScoreboard();
     }
 
     public void initializeFiles() {
@@ -49,7 +122,9 @@ public class Database {
         String tempScoreboardFileName = "temp_scoreboard.txt";
 
         // Verzeichnis der JAR-Datei ermitteln
-        this.jarDir = getJarDir();
+        if (this.jarDir == null) {
+            this.jarDir = getJarDir();
+        }
 
         if (jarDir == null || new File(jarDir + File.separator + tempLoginFileName).exists() || new File(jarDir + File.separator + tempScoreboardFileName).exists()) {
             //System.out.println("Verzeichnis der JAR-Datei konnte nicht ermittelt werden oder temp Files bereits vorhanden");
@@ -60,6 +135,9 @@ public class Database {
         String tempLoginFilePath = jarDir + File.separator + tempLoginFileName;
         String tempScoreboardFilePath = jarDir + File.separator + tempScoreboardFileName;
 
+        // Ein Journal ohne zugehörigen Snapshot stammt von einem alten Stand
+        new File(jarDir, "temp_scoreboard_journal.txt").delete();
+
         // Ressourcen-Dateien in temporäre Dateien kopieren
         copyResourceToFile(loginResourcePath, tempLoginFilePath);
         copyResourceToFile(scoreboardResourcePath, tempScoreboardFilePath);
@@ -94,6 +172,28 @@ public class Database {
         }
     }
 
+    /**
+     * Gibt die Sperre für einen Tisch bzw. Raum zurück. Ein Raum und der daraus gestartete Tisch haben
+     * denselben Namen und damit dieselbe Sperre. Verschiedene Namen teilen sich nur selten eine Sperre.
+     *
+     * @param name der Name des Tisches oder Raums
+     * @return die Sperre
+     */
+    private ReentrantLock gameLock(String name) {
+        return game_locks[Math.floorMod(name.hashCode(), GAME_LOCK_STRIPES)];
+    }
+
+    /**
+     * Gibt die Sperre eines Tisches zurück, damit der Tisch seine Timer-Aktionen (Countdown, Rundenstart, Neustart)
+     * unter derselben Sperre wie Spielzüge und Lesezugriffe ausführen kann.
+     *
+     * @param name der Name des Tisches
+     * @return die Sperre
+     */
+    public ReentrantLock getGameLock(String name) {
+        return gameLock(name);
+    }
+
     // --------------------------------- User Methoden ---------------------------------
 
     /**
@@ -101,19 +201,38 @@ public class Database {
      *
      * @param username der Benutzername des neuen Benutzers
      * @param password das Passwort des neuen Benutzers
+     * @return true, wenn der Benutzer angelegt wurde, false wenn es den Benutzernamen bereits gibt
      * @throws IllegalArgumentException wenn der Benutzername oder das Passwort null oder leer ist
      */
-    public synchronized void addUser(String username, String password) {
-        if (username == null || username.isEmpty() || password == null || password.isEmpty()) {
-            throw new IllegalArgumentException("Benutzername und Passwort dürfen nicht null oder leer sein.");
-        }
+    public boolean addUser(String username, String password) {
+        users_lock.lock();
+        try {
+            if (username == null || username.isEmpty() || password == null || password.isEmpty()) {
+                throw new IllegalArgumentException("Benutzername und Passwort dürfen nicht null oder leer sein.");
+            }
 
-        users.add(new User(username, password));
-        System.out.println("[Server] Benutzer (" + username + ") wurde erfolgreich angelegt");
-        saveUsersToFile();
+            // Die Prüfung mit "dupuser" auf dem Client ist nicht atomar, bestehende Benutzer nie ersetzen
+            if (users.putIfAbsent(username, new User(username, password)) != null) {
+                System.out.println("[Server] Benutzer (" + username + ") existiert bereits");
+                return false;
+            }
+            System.out.println("[Server] Benutzer (" + username + ") wurde erfolgreich angelegt");
+            scheduleUsersSave();
+        } finally {
+            users_lock.unlock();
+        }
 
-        scoreboard.add(new Score(username, 500));
-        saveScoreboardToFile();
+        CompletableFuture<Void> committed;
+        scoreboard_lock.lock();
+        try {
+            scoreboard.update(username, 500);
+            committed = score_journal.set(username, 500);
+            scoresChanged();
+        } finally {
+            scoreboard_lock.unlock();
+        }
+        reportScoreCommit(committed);
+        return true;
     }
 
     /**
@@ -122,26 +241,31 @@ public class Database {
      * @param user der Benutzername des zu löschenden Benutzers
      * @throws IllegalArgumentException wenn der Benutzername null oder leer ist
      */
-    public synchronized void deleteUser(String user) {
-        if (user == null || user.isEmpty()) {
-            throw new IllegalArgumentException("Benutzername darf nicht null oder leer sein.");
-        }
-        for (User u : users) {
-            if (u.getUsername().equals(user)) {
+    public void deleteUser(String user) {
+        users_lock.lock();
+        try {
+            if (user == null || user.isEmpty()) {
+                throw new IllegalArgumentException("Benutzername darf nicht null oder leer sein.");
+            }
+            if (users.remove(user) != null) {
                 System.out.println("[Server] " + user + " wurde erfolgreich aus der Datenbank gelöscht");
-                users.remove(u);
-                break;
+                scheduleUsersSave();
             }
+        } finally {
+            users_lock.unlock();
         }
-        saveUsersToFile();
 
-        for (Score s : scoreboard) {
-            if (s.getUser().equals(user)) {
-                scoreboard.remove(s);
-                break;
+        CompletableFuture<Void> committed = null;
+        scoreboard_lock.lock();
+        try {
+            if (scoreboard.remove(user)) {
+                committed = score_journal.delete(user);
+                scoresChanged();
             }
+        } finally {
+            scoreboard_lock.unlock();
         }
-        saveScoreboardToFile();
+        reportScoreCommit(committed);
     }
 
     /**
@@ -152,15 +276,12 @@ public class Database {
      * @throws IllegalArgumentException wenn der Benutzername null oder leer ist
      */
     public boolean duplicateUsername(String username) {
-        loadUsersFromFile();
         if (username == null || username.isEmpty()) {
             throw new IllegalArgumentException("Benutzername darf nicht null oder leer sein.");
         }
-        for (User u : users) {
-            if (Objects.equals(u.getUsername(), username)) {
-                System.out.println("[Server] Registrierung mit bereits vergebenem Benutzernamen verhindert");
-                return true;
-            }
+        if (users.containsKey(username)) {
+            System.out.println("[Server] Registrierung mit bereits vergebenem Benutzernamen verhindert");
+            return true;
         }
         return false;
     }
@@ -173,21 +294,19 @@ public class Database {
      * @return den Benutzernamen, wenn die Authentifizierung erfolgreich ist, andernfalls null
      * @throws IllegalArgumentException wenn der Benutzername oder das Passwort null oder leer ist
      */
-    public synchronized String authenticate(String username, String password) {
+    public String authenticate(String username, String password) {
         if (username == null || username.isEmpty() || password == null || password.isEmpty()) {
             throw new IllegalArgumentException("Benutzername und Passwort dürfen nicht null oder leer sein.");
         }
-        loadUsersFromFile();
-        for (User u : users) {
-            if ((u.getUsername().equals(username)) && (u.getPassword().equals(password))) {
-                if (!active_users.contains(u)) {
-                    System.out.println("[Server] " + username + " hat sich erfolgreich angemeldet");
-                    active_users.add(u);
-                    return username;
-                } else {
-                    System.out.println("[Server] Doppel Login (" + username + ") verhindert");
-                    return null;
-                }
+        User u = users.get(username);
+        if (u != null && u.getPassword().equals(password)) {
+            if (active_users.putIfAbsent(username, u) == null) {
+                System.out.println("[Server] " + username + " hat sich erfolgreich angemeldet");
+                activeUsersChanged();
+                return username;
+            } else {
+                System.out.println("[Server] Doppel Login (" + username + ") verhindert");
+                return null;
             }
         }
         return null;
@@ -199,9 +318,22 @@ public class Database {
      * @return ein durch Doppelpunkte getrenntes String der aktiven Benutzernamen
      */
     public String getActiveUsers() {
+        return active_users_listing.get().getText();
+    }
+
+    /**
+     * Gibt die Liste der aktiven Benutzer als geteilte Antwort zurück, siehe getActiveUsers().
+     *
+     * @return die geteilte Antwort, bis zur nächsten An- oder Abmeldung dieselbe Instanz
+     */
+    public SharedReply getActiveUsersReply() {
+        return active_users_listing.get();
+    }
+
+    private String formatActiveUsers() {
         StringBuilder active_users_names = new StringBuilder();
-        for (User u : active_users) {
-            active_users_names.append(u.getUsername()).append(":");
+        for (String username : active_users.keySet()) {
+            active_users_names.append(username).append(":");
         }
         return active_users_names.toString();
     }
@@ -212,20 +344,14 @@ public class Database {
      * @param user der Benutzername des zu entfernenden Benutzers
      * @throws IllegalArgumentException wenn der Benutzername null oder leer ist
      */
-    public synchronized void removeActiveUser(String user) {
+    public void removeActiveUser(String user) {
         if (user == null || user.isEmpty()) {
             throw new IllegalArgumentException("Benutzername darf nicht null oder leer sein.");
         }
-        boolean successful = false;
-        for (User u : active_users) {
-            if (u.getUsername().equals(user)) {
-                System.out.println("[Server] " + user + " hat sich abgemeldet");
-                successful = true;
-                active_users.remove(u);
-                break;
-            }
-        }
-        if (!successful) {
+        if (active_users.remove(user) != null) {
+            System.out.println("[Server] " + user + " hat sich abgemeldet");
+            activeUsersChanged();
+        } else {
             System.out.println("[Server] Dieser Spieler dürfte nicht angemeldet sein");
         }
     }
@@ -237,13 +363,24 @@ public class Database {
      *
      * @param name der Name des neuen Raums
      * @throws IllegalArgumentException wenn der Name null oder leer ist
+     * @throws InvalidMoveException wenn es bereits einen Raum oder gestarteten Tisch mit dem Namen gibt
      */
-    public synchronized void addRoom(String name, int simple_bot_count, int advanced_bot_count) throws InvalidMoveException {
+    public void addRoom(String name, int simple_bot_count, int advanced_bot_count) throws InvalidMoveException {
         if (name == null || name.isEmpty()) {
             throw new IllegalArgumentException("Raumname darf nicht null oder leer sein.");
         }
 
-        active_rooms.add(new Room(name, simple_bot_count, advanced_bot_count, this));
+        ReentrantLock lock = gameLock(name);
+        lock.lock();
+        try {
+            if (active_tables.containsKey(name)
+                    || active_rooms.putIfAbsent(name, new Room(name, simple_bot_count, advanced_bot_count, this)) != null) {
+                throw new InvalidMoveException("Es gibt bereits einen Raum mit dem Namen " + name);
+            }
+            activeRoomsChanged();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -253,18 +390,7 @@ public class Database {
      * @return true, wenn Fehler, andernfalls false
      */
     public boolean duplicateRoomName(String name) {
-        for (Room r : active_rooms) {
-            if (r.getRoom_name().equals(name)) {
-                return true;
-            }
-        }
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(name)) {
-                return true;
-            }
-        }
-
-        return false;
+        return active_rooms.containsKey(name) || active_tables.containsKey(name);
     }
 
     /**
@@ -273,14 +399,19 @@ public class Database {
      * @param roomname der Name des Raums, zu dem der Benutzer hinzugefügt wird
      * @param username der Benutzername des Benutzers, der dem Raum beitritt
      */
-    public synchronized void joinRoom(String roomname, String username) {
-        int score = getGlobalScore(username);
+    public void joinRoom(String roomname, String username) {
+        ReentrantLock lock = gameLock(roomname);
+        lock.lock();
+        try {
+            int score = getGlobalScore(username);
 
-        for (Room r : active_rooms) {
-            if (r.getRoom_name().equals(roomname)) {
+            Room r = active_rooms.get(roomname);
+            if (r != null) {
                 r.addPlayer(username, score);
-                break;
+                activeRoomsChanged();
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -291,11 +422,16 @@ public class Database {
      * @param username der Benutzername des Benutzers, der den Raum verlässt
      */
     public void leaveRoom(String roomname, String username) {
-        for (Room r : active_rooms) {
-            if (r.getRoom_name().equals(roomname)) {
+        ReentrantLock lock = gameLock(roomname);
+        lock.lock();
+        try {
+            Room r = active_rooms.get(roomname);
+            if (r != null) {
                 r.removePlayer(username);
-                break;
+                activeRoomsChanged();
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -305,9 +441,28 @@ public class Database {
      * @return eine String-Repräsentation der aktiven Räume, getrennt durch '@'
      */
     public String getActiveRooms() {
+        return active_rooms_listing.get().getText();
+    }
+
+    /**
+     * Gibt die Liste der aktiven Räume als geteilte Antwort zurück, siehe getActiveRooms().
+     *
+     * @return die geteilte Antwort, bis zur nächsten Änderung an einem Raum dieselbe Instanz
+     */
+    public SharedReply getActiveRoomsReply() {
+        return active_rooms_listing.get();
+    }
+
+    private String formatActiveRooms() {
         StringBuilder active_rooms_string = new StringBuilder();
-        for (Room r : active_rooms) {
-            active_rooms_string.append(r.toString()).append("@");
+        for (Room r : active_rooms.values()) {
+            ReentrantLock lock = gameLock(r.getRoom_name());
+            lock.lock();
+            try {
+                active_rooms_string.append(r.toString()).append("@");
+            } finally {
+                lock.unlock();
+            }
         }
         return active_rooms_string.toString();
     }
@@ -319,10 +474,15 @@ public class Database {
      */
     public String reloadRoomInfo(String room_name) {
         StringBuilder users_string = new StringBuilder();
-        for (Room r : active_rooms) {
-            if (r.getRoom_name().equals(room_name)) {
+        ReentrantLock lock = gameLock(room_name);
+        lock.lock();
+        try {
+            Room r = active_rooms.get(room_name);
+            if (r != null) {
                 return r.toString();
             }
+        } finally {
+            lock.unlock();
         }
 
         return users_string.toString();
@@ -334,18 +494,24 @@ public class Database {
      * @param roomname ist der Spielraum, aus dem entfernt wird
      */
     public void removeSimpleBot(String roomname) {
-        for (Room r : active_rooms) {
-            if (r.getRoom_name().equals(roomname)) {
+        ReentrantLock lock = gameLock(roomname);
+        lock.lock();
+        try {
+            Room r = active_rooms.get(roomname);
+            if (r != null) {
                 String[] tmp = r.toString().split(":");
                 String[] players_with_bots = Arrays.copyOfRange(tmp, 2, tmp.length);
 
                 for (String p : players_with_bots) {
                     if (p.startsWith("#")) {
                         r.removePlayer(p.replace("#", ""));
+                        activeRoomsChanged();
                         break;
                     }
                 }
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -355,18 +521,24 @@ public class Database {
      * @param roomname ist der Spielraum, aus dem entfernt wird
      */
     public void removeHardBot(String roomname) {
-        for (Room r : active_rooms) {
-            if (r.getRoom_name().equals(roomname)) {
+        ReentrantLock lock = gameLock(roomname);
+        lock.lock();
+        try {
+            Room r = active_rooms.get(roomname);
+            if (r != null) {
                 String[] tmp = r.toString().split(":");
                 String[] players_with_bots = Arrays.copyOfRange(tmp, 2, tmp.length);
 
                 for (String p : players_with_bots) {
                     if (p.startsWith("*")) {
                         r.removePlayer(p.replace("*", ""));
+                        activeRoomsChanged();
                         break;
                     }
                 }
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -378,27 +550,32 @@ public class Database {
      *
      * @param room_name der Name des Raums, in dem das Spiel gestartet wird
      */
-    public synchronized void startGame(String room_name) throws InvalidMoveException {
-        ArrayList<Player> players = null;
-        for (Room r : active_rooms) {
-            if (r.getRoom_name().equals(room_name)) {
-                active_rooms.remove(r);
-                players = r.getPlayers();
-                break;
+    public void startGame(String room_name) throws InvalidMoveException {
+        ReentrantLock lock = gameLock(room_name);
+        lock.lock();
+        try {
+            Room r = active_rooms.remove(room_name);
+            if (r == null) {
+                return;
             }
-        }
+            chat_channels.remove(roomChannel(room_name));
+            ArrayList<Player> players = r.getPlayers();
+            activeRoomsChanged();
 
-        Table new_table = new Table(room_name, this);
+            Table new_table = new Table(room_name, this);
 
-        for (Player p : players) {
-            new_table.addPlayer(p);
-        }
+            for (Player p : players) {
+                new_table.addPlayer(p);
+            }
 
-        active_tables.add(new_table);
+            active_tables.put(room_name, new_table);
 
-        new_table.initializeBots();
+            new_table.initializeBots();
 
-        System.out.println("[Server] " + room_name + " wurde erfolgreich gestartet");
+            System.out.println("[Server] " + room_name + " wurde erfolgreich gestartet");
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -408,12 +585,7 @@ public class Database {
      * @return true, wenn das Spiel gestartet wurde, andernfalls false
      */
     public boolean hasGameStarted(String room_name) {
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(room_name)) {
-                return true;
-            }
-        }
-        return false;
+        return active_tables.containsKey(room_name);
     }
 
     /**
@@ -425,21 +597,64 @@ public class Database {
      * @throws InterruptedException wenn der Thread unterbrochen wird
      */
     public void leaveTable(String table_name, String user_name) throws DeckEmptyException, InterruptedException {
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(table_name)) {
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table t = active_tables.get(table_name);
+            if (t != null) {
                 t.removePlayer(user_name);
-                break;
             }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gibt die aktiven Tische zurück. Die Sammlung kann ohne Sperre durchlaufen werden.
+     *
+     * @return die aktiven Tische
+     */
+    public Collection<Table> getActive_tables() {
+        return this.active_tables.values();
+    }
+
+    /**
+     * Gibt den aktiven Tisch mit dem angegebenen Namen zurück.
+     *
+     * @param table_name der Name des Tisches
+     * @return der Tisch oder null, wenn es keinen aktiven Tisch mit diesem Namen gibt
+     */
+    public Table getTable(String table_name) {
+        return active_tables.get(table_name);
+    }
+
+    /**
+     * Meldet einen Listener für Zustandsänderungen eines Tisches an.
+     *
+     * @param table_name der Name des Tisches
+     * @param listener der Listener
+     * @return true, wenn der Tisch existiert, andernfalls false
+     */
+    public boolean addTableListener(String table_name, TableListener listener) {
+        Table t = active_tables.get(table_name);
+        if (t != null) {
+            t.addTableListener(listener);
+            return true;
         }
+        return false;
     }
 
     /**
-     * Gibt die Liste der aktiven Tische zurück.
+     * Meldet einen Listener eines Tisches wieder ab.
      *
-     * @return eine ArrayList der aktiven Tische
+     * @param table_name der Name des Tisches
+     * @param listener der Listener
      */
-    public ArrayList<Table> getActive_tables() {
-        return this.active_tables;
+    public void removeTableListener(String table_name, TableListener listener) {
+        Table t = active_tables.get(table_name);
+        if (t != null) {
+            t.removeTableListener(listener);
+        }
     }
 
 
@@ -452,22 +667,22 @@ public class Database {
      * @return eine String-Repräsentation der Initialisierungsinformationen
      */
     public String initializeGame(String table_name, String user_name) {
-        Table table = null;
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(table_name)) {
-                table = t;
-            }
-        }
-
         StringBuilder info = new StringBuilder();
 
         info.append(getGlobalScore(user_name) + "@" + user_name + "@");
 
-        for (int i = table.getPlayers().size() - 1; i >= 0; i--) {
-            Player p = table.getPlayers().get(i);
-            if (!p.getUsername().equals(user_name)) {
-                info.append(p.getUsername() + "@");
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table table = active_tables.get(table_name);
+            for (int i = table.getPlayers().size() - 1; i >= 0; i--) {
+                Player p = table.getPlayers().get(i);
+                if (!p.getUsername().equals(user_name)) {
+                    info.append(p.getUsername() + "@");
+                }
             }
+        } finally {
+            lock.unlock();
         }
 
         return info.toString();
@@ -482,12 +697,17 @@ public class Database {
     public String getAllScores(String table_name) {
         StringBuilder scores = new StringBuilder();
 
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(table_name)) {
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table t = active_tables.get(table_name);
+            if (t != null) {
                 for (Player p : t.getPlayers()) {
                     scores.append(p.getUsername() + "/" + t.getCardScoreOfPlayer(p.getUsername(), 0) + "/"+ t.getCardScoreOfPlayer(p.getUsername(), 1) + ":");
                 }
             }
+        } finally {
+            lock.unlock();
         }
         return scores.toString();
     }
@@ -500,9 +720,12 @@ public class Database {
      * @param stake der Einsatz des Spielers
      * @throws InvalidMoveException wenn der Einsatz ungültig ist
      */
-    public synchronized void setStake(String table_name, String user_name, int stake) throws InvalidMoveException {
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(table_name)) {
+    public void setStake(String table_name, String user_name, int stake) throws InvalidMoveException {
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table t = active_tables.get(table_name);
+            if (t != null) {
                 for (Player p : t.getPlayers()) {
                     if (p.getUsername().equals(user_name) && (!t.getActivePlayers().contains(p))) {
                         t.setStake(p, stake);
@@ -511,6 +734,8 @@ public class Database {
                     }
                 }
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -522,83 +747,159 @@ public class Database {
      * @return eine String-Repräsentation des Spielstatus
      */
     public String getGameState(String table_name, String user_name) {
-        // balance@
-        // active_player:ddable:splitable:surrenderable@
-        // player_hand_1_card_1:player_hand_1_card_2:...&player_hand_2_card_1:player_hand_2_card_2:...@
-        // visibility_card_2&dealer_card_1:dealer_card_2:...@
-        // player_1&stake_1:player_2&stake_2:...
+        return getGameStateSnapshot(table_name, user_name).toText();
+    }
 
+    /**
+     * Gibt den aktuellen Spielstatus für einen bestimmten Tisch und Benutzer strukturiert zurück,
+     * damit er sowohl als Text als auch binär gesendet werden kann.
+     * Beim Rundenende wird das Ergebnis dabei wie bisher nur einmal pro Spieler ausgeliefert.
+     * Der Tisch wird unter seiner Sperre gelesen und das Ergebnis dort auch beansprucht; nur das Verbuchen
+     * des neuen Kontostands passiert danach ohne die Sperre.
+     *
+     * @param table_name der Name des Tisches
+     * @param user_name der Benutzername des Spielers
+     * @return der Spielstatus, Phase NONE wenn es keinen (neuen) Spielstatus gibt
+     */
+    public GameStateSnapshot getGameStateSnapshot(String table_name, String user_name) {
+        GameStateSnapshot state;
+        String tmp = null;
 
-        StringBuilder state = new StringBuilder();
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table t = active_tables.get(table_name);
+            if (t == null) {
+                return new GameStateSnapshot();
+            }
+            int time_till_start = t.getCountdown();
 
-        state.append("@");
+            if (time_till_start != 0) {
+                return GameStateSnapshot.countdown(time_till_start);
+            }
+            if (!t.isGameFinished()) {
+                return compressGameStateInfo(user_name, t);
+            }
+            if (t.alreadyGotResult(user_name)) {
+                return new GameStateSnapshot();
+            }
+            t.addResultPlayer(user_name);
+            // Letzte Spielinfos vor Spielende
+            state = compressGameStateInfo(user_name, t);
 
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(table_name)) {
-                int time_till_start = t.getCountdown();
+            ArrayList<WinningsEntry> result = t.getResults(user_name);
+            if (!(result == null)) {
+                tmp = result.get(0).getString();
+            }
+        } finally {
+            lock.unlock();
+        }
 
-                if (time_till_start == 0) {
-                    if (!t.isGameFinished()) {
-                        compressGameStateInfo(user_name, state, t);
+        if (tmp != null) {
+            int new_balance_after_game_end = Integer.parseInt(tmp.split(":")[0]);
+            setGlobalScore(user_name, new_balance_after_game_end);
 
-                        return state.toString();
+            state.setResult(getGlobalScore(user_name), tmp);
+        } else {
+            state.setResult(null, null);
+        }
+        return state;
+    }
 
-                    } else if (!t.alreadyGotResult(user_name)) {
-                        t.addResultPlayer(user_name);
-                        // Letzte Spielinfos vor Spielende
-                        compressGameStateInfo(user_name, state, t);
+    /**
+     * Gibt nur die Änderungen des Spielstatus seit einer bekannten Version zurück.
+     *
+     * "unchanged:version" - seit der Version hat sich nichts geändert
+     * "delta:version:änderungen" - Änderungen der laufenden Runde, siehe GameStateSnapshot.applyDelta
+     * "full:version:spielstatus" - vollständiger Spielstatus wie bei getGameState, wenn der Client zu weit
+     * zurückliegt, der Countdown läuft oder die Runde beendet ist
+     *
+     * @param table_name der Name des Tisches
+     * @param user_name der Benutzername des Spielers
+     * @param version die zuletzt vom Client gesehene Version (0 beim ersten Aufruf)
+     * @return die Antwort für den Client
+     */
+    public String getGameStateDelta(String table_name, String user_name, long version) {
+        long current_version;
 
-                        ArrayList<WinningsEntry> result = t.getResults(user_name);
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table t = active_tables.get(table_name);
+            if (t == null) {
+                return "unchanged:0";
+            }
+            current_version = t.getStateVersion();
 
-                        if (!(result == null)) {
-                            String tmp = result.get(0).getString();
-                            int new_balance_after_game_end = Integer.parseInt(tmp.split(":")[0]);
-                            setGlobalScore(user_name, new_balance_after_game_end);
+            if (version == current_version) {
+                return "unchanged:" + current_version;
+            }
 
-                            return ("result#" + getGlobalScore(user_name) + state + "#" + tmp);
-                        } else {
-                            return ("result#" + state);
-                        }
-                    }
-                } else {
-                    return "countdown:" + time_till_start;
-                }
+            ArrayList<TableEvent> events = null;
+            if (t.getCountdown() == 0 && !t.isGameFinished() && t.getCurrentPlayer() != null) {
+                events = t.getEventsSince(version);
             }
+
+            if (events != null) {
+                return "delta:" + current_version + ":" + GameStateSnapshot.encodeDelta(t.getCurrentPlayer().getUsername(),
+                        t.isDdAllowed(), t.isSplitAllowed(), t.isSurrenderAllowed(), events, user_name);
+            }
+        } finally {
+            lock.unlock();
         }
-        return null;
+
+        String state = getGameStateSnapshot(table_name, user_name).toText();
+        return (state == null) ? "unchanged:" + current_version : "full:" + current_version + ":" + state;
     }
 
     /**
-     * Komprimiert die Spielstatusinformationen für einen Benutzer und Tisch.
+     * Fasst die Spielstatusinformationen für einen Benutzer und Tisch zusammen.
+     * Der Aufrufer muss die Sperre des Tisches halten.
      *
      * @param user_name der Benutzername des Spielers
-     * @param state der StringBuilder für den Status
-     * @param t der Tisch, dessen Status komprimiert wird
+     * @param t der Tisch, dessen Status zusammengefasst wird
+     * @return der Spielstatus der laufenden Runde
      */
-    private void compressGameStateInfo(String user_name, StringBuilder state, Table t) {
-        String currentPlayer = t.getCurrentPlayer().getUsername();
-        state.append(currentPlayer + ":" + t.isDdAllowed() + ":" + t.isSplitAllowed() + ":" + t.isSurrenderAllowed() + "@");
+    private GameStateSnapshot compressGameStateInfo(String user_name, Table t) {
+        GameStateSnapshot state = new GameStateSnapshot();
+        state.setRound(t.getCurrentPlayer().getUsername(), t.isDdAllowed(), t.isSplitAllowed(), t.isSurrenderAllowed());
 
         ArrayList<ArrayList<Card>> hand = t.getHand(user_name);
 
         if (hand != null) { // Spieler nimmt aktiv am Spiel teil und hat eine Hand
-            for (ArrayList<Card> h : hand) {
-                for (Card c : h) {
-                    state.append(c.getBildIdent() + ":");
-                }
-                state.append("&");
+            byte[][] hands = new byte[hand.size()][];
+            for (int i = 0; i < hand.size(); i++) {
+                hands[i] = toCardBytes(hand.get(i));
             }
+            state.setHands(hands);
         }
 
-        state.append("@" + t.getDealer().getDealerInfo() + "@");
-        for (Player p : t.getActivePlayers()) {
-            Integer sum = 0;
-            for (Integer i : t.getStake(p.getUsername())) {
-                sum+=i;
-            }
+        state.setDealer(t.getDealer().isSecondCardVisible(), toCardBytes(t.getDealer().getHand()));
 
-            state.append(p.getUsername() + "&" + sum + ":");
+        ArrayList<Player> active_players = t.getActivePlayers();
+        String[] players = new String[active_players.size()];
+        int[] stakes = new int[active_players.size()];
+        for (int i = 0; i < active_players.size(); i++) {
+            players[i] = active_players.get(i).getUsername();
+            stakes[i] = t.getSeatStakeSum(i);
         }
+        state.setStakes(players, stakes);
+
+        return state;
+    }
+
+    /**
+     * Wandelt Karten in ihre Bild-IDs um (1 Byte pro Karte).
+     *
+     * @param cards die Karten
+     * @return die Bild-IDs
+     */
+    private static byte[] toCardBytes(ArrayList<Card> cards) {
+        byte[] idents = new byte[cards.size()];
+        for (int i = 0; i < idents.length; i++) {
+            idents[i] = (byte) cards.get(i).getBildIdent();
+        }
+        return idents;
     }
 
     /**
@@ -608,12 +909,17 @@ public class Database {
      * @return true, wenn das Verdoppeln erlaubt ist, andernfalls false
      */
     public boolean isDdAllowedBot(String table_name){
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(table_name)) {
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table t = active_tables.get(table_name);
+            if (t != null) {
                 return t.isDdAllowed();
             }
+            return false;
+        } finally {
+            lock.unlock();
         }
-        return false;
     }
 
     /**
@@ -623,12 +929,17 @@ public class Database {
      * @return true, wenn das Aufgeben erlaubt ist, andernfalls false
      */
     public boolean isSurrenderAllowedBot(String table_name){
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(table_name)) {
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table t = active_tables.get(table_name);
+            if (t != null) {
                 return t.isSurrenderAllowed();
             }
+            return false;
+        } finally {
+            lock.unlock();
         }
-        return false;
     }
 
     /**
@@ -637,12 +948,17 @@ public class Database {
      * @param table_name der Name des Tisches
      * @throws DeckEmptyException wenn der Deck leer ist
      */
-    public synchronized void hit(String table_name) throws DeckEmptyException {
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(table_name)) {
+    public void hit(String table_name) throws DeckEmptyException {
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table t = active_tables.get(table_name);
+            if (t != null) {
                 System.out.println("[Server] Der Aktive Spieler an Tisch " + table_name + " hat eine Karte gezogen");
                 t.hit();
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -652,12 +968,17 @@ public class Database {
      * @param table_name der Name des Tisches
      * @throws DeckEmptyException wenn der Deck leer ist
      */
-    public synchronized void stand(String table_name) throws DeckEmptyException {
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(table_name)) {
+    public void stand(String table_name) throws DeckEmptyException {
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table t = active_tables.get(table_name);
+            if (t != null) {
                 System.out.println("[Server] Der Aktive Spieler an Tisch " + table_name + " zieht keine Karte");
                 t.stand();
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -667,12 +988,17 @@ public class Database {
      * @param table_name der Name des Tisches
      * @throws DeckEmptyException wenn der Deck leer ist
      */
-    public synchronized void doubledown(String table_name) throws DeckEmptyException {
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(table_name)) {
+    public void doubledown(String table_name) throws DeckEmptyException {
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table t = active_tables.get(table_name);
+            if (t != null) {
                 System.out.println("[Server] Der Aktive Spieler an Tisch " + table_name + " macht DD");
                 t.doubleDown();
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -682,12 +1008,17 @@ public class Database {
      * @param table_name der Name des Tisches
      * @throws DeckEmptyException wenn der Deck leer ist
      */
-    public synchronized void split(String table_name) throws DeckEmptyException {
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(table_name)) {
+    public void split(String table_name) throws DeckEmptyException {
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table t = active_tables.get(table_name);
+            if (t != null) {
                 System.out.println("[Server] Der Aktive Spieler an Tisch " + table_name + " splittet seine Karten");
                 t.split();
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -697,12 +1028,17 @@ public class Database {
      * @param table_name der Name des Tisches
      * @throws DeckEmptyException wenn der Deck leer ist
      */
-    public synchronized void surrender(String table_name) throws DeckEmptyException {
-        for (Table t : active_tables) {
-            if (t.getTableName().equals(table_name)) {
+    public void surrender(String table_name) throws DeckEmptyException {
+        ReentrantLock lock = gameLock(table_name);
+        lock.lock();
+        try {
+            Table t = active_tables.get(table_name);
+            if (t != null) {
                 System.out.println("[Server] Der Aktive Spieler an Tisch " + table_name + " gibt auf");
                 t.surrender();
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -712,11 +1048,67 @@ public class Database {
     /**
      * Gibt das aktuelle Scoreboard zurück.
      *
-     * @return eine String-Repräsentation des Scoreboards, getrennt durch '@'
+     * @return eine String-Repräsentation des Scoreboards nach Punkten absteigend sortiert, getrennt durch '@'
      */
     public String getScoreboard() {
+        return scoreboard_listing.get().getText();
+    }
+
+    /**
+     * Gibt das vollständige Scoreboard als geteilte Antwort zurück, siehe getScoreboard().
+     *
+     * @return die geteilte Antwort, bis zur nächsten Änderung eines Punktestands dieselbe Instanz
+     */
+    public SharedReply getScoreboardReply() {
+        return scoreboard_listing.get();
+    }
+
+    /**
+     * Gibt einen Ausschnitt des Scoreboards zurück, z.B. die ersten 50 Plätze für die Lobby.
+     *
+     * @param offset Anzahl der zu überspringenden Plätze (0 = ab Platz 1)
+     * @param count maximale Anzahl der Plätze
+     * @return eine String-Repräsentation der Plätze offset + 1 bis offset + count, getrennt durch '@'
+     */
+    public String getScoreboard(int offset, int count) {
+        if (offset == 0 && count == LobbySnapshot.SCOREBOARD_SIZE) {
+            return top_scores_listing.get().getText();
+        }
+        return formatScores(scoreboard.getPage(offset, count));
+    }
+
+    /**
+     * Gibt die Plätze um einen Benutzer herum zurück.
+     *
+     * @param user_name der Benutzername
+     * @param distance Anzahl der Plätze vor und nach dem Benutzer
+     * @return Platz des ersten Eintrags, danach durch '@' getrennt die Einträge, z.B. "41@Paul:700@Athie:650@";
+     *         "0@" wenn der Benutzer nicht im Scoreboard ist
+     */
+    public String getScoreboardAround(String user_name, int distance) {
+        List<Score> scores = scoreboard.getAround(user_name, distance);
+        int first_rank = scores.isEmpty() ? 0 : scoreboard.getRank(scores.get(0).getUser());
+        return first_rank + "@" + formatScores(scores);
+    }
+
+    /**
+     * Gibt den Platz eines Benutzers im Scoreboard zurück.
+     *
+     * @param user_name der Benutzername
+     * @return "platz:score", "0:0" wenn der Benutzer nicht im Scoreboard ist
+     */
+    public String getScoreboardRank(String user_name) {
+        Integer score = scoreboard.getScore(user_name);
+        return (score == null) ? "0:0" : scoreboard.getRank(user_name) + ":" + score;
+    }
+
+    private String formatTopScores() {
+        return formatScores(scoreboard.getTop(LobbySnapshot.SCOREBOARD_SIZE));
+    }
+
+    private static String formatScores(List<Score> scores) {
         StringBuilder scoreboard_string = new StringBuilder();
-        for (Score s : scoreboard) {
+        for (Score s : scores) {
             scoreboard_string.append(s.getUser()).append(":").append(s.getScore()).append("@");
         }
         return scoreboard_string.toString();
@@ -729,168 +1121,344 @@ public class Database {
      * @return der Score des Benutzers
      */
     public int getGlobalScore(String user_name) {
-        loadScoreboardFromFile();
-
-        for (Score s : scoreboard) {
-            if (s.getUser().equals(user_name)) {
-                return s.getScore();
-            }
-        }
-        return 0;
+        Integer score = scoreboard.getScore(user_name);
+        return (score == null) ? 0 : score;
     }
 
     /**
-     * Setzt den globalen Score eines Benutzers.
+     * Setzt den globalen Score eines Benutzers. Die Änderung wird an das Score-Journal angehängt; die Methode
+     * wartet nicht darauf, dass sie auf der Platte ist, da sie auch beim Ausliefern des Rundenergebnisses
+     * (im NIO-Modus auf dem Selector-Thread) aufgerufen wird.
      *
      * @param user_name der Benutzername des Benutzers
      * @param new_score der neue Score des Benutzers
      */
-    public synchronized void setGlobalScore(String user_name, int new_score) {
-        loadScoreboardFromFile();
-
-        for (Score s : scoreboard) {
-            if (s.getUser().equals(user_name)) {
-                s.setScore(new_score);
+    public void setGlobalScore(String user_name, int new_score) {
+        CompletableFuture<Void> committed = null;
+        scoreboard_lock.lock();
+        try {
+            if (scoreboard.getScore(user_name) != null) {
+                scoreboard.update(user_name, new_score);
+                committed = score_journal.set(user_name, new_score);
+                scoresChanged();
             }
+        } finally {
+            scoreboard_lock.unlock();
         }
+        reportScoreCommit(committed);
+    }
 
-        saveScoreboardToFile();
+    /**
+     * Meldet, falls eine Änderung am Scoreboard nicht im Journal gespeichert werden konnte. Es wird nicht
+     * gewartet: der Stand im Speicher ist maßgeblich, das Journal schreibt ihn im Hintergrund.
+     *
+     * @param committed Future aus dem ScoreJournal oder null, wenn nichts geändert wurde
+     */
+    private void reportScoreCommit(CompletableFuture<Void> committed) {
+        if (committed == null) {
+            return;
+        }
+        committed.whenComplete((ignored, e) -> {
+            if (e != null) {
+                System.out.println("[Server] Punktestand konnte nicht gespeichert werden: " + e);
+            }
+        });
     }
 
     // --------------------------------- Chat Methoden ---------------------------------
 
     /**
-     * Speichert eine Chat-Nachricht.
+     * Gibt den Namen des Chat-Kanals eines Raums zurück.
+     *
+     * @param room_name der Name des Raums
+     * @return der Kanalname
+     */
+    public static String roomChannel(String room_name) {
+        return "room:" + room_name;
+    }
+
+    /**
+     * Gibt den Namen des Chat-Kanals eines Tisches zurück.
+     *
+     * @param table_name der Name des Tisches
+     * @return der Kanalname
+     */
+    public static String tableChannel(String table_name) {
+        return "table:" + table_name;
+    }
+
+    /**
+     * Gibt den ChatLog eines Kanals zurück. Raum- und Tisch-Kanäle werden beim ersten Zugriff angelegt,
+     * aber nur, solange es den Raum bzw. Tisch gibt.
+     *
+     * @param channel LOBBY_CHANNEL, roomChannel(...) oder tableChannel(...)
+     * @return der ChatLog oder null, wenn es den Kanal nicht gibt
+     */
+    private ChatLog chatChannel(String channel) {
+        if (channel.equals(LOBBY_CHANNEL)) {
+            return chat;
+        }
+        ChatLog log = chat_channels.get(channel);
+        if (log != null) {
+            return log;
+        }
+
+        boolean exists = (channel.startsWith("room:") && active_rooms.containsKey(channel.substring(5)))
+                || (channel.startsWith("table:") && active_tables.containsKey(channel.substring(6)));
+        return exists ? chat_channels.computeIfAbsent(channel, c -> new ChatLog(ChatLog.CHANNEL_CAPACITY)) : null;
+    }
+
+    /**
+     * Speichert eine Chat-Nachricht im Lobby-Kanal.
      *
      * @param user der Benutzername des Benutzers, der die Nachricht sendet
      * @param message der Inhalt der Nachricht
      * @throws IllegalArgumentException wenn der Benutzername oder die Nachricht null oder leer ist
      */
-    public synchronized void saveChatMessage(String user, String message) {
+    public void saveChatMessage(String user, String message) {
+        saveChatMessage(LOBBY_CHANNEL, user, message);
+    }
+
+    /**
+     * Speichert eine Chat-Nachricht in einem Kanal. Nur Clients dieses Kanals laden die Nachricht herunter.
+     *
+     * @param channel LOBBY_CHANNEL, roomChannel(...) oder tableChannel(...)
+     * @param user der Benutzername des Benutzers, der die Nachricht sendet
+     * @param message der Inhalt der Nachricht
+     * @throws IllegalArgumentException wenn der Benutzername oder die Nachricht null oder leer ist
+     */
+    public void saveChatMessage(String channel, String user, String message) {
         if (user == null || user.isEmpty() || message == null || message.isEmpty()) {
             throw new IllegalArgumentException("Benutzername und Nachricht dürfen nicht null oder leer sein.");
         }
-        chat.add(user + ": " + message);
+        ChatLog log = chatChannel(channel);
+        if (log == null) {
+            System.out.println("[Server] Chat-Kanal " + channel + " existiert nicht");
+            return;
+        }
+        log.append(user + ": " + message);
+        if (log == chat) {
+            lobbyChanged();
+        }
     }
 
     /**
-     * Gibt alle aktuellen Chat-Nachrichten zurück.
+     * Gibt die Chat-Nachrichten eines Kanals nach einer Sequenznummer zurück, höchstens ChatLog.PAGE_SIZE Stück.
+     * Alle Clients des Kanals mit derselben Sequenznummer erhalten dieselbe Antwort.
      *
-     * @return eine ArrayList der Chat-Nachrichten
+     * @param channel LOBBY_CHANNEL, roomChannel(...) oder tableChannel(...)
+     * @param sequence die Sequenznummer der letzten Nachricht, die der Client kennt (0 = keine)
+     * @return "sequenznummer\nnachricht@nachricht@...", die Sequenznummer ist die der neuesten Nachricht
      */
-    public ArrayList<String> getChatMessages() {
-        return chat;
+    public SharedReply getChatMessagesSince(String channel, long sequence) {
+        ChatLog log = chatChannel(channel);
+        return (log == null) ? EMPTY_CHAT : log.getReplySince(sequence);
     }
 
-    // --------------------------------- Laden und Speichern der Datenbank ---------------------------------
-
     /**
-     * Lädt Benutzer aus login.txt in die Benutzerliste.
+     * Gibt ältere Chat-Nachrichten eines Kanals vor einer Sequenznummer zurück, höchstens ChatLog.PAGE_SIZE Stück.
      *
-     * @throws IOException wenn ein I/O-Fehler beim Lesen der Datei auftritt
+     * @param channel LOBBY_CHANNEL, roomChannel(...) oder tableChannel(...)
+     * @param sequence die Sequenznummer der ältesten Nachricht, die der Client kennt
+     * @return "sequenznummer\nnachricht@nachricht@...", die Sequenznummer ist die der ersten Nachricht
+     *         (0 wenn es keine älteren Nachrichten mehr gibt)
      */
-    private synchronized void loadUsersFromFile() {
-        String tempLoginFilePath = jarDir + "/temp_login.txt";
-
-        File tempLoginFile = new File(tempLoginFilePath);
-
-        try (BufferedReader br = new BufferedReader(new FileReader(tempLoginFile))) {
-            loadUsers(br);
-        } catch (Exception e) {
-            e.printStackTrace();
+    public String getChatHistory(String channel, long sequence) {
+        ChatLog log = chatChannel(channel);
+        if (log == null) {
+            return EMPTY_CHAT.getText();
         }
+        StringBuilder messages = new StringBuilder();
+        long first = log.appendBefore(sequence, ChatLog.PAGE_SIZE, messages);
+        return first + "\n" + messages;
     }
 
-    private void loadUsers(BufferedReader br) throws IOException {
-        String line;
-        while ((line = br.readLine()) != null) {
-            String[] parts = line.split(":");
-            String username = parts[0];
-            String password = parts[1];
+    // --------------------------------- Lobby Methoden ---------------------------------
 
-            boolean dup = false;
-            for (User u : users) {
-                if (u.getUsername().equals(username)) {
-                    dup = true;
-                    break;
-                }
-            }
-            if (!dup) {
-                User temp_user = new User(username, password);
-                users.add(temp_user);
+    /**
+     * Gibt Scoreboard, aktive Benutzer, aktive Räume und die neuen Chat-Nachrichten gemeinsam zurück.
+     * Der Snapshot wird nur einmal pro Änderungsepoche erstellt; alle Clients mit demselben Chat-Stand
+     * erhalten bis zur nächsten Änderung dieselbe Instanz.
+     *
+     * @param known_sequence Sequenznummer der letzten Chat-Nachricht, die der Client bereits kennt
+     * @return der LobbySnapshot
+     */
+    public LobbySnapshot getLobbySnapshot(long known_sequence) {
+        long epoch = lobby_epoch.get();
+        synchronized (lobby_snapshots) {
+            if (lobby_snapshots_epoch < epoch) {
+                lobby_snapshots.clear();
+                lobby_snapshots_epoch = epoch;
             }
         }
+
+        long known = Math.max(0, Math.min(known_sequence, chat.getLatestSequence()));
+        return lobby_snapshots.computeIfAbsent(known, k -> createLobbySnapshot(epoch, k));
+    }
+
+    /**
+     * Erstellt einen LobbySnapshot. Jeder Abschnitt wird unter seiner eigenen Sperre gelesen; eine Änderung
+     * währenddessen erhöht die Epoche, sodass der nächste Aufruf ohnehin einen neuen Snapshot erstellt.
+     *
+     * @param epoch die Änderungsepoche, die vor dem Erstellen gelesen wurde
+     * @param known_sequence Sequenznummer der letzten Chat-Nachricht, die der Client bereits kennt
+     * @return der neue LobbySnapshot
+     */
+    private LobbySnapshot createLobbySnapshot(long epoch, long known_sequence) {
+        StringBuilder new_messages = new StringBuilder();
+        long chat_sequence = chat.appendSince(known_sequence, ChatLog.PAGE_SIZE, new_messages);
+        return new LobbySnapshot(epoch, LobbySnapshot.format(chat_sequence, getScoreboard(0, LobbySnapshot.SCOREBOARD_SIZE), getActiveUsers(),
+                getActiveRooms(), new_messages.toString()));
+    }
+
+    /**
+     * Gibt die aktuelle Änderungsepoche der Lobby-Daten zurück.
+     *
+     * @return die Epoche
+     */
+    public long getLobbyEpoch() {
+        return lobby_epoch.get();
+    }
+
+    /**
+     * Markiert die Lobby-Daten als geändert, der nächste "reloadlobby" erstellt einen neuen Snapshot.
+     */
+    private void lobbyChanged() {
+        lobby_epoch.incrementAndGet();
+    }
+
+    /**
+     * Markiert die Liste der aktiven Benutzer und die Lobby-Daten als geändert.
+     */
+    private void activeUsersChanged() {
+        active_users_listing.invalidate();
+        lobbyChanged();
+    }
+
+    /**
+     * Markiert die Liste der aktiven Räume und die Lobby-Daten als geändert.
+     */
+    private void activeRoomsChanged() {
+        active_rooms_listing.invalidate();
+        lobbyChanged();
+    }
+
+    /**
+     * Markiert das Scoreboard und die Lobby-Daten als geändert.
+     */
+    private void scoresChanged() {
+        scoreboard_listing.invalidate();
+        top_scores_listing.invalidate();
+        lobbyChanged();
+    }
+
+    /**
+     * Gibt alle noch gespeicherten Chat-Nachrichten zurück (höchstens ChatLog.CAPACITY).
+     *
+     * @return eine Kopie der Chat-Nachrichten
+     */
+    public ArrayList<String> getChatMessages() {
+        return new ArrayList<>(chat.getAll());
     }
 
+    // --------------------------------- Laden und Speichern der Datenbank ---------------------------------
+
     /**
-     * Lädt das Scoreboard aus scoreboard.txt in die Scoreboard-Liste.
+     * Lädt Benutzer aus login.txt in die Benutzerliste.
      *
      * @throws IOException wenn ein I/O-Fehler beim Lesen der Datei auftritt
      */
-    private synchronized void loadScoreboardFromFile() {
-        String tempScoreboardFilePath = jarDir + "/temp_scoreboard.txt";
+    private void loadUsersFromFile() {
+        users_lock.lock();
+        try {
+            String tempLoginFilePath = jarDir + "/temp_login.txt";
 
-        File tempScoreboardFile = new File(tempScoreboardFilePath);
+            File tempLoginFile = new File(tempLoginFilePath);
 
-        try (BufferedReader br = new BufferedReader(new FileReader(tempScoreboardFile))) {
-            loadScores(br);
-        } catch (Exception e) {
-            e.printStackTrace();
+            try (BufferedReader br = new BufferedReader(new FileReader(tempLoginFile))) {
+                loadUsers(br);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        } finally {
+            users_lock.unlock();
         }
     }
 
-    private void loadScores(BufferedReader br) throws IOException {
-        ArrayList<Score> tmp_scoreboard = new ArrayList<>();
+    private void loadUsers(BufferedReader br) throws IOException {
         String line;
         while ((line = br.readLine()) != null) {
             String[] parts = line.split(":");
             String username = parts[0];
-            String score = parts[1];
+            String password = parts[1];
 
-            Score tmp_score = new Score(username, Integer.parseInt(score));
-            tmp_scoreboard.add(tmp_score);
+            users.putIfAbsent(username, new User(username, password));
         }
+    }
 
-        // Sortiere Scoreboard
-        tmp_scoreboard.sort((s1, s2) -> Integer.compare(s2.getScore(), s1.getScore()));
-
-        if (!tmp_scoreboard.equals(scoreboard)) {
-            scoreboard = tmp_scoreboard;
+    /**
+     * Übernimmt die Punktestände aus dem ScoreJournal (Snapshot plus Journal) in das Scoreboard.
+     */
+    private void loadScoreboard() {
+        scoreboard_lock.lock();
+        try {
+            for (Map.Entry<String, Integer> score : score_journal.getScores().entrySet()) {
+                scoreboard.update(score.getKey(), score.getValue());
+            }
+            scoresChanged();
+        } finally {
+            scoreboard_lock.unlock();
         }
     }
 
     /**
-     * Speichert die Benutzer (Logindaten) in der login.txt.
-     *
-     * @throws IOException wenn ein I/O-Fehler beim Schreiben in die Datei auftritt
+     * Beauftragt den Hintergrund-Thread, die Benutzer in login.txt zu schreiben. Wartet bereits ein Auftrag,
+     * dann schreibt dieser auch die neue Änderung mit.
      */
-    private synchronized void saveUsersToFile() {
-        try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(jarDir + "/temp_login.txt"))) {
-            for (User user : users) {
-                String line = user.getUsername() + ":" + user.getPassword();
-                bufferedWriter.write(line);
-                bufferedWriter.newLine();
-            }
-        } catch (IOException ex) {
-            throw new RuntimeException(ex);
+    private void scheduleUsersSave() {
+        if (users_save_pending.compareAndSet(false, true)) {
+            USER_WRITER.execute(() -> {
+                // Vor dem Schreiben zurücksetzen: spätere Änderungen erzeugen dann einen neuen Auftrag
+                users_save_pending.set(false);
+                saveUsersToFile();
+            });
         }
     }
 
+    /**
+     * Wartet, bis alle bisher beauftragten Schreibvorgänge für login.txt abgeschlossen sind.
+     */
+    public static void awaitUserWrites() {
+        try {
+            USER_WRITER.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            e.printStackTrace();
+        }
+    }
 
     /**
-     * Speichert das Scoreboard in der scoreboard.txt.
-     *
-     * @throws IOException wenn ein I/O-Fehler beim Schreiben in die Datei auftritt
+     * Speichert die Benutzer (Logindaten) in der login.txt. Läuft im Hintergrund-Thread und schreibt zuerst
+     * in eine temporäre Datei, damit login.txt nie nur halb geschrieben ist.
      */
-    private synchronized void saveScoreboardToFile() {
-        try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(jarDir + "/temp_scoreboard.txt"))) {
-            for (Score score : scoreboard) {
-                String line = score.getUser() + ":" + score.getScore();
+    private void saveUsersToFile() {
+        File login_file = new File(jarDir, "temp_login.txt");
+        File tmp_file = new File(jarDir, "temp_login.txt.tmp");
+        try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(tmp_file))) {
+            for (User user : users.values()) {
+                String line = user.getUsername() + ":" + user.getPassword();
                 bufferedWriter.write(line);
                 bufferedWriter.newLine();
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return;
+        }
+        try {
+            Files.move(tmp_file.toPath(), login_file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            ex.printStackTrace();
         }
     }
 }
@@ -0,0 +1,446 @@
+package com.example.blackjack.utils.server;
+
+import com.example.blackjack.utils.game.TableEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Strukturierter Spielstand eines Spielers, wie ihn "reloadgamestate" liefert.
+ * Der Spielstand wird einmal erstellt und dann je nach Protokoll der Verbindung entweder als
+ * bisheriger Text (toText) oder kompakt binär (encode) gesendet.
+ *
+ * Textformat (unverändert):
+ * countdown:sekunden
+ * [result#balance]@active_player:ddable:splitable:surrenderable@hand_1_card_1:...&hand_2_card_1:...&@
+ * visibility_card_2&dealer_card_1:dealer_card_2:...@player_1&stake_1:player_2&stake_2:...[#result]
+ */
+public class GameStateSnapshot {
+    /**
+     * Phase des Spiels aus Sicht des Spielers.
+     */
+    public enum Phase {
+        NONE, // Tisch existiert nicht oder das Ergebnis wurde bereits abgeholt
+        COUNTDOWN, // Einsätze können gesetzt werden
+        RUNNING, // Runde läuft
+        RESULT // Runde beendet, letzter Spielstand mit Ergebnis
+    }
+
+    private static final int FLAG_DD = 1;
+    private static final int FLAG_SPLIT = 2;
+    private static final int FLAG_SURRENDER = 4;
+    private static final int FLAG_DEALER_VISIBLE = 8;
+    private static final int FLAG_BALANCE = 16;
+    private static final int FLAG_RESULT = 32;
+
+    private Phase phase = Phase.NONE;
+    private int countdown;
+    private Integer balance; // nur bei RESULT, Kontostand nach Spielende
+    private String result; // nur bei RESULT, Gewinn-Eintrag des Spielers
+    private String current_player;
+    private boolean dd_allowed;
+    private boolean split_allowed;
+    private boolean surrender_allowed;
+    private byte[][] hands = new byte[0][]; // Kartenbilder je Hand des Spielers
+    private boolean dealer_second_card_visible;
+    private byte[] dealer_cards = new byte[0];
+    private String[] stake_players = new String[0];
+    private int[] stakes = new int[0];
+
+    /**
+     * Erstellt einen Spielstand ohne Tisch (Phase NONE).
+     */
+    public GameStateSnapshot() {
+    }
+
+    /**
+     * Erstellt einen Spielstand für die Einsatzphase.
+     *
+     * @param countdown verbleibende Sekunden bis zum Spielstart
+     * @return der Spielstand
+     */
+    public static GameStateSnapshot countdown(int countdown) {
+        GameStateSnapshot snapshot = new GameStateSnapshot();
+        snapshot.phase = Phase.COUNTDOWN;
+        snapshot.countdown = countdown;
+        return snapshot;
+    }
+
+    /**
+     * Setzt die Informationen einer laufenden Runde.
+     *
+     * @param current_player der Spieler, der am Zug ist
+     * @param dd_allowed ist Verdoppeln erlaubt
+     * @param split_allowed ist Splitten erlaubt
+     * @param surrender_allowed ist Aufgeben erlaubt
+     */
+    public void setRound(String current_player, boolean dd_allowed, boolean split_allowed, boolean surrender_allowed) {
+        this.phase = Phase.RUNNING;
+        this.current_player = current_player;
+        this.dd_allowed = dd_allowed;
+        this.split_allowed = split_allowed;
+        this.surrender_allowed = surrender_allowed;
+    }
+
+    /**
+     * Markiert den Spielstand als Rundenende.
+     *
+     * @param balance Kontostand nach Spielende oder null
+     * @param result Gewinn-Eintrag des Spielers oder null
+     */
+    public void setResult(Integer balance, String result) {
+        this.phase = Phase.RESULT;
+        this.balance = balance;
+        this.result = result;
+    }
+
+    public void setHands(byte[][] hands) {
+        this.hands = hands;
+    }
+
+    public void setDealer(boolean second_card_visible, byte[] dealer_cards) {
+        this.dealer_second_card_visible = second_card_visible;
+        this.dealer_cards = dealer_cards;
+    }
+
+    public void setStakes(String[] stake_players, int[] stakes) {
+        this.stake_players = stake_players;
+        this.stakes = stakes;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public int getCountdown() {
+        return countdown;
+    }
+
+    public Integer getBalance() {
+        return balance;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getCurrentPlayer() {
+        return current_player;
+    }
+
+    public byte[][] getHands() {
+        return hands;
+    }
+
+    public byte[] getDealerCards() {
+        return dealer_cards;
+    }
+
+    public String[] getStakePlayers() {
+        return stake_players;
+    }
+
+    public int[] getStakes() {
+        return stakes;
+    }
+
+    /**
+     * Gibt den Spielstand im bisherigen Textformat zurück.
+     *
+     * @return der Spielstand als Text oder null in der Phase NONE
+     */
+    public String toText() {
+        switch (phase) {
+            case COUNTDOWN:
+                return "countdown:" + countdown;
+            case RUNNING:
+                return appendRound(new StringBuilder()).toString();
+            case RESULT:
+                StringBuilder state = new StringBuilder("result#");
+                if (balance != null) {
+                    state.append(balance);
+                }
+                appendRound(state);
+                if (result != null) {
+                    state.append('#').append(result);
+                }
+                return state.toString();
+            default:
+                return null;
+        }
+    }
+
+    private StringBuilder appendRound(StringBuilder state) {
+        state.append('@');
+        state.append(current_player).append(':').append(dd_allowed).append(':').append(split_allowed)
+                .append(':').append(surrender_allowed).append('@');
+
+        for (byte[] hand : hands) {
+            for (byte card : hand) {
+                state.append(card).append(':');
+            }
+            state.append('&');
+        }
+
+        state.append('@').append(dealer_second_card_visible).append('&');
+        for (byte card : dealer_cards) {
+            state.append(card).append(':');
+        }
+
+        state.append('@');
+        for (int i = 0; i < stake_players.length; i++) {
+            state.append(stake_players[i]).append('&').append(stakes[i]).append(':');
+        }
+        return state;
+    }
+
+    /**
+     * Liest einen Spielstand der laufenden Runde aus dem Textformat (beginnend mit "@").
+     *
+     * @param text der Spielstand im Textformat
+     * @return der Spielstand
+     * @throws IllegalArgumentException wenn der Text kein Spielstand einer laufenden Runde ist
+     */
+    public static GameStateSnapshot fromText(String text) {
+        String[] states = text.split("@", -1);
+        if (!text.startsWith("@") || states.length != 5) {
+            throw new IllegalArgumentException("Kein Spielstand einer laufenden Runde: " + text);
+        }
+
+        GameStateSnapshot snapshot = new GameStateSnapshot();
+        snapshot.readRound(states[1]);
+
+        String[] hands = states[2].split("&", -1); // jede Hand endet mit "&", das letzte Element ist leer
+        snapshot.hands = new byte[hands.length - 1][];
+        for (int i = 0; i < snapshot.hands.length; i++) {
+            snapshot.hands[i] = parseCards(hands[i]);
+        }
+
+        String[] dealer = states[3].split("&", -1);
+        snapshot.dealer_second_card_visible = Boolean.parseBoolean(dealer[0]);
+        snapshot.dealer_cards = parseCards(dealer[1]);
+
+        String[] stakes = states[4].isEmpty() ? new String[0] : states[4].split(":");
+        snapshot.stake_players = new String[stakes.length];
+        snapshot.stakes = new int[stakes.length];
+        for (int i = 0; i < stakes.length; i++) {
+            String[] stake_info = stakes[i].split("&");
+            snapshot.stake_players[i] = stake_info[0];
+            snapshot.stakes[i] = Integer.parseInt(stake_info[1]);
+        }
+        return snapshot;
+    }
+
+    private void readRound(String round) {
+        String[] info = round.split(":");
+        this.phase = Phase.RUNNING;
+        this.current_player = info[0];
+        this.dd_allowed = Boolean.parseBoolean(info[1]);
+        this.split_allowed = Boolean.parseBoolean(info[2]);
+        this.surrender_allowed = Boolean.parseBoolean(info[3]);
+    }
+
+    private static byte[] parseCards(String cards) {
+        String[] idents = cards.isEmpty() ? new String[0] : cards.split(":");
+        byte[] result = new byte[idents.length];
+        for (int i = 0; i < idents.length; i++) {
+            result[i] = Byte.parseByte(idents[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Kodiert die Änderungen seit einer Version für einen Spieler ("gamestatedelta").
+     * Format: active_player:ddable:splitable:surrenderable@ereignis_1:ereignis_2:...
+     * mit den Ereignissen "c&hand&karte" (eigene Karte) und "s&spieler&einsatzsumme".
+     * Karten anderer Spieler sind nicht Teil des Spielstands und werden ausgelassen.
+     *
+     * @param current_player der Spieler, der am Zug ist
+     * @param dd_allowed ist Verdoppeln erlaubt
+     * @param split_allowed ist Splitten erlaubt
+     * @param surrender_allowed ist Aufgeben erlaubt
+     * @param events die Ereignisse seit der Version des Clients
+     * @param user_name der Spieler, aus dessen Sicht kodiert wird
+     * @return die Änderungen als Text
+     */
+    public static String encodeDelta(String current_player, boolean dd_allowed, boolean split_allowed, boolean surrender_allowed,
+                                     List<TableEvent> events, String user_name) {
+        StringBuilder delta = new StringBuilder();
+        delta.append(current_player).append(':').append(dd_allowed).append(':').append(split_allowed)
+                .append(':').append(surrender_allowed).append('@');
+
+        for (TableEvent event : events) {
+            if (event.getType() == TableEvent.Type.CARD && event.getPlayer().equals(user_name)) {
+                delta.append("c&").append(event.getHand()).append('&').append(event.getValue()).append(':');
+            } else if (event.getType() == TableEvent.Type.STAKE) {
+                delta.append("s&").append(event.getPlayer()).append('&').append(event.getValue()).append(':');
+            }
+        }
+        return delta.toString();
+    }
+
+    /**
+     * Schreibt Änderungen aus "gamestatedelta" in diesen Spielstand fort.
+     *
+     * @param delta die Änderungen (Teil nach "delta:version:")
+     */
+    public void applyDelta(String delta) {
+        int separator = delta.indexOf('@');
+        readRound(delta.substring(0, separator));
+
+        String events = delta.substring(separator + 1);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        for (String event : events.split(":")) {
+            String[] data = event.split("&");
+            if (data[0].equals("c")) {
+                int hand = Integer.parseInt(data[1]);
+                if (hand >= hands.length) {
+                    hands = Arrays.copyOf(hands, hand + 1);
+                    for (int i = 0; i < hands.length; i++) {
+                        if (hands[i] == null) {
+                            hands[i] = new byte[0];
+                        }
+                    }
+                }
+                hands[hand] = Arrays.copyOf(hands[hand], hands[hand].length + 1);
+                hands[hand][hands[hand].length - 1] = Byte.parseByte(data[2]);
+            } else if (data[0].equals("s")) {
+                for (int i = 0; i < stake_players.length; i++) {
+                    if (stake_players[i].equals(data[1])) {
+                        stakes[i] = Integer.parseInt(data[2]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Schreibt den Spielstand als OP_GAME_STATE-Frame des Binärprotokolls.
+     *
+     * @param out der Stream der Verbindung
+     * @throws IOException wenn ein I/O-Fehler beim Schreiben auftritt
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.write(encode());
+        out.flush();
+    }
+
+    /**
+     * Kodiert den Spielstand als OP_GAME_STATE-Frame des Binärprotokolls.
+     *
+     * @return der Frame inklusive Längenpräfix
+     */
+    public byte[] encode() {
+        return encode(BinaryProtocol.OP_GAME_STATE);
+    }
+
+    /**
+     * Kodiert den Spielstand als Frame des Binärprotokolls.
+     *
+     * @param opcode OP_GAME_STATE für eine Antwort oder OP_PUSH_GAME_STATE für eine Push-Nachricht
+     * @return der Frame inklusive Längenpräfix
+     */
+    public byte[] encode(int opcode) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        payload.write(opcode);
+        payload.write(phase.ordinal());
+
+        if (phase == Phase.COUNTDOWN) {
+            BinaryProtocol.writeVarint(payload, countdown);
+        } else if (phase != Phase.NONE) {
+            int flags = (dd_allowed ? FLAG_DD : 0) | (split_allowed ? FLAG_SPLIT : 0) | (surrender_allowed ? FLAG_SURRENDER : 0)
+                    | (dealer_second_card_visible ? FLAG_DEALER_VISIBLE : 0)
+                    | (balance != null ? FLAG_BALANCE : 0) | (result != null ? FLAG_RESULT : 0);
+            payload.write(flags);
+            if (balance != null) {
+                BinaryProtocol.writeSignedVarint(payload, balance);
+            }
+            if (result != null) {
+                BinaryProtocol.writeString(payload, result);
+            }
+            BinaryProtocol.writeString(payload, current_player);
+
+            BinaryProtocol.writeVarint(payload, hands.length);
+            for (byte[] hand : hands) {
+                BinaryProtocol.writeVarint(payload, hand.length);
+                payload.write(hand, 0, hand.length);
+            }
+            BinaryProtocol.writeVarint(payload, dealer_cards.length);
+            payload.write(dealer_cards, 0, dealer_cards.length);
+
+            BinaryProtocol.writeVarint(payload, stake_players.length);
+            for (int i = 0; i < stake_players.length; i++) {
+                BinaryProtocol.writeString(payload, stake_players[i]);
+                BinaryProtocol.writeVarint(payload, stakes[i]);
+            }
+        }
+        return BinaryProtocol.frame(payload);
+    }
+
+    /**
+     * Dekodiert einen OP_GAME_STATE- oder OP_PUSH_GAME_STATE-Frame.
+     *
+     * @param frame Opcode und Nutzdaten ohne Längenpräfix
+     * @return der Spielstand
+     * @throws IOException wenn der Frame kein gültiger Spielstand ist
+     */
+    public static GameStateSnapshot decode(byte[] frame) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        GameStateSnapshot snapshot = new GameStateSnapshot();
+        try {
+            int opcode = buffer.get() & 0xFF;
+            if (opcode != BinaryProtocol.OP_GAME_STATE && opcode != BinaryProtocol.OP_PUSH_GAME_STATE) {
+                throw new IOException("Kein Spielstand");
+            }
+            int phase = buffer.get();
+            if (phase < 0 || phase >= Phase.values().length) {
+                throw new IOException("Unbekannte Spielphase: " + phase);
+            }
+            snapshot.phase = Phase.values()[phase];
+
+            if (snapshot.phase == Phase.COUNTDOWN) {
+                snapshot.countdown = BinaryProtocol.readVarint(buffer);
+            } else if (snapshot.phase != Phase.NONE) {
+                int flags = buffer.get();
+                snapshot.dd_allowed = (flags & FLAG_DD) != 0;
+                snapshot.split_allowed = (flags & FLAG_SPLIT) != 0;
+                snapshot.surrender_allowed = (flags & FLAG_SURRENDER) != 0;
+                snapshot.dealer_second_card_visible = (flags & FLAG_DEALER_VISIBLE) != 0;
+                if ((flags & FLAG_BALANCE) != 0) {
+                    snapshot.balance = BinaryProtocol.readSignedVarint(buffer);
+                }
+                if ((flags & FLAG_RESULT) != 0) {
+                    snapshot.result = BinaryProtocol.readString(buffer);
+                }
+                snapshot.current_player = BinaryProtocol.readString(buffer);
+
+                snapshot.hands = new byte[BinaryProtocol.readLength(buffer)][];
+                for (int i = 0; i < snapshot.hands.length; i++) {
+                    snapshot.hands[i] = new byte[BinaryProtocol.readLength(buffer)];
+                    buffer.get(snapshot.hands[i]);
+                }
+                snapshot.dealer_cards = new byte[BinaryProtocol.readLength(buffer)];
+                buffer.get(snapshot.dealer_cards);
+
+                int players = BinaryProtocol.readLength(buffer);
+                snapshot.stake_players = new String[players];
+                snapshot.stakes = new int[players];
+                for (int i = 0; i < players; i++) {
+                    snapshot.stake_players[i] = BinaryProtocol.readString(buffer);
+                    snapshot.stakes[i] = BinaryProtocol.readVarint(buffer);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Fehlerhafter Spielstand");
+        }
+        return snapshot;
+    }
+}
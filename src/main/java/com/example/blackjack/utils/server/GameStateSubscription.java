@@ -0,0 +1,115 @@
+package com.example.blackjack.utils.server;
+
+import com.example.blackjack.utils.game.Table;
+import com.example.blackjack.utils.game.TableListener;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Abonnement eines Clients auf den Spielstand eines Tisches ("subscribe").
+ * Statt alle 400 ms "reloadgamestate" abzufragen, erhält der Client bei jeder Änderung des Tisches
+ * den neuen Spielstand als Push-Nachricht.
+ *
+ * Änderungen werden zusammengefasst: Solange ein Push noch aussteht, lösen weitere Änderungen keinen
+ * zusätzlichen Push aus, der ausstehende Push liefert dann den neuesten Stand. Gesendet wird auf einem
+ * virtuellen Thread, damit ein langsamer Client nie den Thread blockiert, der den Tisch verändert.
+ *
+ * Der Spielstand wird ohne Sperre erstellt; nur das Senden läuft unter einer ReentrantLock (kein synchronized,
+ * damit virtuelle Threads beim Schreiben nicht an ihren Carrier-Thread gebunden werden). Jeder Push erhält eine
+ * Nummer, ein Spielstand, der älter ist als der zuletzt gesendete, wird verworfen.
+ */
+class GameStateSubscription implements TableListener {
+    private static final ExecutorService PUSH_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ClientHandler handler;
+    private final Database database;
+    private final String table_name;
+    private final String user_name;
+    private final AtomicBoolean push_pending = new AtomicBoolean();
+    private final AtomicLong push_sequence = new AtomicLong(); // Nummer des zuletzt begonnenen Pushs
+    private final ReentrantLock send_lock = new ReentrantLock();
+    private long sent_sequence = 0; // Nummer des zuletzt gesendeten Pushs, nur unter send_lock
+    private volatile boolean active = true;
+
+    /**
+     * Konstruktor für ein Abonnement.
+     *
+     * @param handler der ClientHandler der abonnierenden Verbindung
+     * @param database die Datenbank des Servers
+     * @param table_name der abonnierte Tisch
+     * @param user_name der Spieler, aus dessen Sicht der Spielstand erstellt wird
+     */
+    GameStateSubscription(ClientHandler handler, Database database, String table_name, String user_name) {
+        this.handler = handler;
+        this.database = database;
+        this.table_name = table_name;
+        this.user_name = user_name;
+    }
+
+    String getTableName() {
+        return table_name;
+    }
+
+    @Override
+    public void tableChanged(Table table) {
+        schedulePush();
+    }
+
+    /**
+     * Plant einen Push ein, falls nicht bereits einer aussteht.
+     */
+    void schedulePush() {
+        if (push_pending.compareAndSet(false, true)) {
+            PUSH_EXECUTOR.execute(this::push);
+        }
+    }
+
+    /**
+     * Erstellt den aktuellen Spielstand und sendet ihn an den Client.
+     */
+    private void push() {
+        push_pending.set(false);
+        if (!active) {
+            return;
+        }
+
+        long sequence = push_sequence.incrementAndGet();
+        GameStateSnapshot state = database.getGameStateSnapshot(table_name, user_name);
+        if (state.getPhase() == GameStateSnapshot.Phase.NONE) {
+            return;
+        }
+
+        send_lock.lock();
+        try {
+            // Ein neuerer Spielstand wurde bereits gesendet. Das Ergebnis wird nur einmal erstellt und daher immer gesendet.
+            if (!active || (sequence < sent_sequence && state.getPhase() != GameStateSnapshot.Phase.RESULT)) {
+                return;
+            }
+            sent_sequence = Math.max(sent_sequence, sequence);
+            handler.push(state);
+        } catch (IOException e) {
+            // Verbindung wurde geschlossen, der ClientHandler räumt das Abonnement auf
+            active = false;
+        } finally {
+            send_lock.unlock();
+        }
+    }
+
+    /**
+     * Beendet das Abonnement. Nach der Rückkehr wird kein weiterer Push mehr gesendet.
+     */
+    void cancel() {
+        database.removeTableListener(table_name, this);
+        send_lock.lock();
+        try {
+            active = false;
+        } finally {
+            send_lock.unlock();
+        }
+    }
+}
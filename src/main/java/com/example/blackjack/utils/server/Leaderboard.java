@@ -0,0 +1,313 @@
+package com.example.blackjack.utils.server;
+
+import com.example.blackjack.utils.game.Score;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Rangliste der globalen Punktestände, sortiert nach Punkten absteigend und bei Gleichstand nach Benutzername.
+ *
+ * Intern ein Treap, in dem jeder Knoten die Größe seines Teilbaums kennt (Order-Statistic-Tree). Dadurch kosten
+ * Ändern, Entfernen und "Rang von Benutzer X" O(log n), eine Seite mit k Einträgen O(log n + k). Das Scoreboard
+ * muss so weder bei Änderungen noch beim Lesen sortiert oder vollständig serialisiert werden.
+ *
+ * Lesezugriffe laufen parallel unter einer Lesesperre, Änderungen unter der Schreibsperre.
+ */
+public class Leaderboard {
+    private final Map<String, Node> nodes = new HashMap<>(); // Benutzername -> Knoten
+    private final SplittableRandom random = new SplittableRandom(); // Prioritäten der Knoten, nur unter der Schreibsperre
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+
+    private static final class Node {
+        final String user;
+        final int score;
+        final int priority;
+        int size = 1; // Anzahl der Knoten im Teilbaum
+        Node left;
+        Node right;
+
+        Node(String user, int score, int priority) {
+            this.user = user;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Setzt den Punktestand eines Benutzers und fügt ihn bei Bedarf hinzu.
+     *
+     * @param user der Benutzername
+     * @param score der neue Punktestand
+     */
+    public void update(String user, int score) {
+        lock.writeLock().lock();
+        try {
+            Node old = nodes.get(user);
+            if (old != null) {
+                if (old.score == score) {
+                    return;
+                }
+                root = remove(root, old);
+            }
+            Node node = new Node(user, score, random.nextInt());
+            nodes.put(user, node);
+            root = insert(root, node);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Entfernt einen Benutzer.
+     *
+     * @param user der Benutzername
+     * @return true, wenn der Benutzer in der Rangliste war
+     */
+    public boolean remove(String user) {
+        lock.writeLock().lock();
+        try {
+            Node old = nodes.remove(user);
+            if (old == null) {
+                return false;
+            }
+            root = remove(root, old);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gibt den Punktestand eines Benutzers zurück.
+     *
+     * @param user der Benutzername
+     * @return der Punktestand oder null, wenn der Benutzer nicht in der Rangliste ist
+     */
+    public Integer getScore(String user) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(user);
+            return (node == null) ? null : node.score;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gibt den Rang eines Benutzers zurück.
+     *
+     * @param user der Benutzername
+     * @return der Rang (1 = meiste Punkte) oder 0, wenn der Benutzer nicht in der Rangliste ist
+     */
+    public int getRank(String user) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(user);
+            return (node == null) ? 0 : rank(node);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gibt einen Ausschnitt der Rangliste zurück.
+     *
+     * @param offset Anzahl der zu überspringenden Einträge (0 = ab Rang 1)
+     * @param count maximale Anzahl der Einträge
+     * @return die Einträge ab Rang offset + 1
+     */
+    public List<Score> getPage(int offset, int count) {
+        lock.readLock().lock();
+        try {
+            List<Score> page = new ArrayList<>();
+            int from = Math.max(0, offset);
+            int to = (int) Math.min(size(root), (long) from + Math.max(0, count));
+            collect(root, from, to, page);
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gibt die besten Einträge der Rangliste zurück.
+     *
+     * @param count maximale Anzahl der Einträge
+     * @return die Einträge ab Rang 1
+     */
+    public List<Score> getTop(int count) {
+        return getPage(0, count);
+    }
+
+    /**
+     * Gibt die Einträge um einen Benutzer herum zurück: bis zu distance Einträge davor, den Benutzer selbst
+     * und bis zu distance Einträge danach.
+     *
+     * @param user der Benutzername
+     * @param distance Anzahl der Einträge vor und nach dem Benutzer
+     * @return die Einträge, leer wenn der Benutzer nicht in der Rangliste ist
+     */
+    public List<Score> getAround(String user, int distance) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(user);
+            if (node == null) {
+                return new ArrayList<>();
+            }
+            int offset = Math.max(0, rank(node) - 1 - distance);
+            return getPage(offset, rank(node) - offset + distance);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der Benutzer in der Rangliste zurück.
+     *
+     * @return Anzahl der Benutzer
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --------------------------------- Treap ---------------------------------
+
+    /**
+     * Vergleicht zwei Knoten in Ranglisten-Reihenfolge.
+     *
+     * @return negativ, wenn a vor b steht
+     */
+    private static int compare(Node a, Node b) {
+        if (a.score != b.score) {
+            return Integer.compare(b.score, a.score);
+        }
+        return a.user.compareTo(b.user);
+    }
+
+    private static int size(Node node) {
+        return (node == null) ? 0 : node.size;
+    }
+
+    private static Node update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private static Node insert(Node tree, Node node) {
+        if (tree == null) {
+            return node;
+        }
+        if (node.priority > tree.priority) {
+            Node[] parts = split(tree, node);
+            node.left = parts[0];
+            node.right = parts[1];
+            return update(node);
+        }
+        if (compare(node, tree) < 0) {
+            tree.left = insert(tree.left, node);
+        } else {
+            tree.right = insert(tree.right, node);
+        }
+        return update(tree);
+    }
+
+    /**
+     * Teilt einen Teilbaum in die Knoten vor und nach dem angegebenen Knoten.
+     */
+    private static Node[] split(Node tree, Node node) {
+        if (tree == null) {
+            return new Node[] {null, null};
+        }
+        if (compare(tree, node) < 0) {
+            Node[] parts = split(tree.right, node);
+            tree.right = parts[0];
+            parts[0] = update(tree);
+            return parts;
+        }
+        Node[] parts = split(tree.left, node);
+        tree.left = parts[1];
+        parts[1] = update(tree);
+        return parts;
+    }
+
+    private static Node remove(Node tree, Node node) {
+        if (tree == null) {
+            return null;
+        }
+        if (tree == node) {
+            return merge(tree.left, tree.right);
+        }
+        if (compare(node, tree) < 0) {
+            tree.left = remove(tree.left, node);
+        } else {
+            tree.right = remove(tree.right, node);
+        }
+        return update(tree);
+    }
+
+    /**
+     * Verbindet zwei Teilbäume, bei denen alle Knoten von left vor allen Knoten von right stehen.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private int rank(Node node) {
+        int rank = 0;
+        Node current = root;
+        while (current != null) {
+            int cmp = compare(node, current);
+            if (cmp < 0) {
+                current = current.left;
+            } else {
+                rank += size(current.left) + 1;
+                if (cmp == 0) {
+                    return rank;
+                }
+                current = current.right;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Fügt die Knoten mit den Positionen from (inklusive) bis to (exklusive) des Teilbaums in Reihenfolge an.
+     */
+    private static void collect(Node tree, int from, int to, List<Score> page) {
+        if (tree == null || from >= to) {
+            return;
+        }
+        int left_size = size(tree.left);
+        if (from < left_size) {
+            collect(tree.left, from, Math.min(to, left_size), page);
+        }
+        if (from <= left_size && left_size < to) {
+            page.add(new Score(tree.user, tree.score));
+        }
+        if (to > left_size + 1) {
+            collect(tree.right, Math.max(0, from - left_size - 1), to - left_size - 1, page);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.blackjack.utils.server;
+
+/**
+ * Antwort auf "reloadlobby": Scoreboard, aktive Benutzer, aktive Räume und neue Chat-Nachrichten
+ * in einer Zeichenfolge. Die Database erstellt einen LobbySnapshot nur einmal pro Änderungsepoche,
+ * alle Lobby-Clients mit demselben Chat-Stand erhalten danach dieselbe Instanz und damit auch
+ * dieselben bereits kodierten Bytes (siehe SharedReply).
+ *
+ * Aufbau (Abschnitte durch Zeilenumbrüche getrennt):
+ * Chat-Sequenznummer | Scoreboard | aktive Benutzer | aktive Räume | neue Chat-Nachrichten
+ * Die einzelnen Abschnitte haben dasselbe Format wie die Antworten der bisherigen Einzelbefehle.
+ * Das Scoreboard enthält nur die ersten SCOREBOARD_SIZE Plätze, den eigenen Platz fragt der Client
+ * mit "reloadscoreboard:rank:benutzer" ab.
+ */
+public class LobbySnapshot extends SharedReply {
+    /**
+     * Trennzeichen zwischen den Abschnitten. Kommt in keinem der Abschnitte vor.
+     */
+    public static final String SECTION_SEPARATOR = "\n";
+
+    /**
+     * Anzahl der Plätze im Scoreboard-Abschnitt.
+     */
+    public static final int SCOREBOARD_SIZE = 50;
+
+    private final long epoch;
+
+    /**
+     * Konstruktor für einen LobbySnapshot.
+     *
+     * @param epoch die Änderungsepoche, zu der der Snapshot erstellt wurde
+     * @param text die vollständige Antwort
+     */
+    LobbySnapshot(long epoch, String text) {
+        super(text);
+        this.epoch = epoch;
+    }
+
+    /**
+     * Setzt die Antwort aus den einzelnen Abschnitten zusammen.
+     *
+     * @param chat_sequence Sequenznummer der neuesten Chat-Nachricht
+     * @param scoreboard die ersten Plätze des Scoreboards wie bei "reloadscoreboard:0:50"
+     * @param active_users die aktiven Benutzer wie bei "reloadactiveusers"
+     * @param active_rooms die aktiven Räume wie bei "reloadactiverooms"
+     * @param new_messages die neuen Chat-Nachrichten (höchstens ChatLog.PAGE_SIZE), jeweils mit "@" abgeschlossen
+     * @return die vollständige Antwort
+     */
+    static String format(long chat_sequence, String scoreboard, String active_users, String active_rooms, String new_messages) {
+        return chat_sequence + SECTION_SEPARATOR + scoreboard + SECTION_SEPARATOR + active_users
+                + SECTION_SEPARATOR + active_rooms + SECTION_SEPARATOR + new_messages;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+}
@@ -0,0 +1,511 @@
+package com.example.blackjack.utils.server;
+
+import com.example.blackjack.utils.game.exceptions.DeckEmptyException;
+import com.example.blackjack.utils.game.exceptions.InvalidMoveException;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Nicht-blockierende Variante des Servers. Statt eines Threads pro Client arbeiten hier ein
+ * Accept-Thread und eine kleine, feste Anzahl an I/O-Threads, die jeweils mit einem eigenen
+ * Selector viele SocketChannels bedienen. Die Anzahl der Verbindungen ist damit nur noch durch
+ * die Dateideskriptoren und nicht mehr durch Thread-Stacks begrenzt.
+ *
+ * Das Protokoll bleibt unverändert: Jede Anfrage ist ein writeUTF-Frame (2 Byte Länge + modifiziertes UTF-8),
+ * vollständige Frames werden an einen ClientHandler übergeben, der dieselben Database-Operationen ausführt.
+ * Wie beim Server begrenzt eine AdmissionControl gleichzeitige Sitzungen und Accept-Rate,
+ * ein SessionReaper schließt inaktive Sitzungen.
+ */
+public class NioServer implements Runnable {
+    private static final int INITIAL_READ_BUFFER = 512; // Startgröße des Lesepuffers pro Verbindung
+    private static final int MAX_FRAME_SIZE = 2 + 65535; // Größter möglicher writeUTF-Frame
+
+    private final Database database = new Database();
+    private final ServerSocketChannel serverChannel;
+    private final Selector acceptSelector;
+    private final IoWorker[] workers;
+    private final AdmissionControl admission;
+    private final SessionReaper reaper;
+    private int nextWorker = 0;
+
+    /**
+     * Konstruktor für den NioServer. Öffnet den ServerSocketChannel auf dem angegebenen Port
+     * und startet die I/O-Threads.
+     *
+     * @param port der Port, auf dem der Server lauscht (0 für einen freien Port).
+     * @param io_threads die Anzahl der I/O-Threads, auf die die Verbindungen verteilt werden.
+     * @throws IOException wenn ein I/O-Fehler beim Öffnen des Channels auftritt.
+     */
+    public NioServer(int port, int io_threads) throws IOException {
+        this(port, withIoThreads(io_threads));
+    }
+
+    /**
+     * Konstruktor für den NioServer mit vollständiger Konfiguration.
+     *
+     * @param port der Port, auf dem der Server lauscht (0 für einen freien Port).
+     * @param config Anzahl der I/O-Threads und Limits der Zugangskontrolle.
+     * @throws IOException wenn ein I/O-Fehler beim Öffnen des Channels auftritt.
+     */
+    public NioServer(int port, ServerConfig config) throws IOException {
+        int io_threads = config.getIoThreads();
+        if (io_threads < 1) {
+            throw new IllegalArgumentException("Es wird mindestens ein I/O-Thread benötigt.");
+        }
+        this.admission = new AdmissionControl(config.getMaxSessions(), config.getMaxAcceptsPerSecond());
+        this.reaper = new SessionReaper(config.getIdleTimeoutSeconds() * 1000L);
+
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(port));
+        this.serverChannel.configureBlocking(false);
+        this.acceptSelector = Selector.open();
+        this.serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+
+        this.workers = new IoWorker[io_threads];
+        for (int i = 0; i < io_threads; i++) {
+            workers[i] = new IoWorker();
+            Thread thread = new Thread(workers[i], "nio-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private static ServerConfig withIoThreads(int io_threads) {
+        ServerConfig config = new ServerConfig();
+        config.setIoThreads(io_threads);
+        return config;
+    }
+
+    /**
+     * Gibt den Port zurück, auf dem der Server tatsächlich lauscht.
+     *
+     * @return der lokale Port
+     * @throws IOException wenn die Adresse nicht ermittelt werden kann
+     */
+    public int getLocalPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Gibt die Anzahl der aktuell verbundenen Clients zurück.
+     *
+     * @return Anzahl aktiver Sitzungen
+     */
+    public int getActiveSessions() {
+        return admission.getActiveSessions();
+    }
+
+    /**
+     * Gibt die Anzahl der seit dem Start abgelehnten Verbindungen zurück.
+     *
+     * @return Anzahl abgelehnter Verbindungen
+     */
+    public long getRejectedConnections() {
+        return admission.getRejectedConnections();
+    }
+
+    /**
+     * Gibt die Anzahl der seit dem Start angenommenen Verbindungen zurück.
+     *
+     * @return Anzahl angenommener Verbindungen
+     */
+    public long getAcceptedConnections() {
+        return admission.getAcceptedConnections();
+    }
+
+    /**
+     * Gibt die Anzahl der Sitzungen zurück, die seit dem Start wegen Inaktivität geschlossen wurden.
+     *
+     * @return Anzahl aufgeräumter Sitzungen
+     */
+    public long getReclaimedSessions() {
+        return reaper.getReclaimedSessions();
+    }
+
+    /**
+     * Gibt den SessionReaper des Servers zurück.
+     *
+     * @return der SessionReaper
+     */
+    public SessionReaper getSessionReaper() {
+        return reaper;
+    }
+
+    /**
+     * Accept-Schleife: Neue Verbindungen werden nicht-blockierend angenommen und reihum
+     * an die I/O-Threads verteilt. Überzählige Verbindungen erhalten sofort "busy".
+     */
+    @Override
+    public void run() {
+        System.out.println("[Server] NIO-Server Start (" + workers.length + " I/O-Threads)");
+        reaper.start();
+        try {
+            while (acceptSelector.isOpen()) {
+                acceptSelector.select();
+
+                Iterator<SelectionKey> keys = acceptSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (key.isValid() && key.isAcceptable()) {
+                        SocketChannel channel = serverChannel.accept();
+                        if (channel != null && !admission.tryAdmit()) {
+                            rejectBusy(channel);
+                        } else if (channel != null) {
+                            System.out.println("[Server] Verbunden mit " + channel.getRemoteAddress());
+                            channel.configureBlocking(false);
+                            workers[nextWorker].register(channel);
+                            nextWorker = (nextWorker + 1) % workers.length;
+                        }
+                    }
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // Server wurde über close() beendet
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Lehnt eine Verbindung ab: Der Client erhält sofort "busy", anschließend wird der Channel geschlossen.
+     * Der frisch angenommene Channel ist noch blockierend, die wenigen Bytes passen aber immer in den Socket-Puffer.
+     *
+     * @param channel die abzulehnende Verbindung
+     */
+    private void rejectBusy(SocketChannel channel) {
+        try (channel) {
+            System.out.println("[Server] Verbindung (" + channel.getRemoteAddress() + ") abgelehnt, Server ausgelastet");
+            AdmissionControl.writeBusyReply(Channels.newOutputStream(channel));
+        } catch (IOException e) {
+            // Client hat die Verbindung bereits selbst beendet
+        }
+    }
+
+    /**
+     * Beendet den Server und schließt alle Verbindungen.
+     *
+     * @throws IOException wenn ein I/O-Fehler beim Schließen auftritt
+     */
+    public void close() throws IOException {
+        reaper.close();
+        acceptSelector.close();
+        serverChannel.close();
+        for (IoWorker worker : workers) {
+            worker.close();
+        }
+    }
+
+    /**
+     * Ein I/O-Thread mit eigenem Selector. Liest Frames von seinen Verbindungen, übergibt sie dem
+     * ClientHandler und schreibt die Antworten, ohne jemals auf einen einzelnen Client zu blockieren.
+     */
+    private class IoWorker implements Runnable {
+        private final Selector selector;
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        private final Queue<NioSession> pushed = new ConcurrentLinkedQueue<>(); // Sitzungen mit Push-Nachrichten im Antwortpuffer
+        private final Queue<NioSession> reaped = new ConcurrentLinkedQueue<>(); // vom SessionReaper geschlossene Sitzungen
+
+        IoWorker() throws IOException {
+            this.selector = Selector.open();
+        }
+
+        /**
+         * Übergibt einen neuen Channel an diesen I/O-Thread. Die Registrierung selbst erfolgt
+         * im I/O-Thread, da Selector.register sonst mit select() um dieselbe Sperre konkurriert.
+         */
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        /**
+         * Meldet, dass für eine Sitzung außerhalb einer Anfrage (Push) Antworten bereitliegen.
+         * Gesendet wird im I/O-Thread, da nur dieser den Channel und die Schreibwarteschlange verwendet.
+         */
+        void pushed(NioSession session) {
+            pushed.add(session);
+            selector.wakeup();
+        }
+
+        /**
+         * Schließt eine Sitzung im I/O-Thread, z.B. wenn der SessionReaper sie als inaktiv erkannt hat.
+         */
+        void closeLater(NioSession session) {
+            reaped.add(session);
+            selector.wakeup();
+        }
+
+        void close() throws IOException {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (selector.isOpen()) {
+                    selector.select();
+                    registerPending();
+                    flushPushed();
+                    closeReaped();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        NioSession session = (NioSession) key.attachment();
+
+                        try {
+                            if (key.isValid() && key.isReadable()) {
+                                session.read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                session.write();
+                            }
+                        } catch (IOException e) {
+                            // Client schließt bei Logout oder Fensterschließung die Verbindung
+                            session.close();
+                        }
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                // Server wurde über close() beendet
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        private void registerPending() throws IOException {
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new NioSession(channel, key, this));
+            }
+        }
+
+        private void closeReaped() {
+            NioSession session;
+            while ((session = reaped.poll()) != null) {
+                session.close();
+            }
+        }
+
+        private void flushPushed() {
+            NioSession session;
+            while ((session = pushed.poll()) != null) {
+                try {
+                    session.flushResponse();
+                } catch (IOException e) {
+                    session.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Zustand einer einzelnen nicht-blockierenden Verbindung: Lesepuffer für unvollständige Frames,
+     * Warteschlange für noch nicht geschriebene Antworten und der zugehörige ClientHandler.
+     */
+    private class NioSession {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteArrayOutputStream response = new ByteArrayOutputStream(64);
+        private final DataOutputStream responseOut = new DataOutputStream(response);
+        private final ClientHandler handler;
+        private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+        private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER);
+        private boolean closed = false;
+
+        NioSession(SocketChannel channel, SelectionKey key, IoWorker worker) {
+            this.channel = channel;
+            this.key = key;
+            this.handler = new ClientHandler(database, responseOut);
+            this.handler.setPushListener(() -> worker.pushed(this));
+            reaper.register(handler, () -> worker.closeLater(this));
+        }
+
+        /**
+         * Liest alle verfügbaren Bytes und verarbeitet jeden vollständigen Frame. Bis zur Aushandlung
+         * des Binärprotokolls sind das writeUTF-Frames, danach Binär-Frames mit Varint-Länge.
+         */
+        void read() throws IOException {
+            if (channel.read(readBuffer) == -1) {
+                close();
+                return;
+            }
+
+            readBuffer.flip();
+            while (readBuffer.hasRemaining()) {
+                boolean processed = handler.isBinary() ? readBinaryFrame() : readTextFrame();
+                if (closed) {
+                    return;
+                }
+                if (!processed) {
+                    break;
+                }
+            }
+            readBuffer.compact();
+
+            // Puffer vergrößern, falls ein Frame größer ist als der bisherige Puffer
+            int max_frame_size = handler.isBinary() ? BinaryProtocol.MAX_FRAME_LENGTH + 3 : MAX_FRAME_SIZE;
+            if (!readBuffer.hasRemaining() && readBuffer.capacity() < max_frame_size) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2, max_frame_size));
+                readBuffer.flip();
+                bigger.put(readBuffer);
+                readBuffer = bigger;
+            }
+
+            flushResponse();
+        }
+
+        /**
+         * Verarbeitet einen writeUTF-Frame, falls er vollständig im Puffer liegt.
+         *
+         * @return false, wenn der Frame noch unvollständig ist
+         */
+        private boolean readTextFrame() throws IOException {
+            if (readBuffer.remaining() < 2) {
+                return false;
+            }
+            int length = readBuffer.getShort(readBuffer.position()) & 0xFFFF;
+            if (readBuffer.remaining() < 2 + length) {
+                return false;
+            }
+
+            byte[] frame = new byte[2 + length];
+            readBuffer.get(frame);
+            String input = new DataInputStream(new ByteArrayInputStream(frame)).readUTF();
+            process(() -> handler.handleRequest(input));
+            return true;
+        }
+
+        /**
+         * Verarbeitet einen Frame des Binärprotokolls, falls er vollständig im Puffer liegt.
+         *
+         * @return false, wenn der Frame noch unvollständig ist
+         */
+        private boolean readBinaryFrame() throws IOException {
+            int start = readBuffer.position();
+            int length = BinaryProtocol.readVarintIfComplete(readBuffer);
+            if (length < 0) {
+                readBuffer.position(start);
+                return false;
+            }
+            BinaryProtocol.checkFrameLength(length);
+            if (readBuffer.remaining() < length) {
+                readBuffer.position(start);
+                return false;
+            }
+
+            byte[] frame = new byte[length];
+            readBuffer.get(frame);
+            process(() -> handler.handleBinaryRequest(frame));
+            return true;
+        }
+
+        /**
+         * Übergibt eine Anfrage an den ClientHandler. Fehler werden wie im ClientHandler-Thread
+         * protokolliert und beenden nur diese Verbindung; die übrigen Sitzungen des I/O-Threads laufen weiter.
+         *
+         * @return false, wenn die Verbindung dabei geschlossen wurde
+         */
+        private boolean process(Request request) throws IOException {
+            try {
+                request.handle();
+                return true;
+            } catch (InvalidMoveException ex) {
+                System.out.println("[Server] Ein Spieler hat versucht einen zu hohen Einsatz zu setzen");
+            } catch (DeckEmptyException e) {
+                System.out.println("[Server] Ein Spieler hat versucht eine Karte aus einem leeren Deck zu ziehen");
+            } catch (InterruptedException e) {
+                System.out.println("[Server] Beim Neustarten eines Spieltisches kam es zu einem Fehler");
+            } catch (RuntimeException e) {
+                // Fehlerhafte Anfrage (z.B. keine Zahl, zu wenige Felder): nur diese Sitzung beenden, nicht den I/O-Thread
+                System.out.println("[Server] Fehlerhafte Anfrage von " + channel.getRemoteAddress() + ": " + e);
+            }
+            flushResponse();
+            close();
+            return false;
+        }
+
+        /**
+         * Hängt die vom ClientHandler geschriebenen Antworten an die Schreibwarteschlange an
+         * und versucht, sie sofort zu senden.
+         */
+        private void flushResponse() throws IOException {
+            if (closed) {
+                return;
+            }
+            ReentrantLock write_lock = handler.getWriteLock(); // dieselbe Sperre wie für Antworten und Push-Nachrichten
+            write_lock.lock();
+            try {
+                if (response.size() == 0) {
+                    return;
+                }
+                writeQueue.add(ByteBuffer.wrap(response.toByteArray()));
+                response.reset();
+            } finally {
+                write_lock.unlock();
+            }
+            write();
+        }
+
+        /**
+         * Schreibt so viel aus der Warteschlange wie der Socket gerade annimmt. Bleibt etwas übrig,
+         * wird OP_WRITE angemeldet, bis der Rest geschrieben ist.
+         */
+        void write() throws IOException {
+            while (!writeQueue.isEmpty()) {
+                ByteBuffer buffer = writeQueue.peek();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                writeQueue.poll();
+            }
+            if (key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            admission.release();
+            reaper.unregister(handler);
+            handler.closeSubscriptions();
+            handler.releaseSession();
+
+            try {
+                System.out.println("[Server] Verbindung (" + channel.getRemoteAddress() + ") wird geschlossen");
+                key.cancel();
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Eine dekodierte Anfrage, die an den ClientHandler übergeben wird.
+     */
+    @FunctionalInterface
+    private interface Request {
+        void handle() throws IOException, InvalidMoveException, DeckEmptyException, InterruptedException;
+    }
+}
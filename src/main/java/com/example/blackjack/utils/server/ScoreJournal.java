@@ -0,0 +1,341 @@
+package com.example.blackjack.utils.server;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Speichert die globalen Punktestände als Snapshot (temp_scoreboard.txt, eine Zeile "benutzer:score" pro Benutzer)
+ * plus Journal (temp_scoreboard_journal.txt). Eine Änderung wird nur als kurze Zeile an das Journal angehängt,
+ * statt das ganze Scoreboard neu zu schreiben:
+ *   set:benutzer:score   setzt den Punktestand
+ *   delete:benutzer      entfernt den Benutzer
+ *
+ * Ein Hintergrund-Thread schreibt alle bis dahin angehängten Änderungen gemeinsam und ruft danach einmal force()
+ * auf (Group Commit). Der Future einer Änderung wird erst danach erfüllt. Nach COMPACT_AFTER Einträgen wird der
+ * aktuelle Stand als neuer Snapshot geschrieben und das Journal geleert.
+ *
+ * Beim Öffnen wird der Snapshot geladen und das Journal darauf angewendet. Eine unvollständige letzte Zeile
+ * (Absturz während des Schreibens) wird verworfen. Da jeder Eintrag einen absoluten Wert setzt, ist es
+ * unschädlich, wenn Einträge nach einem Absturz während der Verdichtung sowohl im Snapshot als auch im Journal stehen.
+ */
+public class ScoreJournal {
+    public static final int COMPACT_AFTER = 10_000; // Einträge im Journal, nach denen ein neuer Snapshot geschrieben wird
+
+    private static final Map<String, ScoreJournal> open_journals = new HashMap<>(); // Verzeichnis -> Journal
+
+    static {
+        // Aufrufer warten nicht auf das Schreiben, ausstehende Einträge deshalb beim Beenden der JVM noch schreiben
+        Runtime.getRuntime().addShutdownHook(new Thread(ScoreJournal::closeAll, "score-journal-shutdown"));
+    }
+
+    private final File snapshot_file;
+    private final File journal_file;
+    private final int compact_after;
+    private final Map<String, Integer> scores = new LinkedHashMap<>(); // aktueller Stand inkl. noch nicht geschriebener Einträge
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final FileChannel journal;
+    private final Thread writer;
+    private volatile int journal_entries; // Einträge im Journal seit dem letzten Snapshot, nur vom Schreib-Thread geändert
+    private volatile boolean closed = false;
+
+    private record Entry(String line, CompletableFuture<Void> committed) {
+    }
+
+    /**
+     * Gibt das Journal für ein Verzeichnis zurück. Alle Database-Instanzen mit demselben Verzeichnis teilen
+     * sich ein Journal, damit nie zwei Schreiber dieselben Dateien verändern.
+     *
+     * @param dir das Verzeichnis mit temp_scoreboard.txt
+     * @param compact_after Einträge, nach denen ein neuer Snapshot geschrieben wird
+     * @return das Journal
+     * @throws IOException wenn die Dateien nicht gelesen oder das Journal nicht geöffnet werden kann
+     */
+    public static ScoreJournal open(String dir, int compact_after) throws IOException {
+        synchronized (open_journals) {
+            String key = new File(dir).getCanonicalPath();
+            ScoreJournal journal = open_journals.get(key);
+            if (journal == null) {
+                journal = new ScoreJournal(new File(key), compact_after);
+                open_journals.put(key, journal);
+            }
+            return journal;
+        }
+    }
+
+    private ScoreJournal(File dir, int compact_after) throws IOException {
+        if (compact_after < 1) {
+            throw new IllegalArgumentException("compact_after muss mindestens 1 sein.");
+        }
+        this.snapshot_file = new File(dir, "temp_scoreboard.txt");
+        this.journal_file = new File(dir, "temp_scoreboard_journal.txt");
+        this.compact_after = compact_after;
+
+        replay();
+        this.journal = FileChannel.open(journal_file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.journal.position(journal.size());
+
+        this.writer = new Thread(this::writeLoop, "score-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Setzt den Punktestand eines Benutzers.
+     *
+     * @param user der Benutzername
+     * @param score der neue Punktestand
+     * @return wird erfüllt, sobald die Änderung auf der Platte ist
+     */
+    public CompletableFuture<Void> set(String user, int score) {
+        synchronized (scores) {
+            scores.put(user, score);
+            return append("set:" + user + ":" + score);
+        }
+    }
+
+    /**
+     * Entfernt einen Benutzer.
+     *
+     * @param user der Benutzername
+     * @return wird erfüllt, sobald die Änderung auf der Platte ist
+     */
+    public CompletableFuture<Void> delete(String user) {
+        synchronized (scores) {
+            scores.remove(user);
+            return append("delete:" + user);
+        }
+    }
+
+    private CompletableFuture<Void> append(String line) {
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        if (closed) {
+            committed.completeExceptionally(new IOException("Das Journal ist geschlossen."));
+        } else {
+            queue.add(new Entry(line, committed));
+        }
+        return committed;
+    }
+
+    /**
+     * Gibt eine Kopie des aktuellen Stands zurück, in der Reihenfolge des letzten Snapshots.
+     *
+     * @return Benutzername -> Punktestand
+     */
+    public Map<String, Integer> getScores() {
+        synchronized (scores) {
+            return new LinkedHashMap<>(scores);
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der Einträge zurück, die seit dem letzten Snapshot ins Journal geschrieben wurden.
+     *
+     * @return Anzahl der Einträge
+     */
+    public int getJournalEntries() {
+        return journal_entries;
+    }
+
+    /**
+     * Schreibt alle ausstehenden Einträge, beendet den Schreib-Thread und schließt das Journal.
+     * Ein erneutes open() liest danach den Stand wieder von der Platte.
+     */
+    public void close() {
+        synchronized (open_journals) {
+            open_journals.values().remove(this);
+        }
+        CompletableFuture<Void> last;
+        synchronized (scores) {
+            last = append("");
+            closed = true;
+        }
+        last.exceptionally(e -> null).join();
+        writer.interrupt();
+        try {
+            writer.join();
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Schließt alle offenen Journale.
+     */
+    private static void closeAll() {
+        ArrayList<ScoreJournal> journals;
+        synchronized (open_journals) {
+            journals = new ArrayList<>(open_journals.values());
+        }
+        for (ScoreJournal journal : journals) {
+            journal.close();
+        }
+    }
+
+    // --------------------------------- Schreib-Thread ---------------------------------
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                if (closed && queue.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            queue.drainTo(batch);
+
+            try {
+                commit(batch);
+            } catch (IOException e) {
+                e.printStackTrace();
+                for (Entry entry : batch) {
+                    entry.committed.completeExceptionally(e);
+                }
+                batch.clear();
+                continue;
+            }
+
+            if (journal_entries >= compact_after) {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    // Die Einträge stehen bereits im Journal, die Verdichtung wird beim nächsten Mal wiederholt
+                    e.printStackTrace();
+                }
+            }
+            for (Entry entry : batch) {
+                entry.committed.complete(null);
+            }
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Entry> batch) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (Entry entry : batch) {
+            if (!entry.line.isEmpty()) {
+                lines.append(entry.line).append('\n');
+                journal_entries++;
+            }
+        }
+        if (lines.length() == 0) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+        journal.force(false);
+    }
+
+    /**
+     * Schreibt den aktuellen Stand nach Punkten sortiert als neuen Snapshot und leert das Journal. Der Snapshot
+     * wird zuerst in eine temporäre Datei geschrieben und dann atomar umbenannt.
+     */
+    private void compact() throws IOException {
+        List<Map.Entry<String, Integer>> sorted;
+        synchronized (scores) {
+            sorted = new ArrayList<>(scores.entrySet());
+        }
+        sorted.sort((s1, s2) -> Integer.compare(s2.getValue(), s1.getValue()));
+
+        File tmp_file = new File(snapshot_file.getPath() + ".tmp");
+        try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(tmp_file))) {
+            for (Map.Entry<String, Integer> score : sorted) {
+                bufferedWriter.write(score.getKey() + ":" + score.getValue());
+                bufferedWriter.newLine();
+            }
+        }
+        try (FileChannel tmp = FileChannel.open(tmp_file.toPath(), StandardOpenOption.WRITE)) {
+            tmp.force(true);
+        }
+        Files.move(tmp_file.toPath(), snapshot_file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        journal.truncate(0);
+        journal.position(0);
+        journal.force(true);
+        journal_entries = 0;
+    }
+
+    // --------------------------------- Wiederherstellung ---------------------------------
+
+    private void replay() throws IOException {
+        if (snapshot_file.exists()) {
+            for (String line : Files.readAllLines(snapshot_file.toPath(), StandardCharsets.UTF_8)) {
+                String[] parts = line.split(":");
+                if (parts.length == 2) {
+                    scores.put(parts[0], Integer.parseInt(parts[1]));
+                }
+            }
+        }
+        if (!journal_file.exists()) {
+            return;
+        }
+
+        byte[] bytes = Files.readAllBytes(journal_file.toPath());
+        int end = 0; // Ende des letzten vollständigen Eintrags
+        for (int start = 0, newline; (newline = indexOf(bytes, (byte) '\n', start)) >= 0; start = newline + 1) {
+            String line = new String(bytes, start, newline - start, StandardCharsets.UTF_8);
+            if (!apply(line)) {
+                break;
+            }
+            end = newline + 1;
+            journal_entries++;
+        }
+
+        if (end < bytes.length) {
+            System.out.println("[Server] Unvollständiger Eintrag am Ende des Score-Journals verworfen");
+            try (FileChannel channel = FileChannel.open(journal_file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+                channel.force(true);
+            }
+        }
+    }
+
+    private boolean apply(String line) {
+        String[] parts = line.split(":");
+        try {
+            if (parts.length == 3 && parts[0].equals("set")) {
+                scores.put(parts[1], Integer.parseInt(parts[2]));
+                return true;
+            } else if (parts.length == 2 && parts[0].equals("delete")) {
+                scores.remove(parts[1]);
+                return true;
+            }
+        } catch (NumberFormatException e) {
+            // Beschädigter Eintrag
+        }
+        return false;
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
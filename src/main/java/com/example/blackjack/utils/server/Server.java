@@ -2,50 +2,236 @@ package com.example.blackjack.utils.server;
 
 import java.io.*;
 import java.net.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * Diese Klasse stellt einen Server dar, der auf Verbindungen von Clients wartet und diese
- * verarbeitet. Der Server nutzt eine Datenbank und akzeptiert eine bestimmte Anzahl von Clients.
+ * verarbeitet. Der Server nutzt eine Datenbank und nimmt so lange Verbindungen an, bis er geschlossen wird.
+ * Die AdmissionControl begrenzt dabei gleichzeitige Sitzungen und Accept-Rate, überzählige Clients
+ * erhalten sofort eine "busy"-Antwort.
+ * Je nach ServerMode läuft jeder ClientHandler auf einem Plattform- oder einem virtuellen Thread.
+ * Der SessionReaper schließt Verbindungen, die länger als der Idle-Timeout inaktiv sind.
  */
 public class Server implements Runnable {
     private Database database = new Database();
     private ServerSocket serverSocket;
-    private int anz_clients;
+    private final ServerMode mode;
+    private final Thread.Builder threadBuilder;
+    private final AdmissionControl admission;
+    private final BlockingQueue<Socket> pendingHandshakes; // angenommene Sockets, deren ClientHandler noch nicht läuft
+    private final SessionReaper reaper;
 
     /**
      * Konstruktor für die Server-Klasse. Initialisiert den Server-Socket auf dem angegebenen Port
-     * und setzt die maximale Anzahl von Clients.
+     * und setzt die maximale Anzahl gleichzeitiger Clients. Jede Verbindung läuft auf einem Plattform-Thread.
      *
      * @param port der Port, auf dem der Server lauscht.
-     * @param anz_clients die maximale Anzahl von Clients, die der Server akzeptieren soll.
+     * @param max_sessions die maximale Anzahl gleichzeitig verbundener Clients.
      * @throws IOException wenn ein I/O-Fehler beim Öffnen des Sockets auftritt.
      */
-    public Server(int port, int anz_clients) throws IOException {
+    public Server(int port, int max_sessions) throws IOException {
+        this(port, withMaxSessions(max_sessions));
+    }
+
+    /**
+     * Konstruktor für die Server-Klasse mit vollständiger Konfiguration.
+     *
+     * @param port der Port, auf dem der Server lauscht.
+     * @param config Modus (PLATFORM oder VIRTUAL) und Limits der Zugangskontrolle.
+     * @throws IOException wenn ein I/O-Fehler beim Öffnen des Sockets auftritt.
+     */
+    public Server(int port, ServerConfig config) throws IOException {
+        if (config.getMode() == ServerMode.NIO) {
+            throw new IllegalArgumentException("Der NIO-Modus wird vom NioServer bereitgestellt.");
+        }
+
         serverSocket = new ServerSocket(port);
-        this.anz_clients = anz_clients;
+        this.mode = config.getMode();
+        this.threadBuilder = (mode == ServerMode.VIRTUAL)
+                ? Thread.ofVirtual().name("client-virtual-", 0)
+                : Thread.ofPlatform().name("client-", 0);
+        this.admission = new AdmissionControl(config.getMaxSessions(), config.getMaxAcceptsPerSecond());
+        this.pendingHandshakes = new ArrayBlockingQueue<>(config.getHandshakeQueueSize());
+        this.reaper = new SessionReaper(config.getIdleTimeoutSeconds() * 1000L);
+    }
+
+    private static ServerConfig withMaxSessions(int max_sessions) {
+        ServerConfig config = new ServerConfig();
+        config.setMaxSessions(max_sessions);
+        return config;
+    }
+
+    /**
+     * Gibt den Port zurück, auf dem der Server lauscht.
+     *
+     * @return der lokale Port
+     */
+    public int getLocalPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gibt den Modus zurück, in dem die Verbindungen ausgeführt werden.
+     *
+     * @return der ServerMode
+     */
+    public ServerMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Gibt die Anzahl der aktuell verbundenen Clients zurück.
+     *
+     * @return Anzahl aktiver Sitzungen
+     */
+    public int getActiveSessions() {
+        return admission.getActiveSessions();
+    }
+
+    /**
+     * Gibt die Anzahl der seit dem Start abgelehnten Verbindungen zurück.
+     *
+     * @return Anzahl abgelehnter Verbindungen
+     */
+    public long getRejectedConnections() {
+        return admission.getRejectedConnections();
+    }
+
+    /**
+     * Gibt die Anzahl der seit dem Start angenommenen Verbindungen zurück.
+     *
+     * @return Anzahl angenommener Verbindungen
+     */
+    public long getAcceptedConnections() {
+        return admission.getAcceptedConnections();
     }
 
     /**
-     * Startet den Server und wartet auf Verbindungen von Clients. Sobald eine Verbindung
-     * akzeptiert wird, wird ein neuer ClientHandler-Thread gestartet, um die Kommunikation
-     * mit dem Client zu übernehmen.
+     * Gibt die Anzahl der Sitzungen zurück, die seit dem Start wegen Inaktivität geschlossen wurden.
      *
-     * Diese Methode läuft solange, bis die maximale Anzahl von Clients erreicht ist.
+     * @return Anzahl aufgeräumter Sitzungen
+     */
+    public long getReclaimedSessions() {
+        return reaper.getReclaimedSessions();
+    }
+
+    /**
+     * Gibt den SessionReaper des Servers zurück.
+     *
+     * @return der SessionReaper
+     */
+    public SessionReaper getSessionReaper() {
+        return reaper;
+    }
+
+    /**
+     * Startet den Server und wartet auf Verbindungen von Clients. Jede angenommene Verbindung landet
+     * in der Handshake-Warteschlange, aus der ein eigener Thread die ClientHandler auf neuen
+     * (Plattform- oder virtuellen) Threads startet. Ist ein Limit erreicht oder die Warteschlange voll,
+     * erhält der Client sofort "busy" und die Verbindung wird geschlossen.
+     *
+     * Diese Methode läuft, bis der Server geschlossen wird.
      *
      * Ausnahmen:
      * @throws IOException wenn ein I/O-Fehler beim Akzeptieren einer Client-Verbindung auftritt.
      */
     @Override
     public void run() {
-        System.out.println("[Server] Server Start");
-        for (int i = 0; i <= anz_clients; i++) {
-            try {
-                Socket socket = serverSocket.accept();
-                System.out.println("[Server] Verbunden mit " + socket.getRemoteSocketAddress());
-                new ClientHandler(socket, database).start();
-            } catch (IOException e) {
-                e.printStackTrace();
+        System.out.println("[Server] Server Start (" + mode + ")");
+
+        Thread handshakeThread = new Thread(this::startHandlers, "server-handshake");
+        handshakeThread.setDaemon(true);
+        handshakeThread.start();
+        reaper.start();
+
+        try {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+
+                    if (!admission.tryAdmit()) {
+                        rejectBusy(socket);
+                    } else if (!pendingHandshakes.offer(socket)) {
+                        admission.releaseRejected();
+                        rejectBusy(socket);
+                    }
+                } catch (IOException e) {
+                    if (!serverSocket.isClosed()) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        } finally {
+            handshakeThread.interrupt();
+            reaper.close();
+        }
+    }
+
+    /**
+     * Nimmt angenommene Sockets aus der Handshake-Warteschlange und startet für jeden einen ClientHandler.
+     * Die Sitzung wird freigegeben, sobald der ClientHandler endet.
+     */
+    private void startHandlers() {
+        try {
+            while (true) {
+                Socket socket = pendingHandshakes.take();
+                try {
+                    System.out.println("[Server] Verbunden mit " + socket.getRemoteSocketAddress());
+                    ClientHandler handler = new ClientHandler(socket, database);
+                    reaper.register(handler, () -> closeQuietly(socket));
+                    threadBuilder.start(() -> {
+                        try {
+                            handler.run();
+                        } finally {
+                            reaper.unregister(handler);
+                            admission.release();
+                        }
+                    });
+                } catch (IOException e) {
+                    admission.release();
+                    socket.close();
+                }
             }
+        } catch (InterruptedException | IOException e) {
+            // Server wurde geschlossen
+        }
+    }
+
+    /**
+     * Schließt die Verbindung einer vom SessionReaper aufgeräumten Sitzung. Der blockierte ClientHandler
+     * erhält dadurch eine IOException und beendet sich.
+     *
+     * @param socket die zu schließende Verbindung
+     */
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Verbindung war bereits geschlossen
+        }
+    }
+
+    /**
+     * Lehnt eine Verbindung ab: Der Client erhält sofort "busy", anschließend wird die Verbindung geschlossen.
+     *
+     * @param socket die abzulehnende Verbindung
+     */
+    private void rejectBusy(Socket socket) {
+        System.out.println("[Server] Verbindung (" + socket.getRemoteSocketAddress() + ") abgelehnt, Server ausgelastet");
+        try (socket) {
+            AdmissionControl.writeBusyReply(socket.getOutputStream());
+        } catch (IOException e) {
+            // Client hat die Verbindung bereits selbst beendet
         }
     }
+
+    /**
+     * Schließt den Server-Socket. Bereits verbundene Clients bleiben davon unberührt.
+     *
+     * @throws IOException wenn ein I/O-Fehler beim Schließen auftritt
+     */
+    public void close() throws IOException {
+        serverSocket.close();
+    }
 }
@@ -0,0 +1,82 @@
+package com.example.blackjack.utils.server;
+
+/**
+ * Einstellungen für Server und NioServer: Ausführungsmodus, Limits der Zugangskontrolle und Idle-Timeout.
+ * Alle Werte haben sinnvolle Standardwerte und können beim Start über System-Properties
+ * ("blackjack.server.*") überschrieben werden.
+ */
+public class ServerConfig {
+    private ServerMode mode = ServerMode.PLATFORM;
+    private int max_sessions = 10000; // maximale Anzahl gleichzeitiger Sitzungen
+    private int max_accepts_per_second = 500; // maximale Anzahl neuer Verbindungen pro Sekunde
+    private int handshake_queue_size = 128; // angenommene Verbindungen, die noch auf ihren Handler warten
+    private int io_threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2); // nur NioServer
+    private int idle_timeout_seconds = 60; // Sitzungen ohne Anfrage (auch kein "ping") werden danach aufgeräumt, 0 = nie
+
+    /**
+     * Erstellt eine Konfiguration aus den System-Properties. Nicht gesetzte Properties behalten ihren Standardwert.
+     *
+     * blackjack.server.mode, blackjack.server.maxSessions, blackjack.server.maxAcceptRate,
+     * blackjack.server.handshakeQueue, blackjack.server.ioThreads, blackjack.server.idleTimeout (Sekunden)
+     *
+     * @return die Konfiguration
+     */
+    public static ServerConfig fromSystemProperties() {
+        ServerConfig config = new ServerConfig();
+        config.setMode(ServerMode.fromSystemProperty());
+        config.setMaxSessions(Integer.getInteger("blackjack.server.maxSessions", config.getMaxSessions()));
+        config.setMaxAcceptsPerSecond(Integer.getInteger("blackjack.server.maxAcceptRate", config.getMaxAcceptsPerSecond()));
+        config.setHandshakeQueueSize(Integer.getInteger("blackjack.server.handshakeQueue", config.getHandshakeQueueSize()));
+        config.setIoThreads(Integer.getInteger("blackjack.server.ioThreads", config.getIoThreads()));
+        config.setIdleTimeoutSeconds(Integer.getInteger("blackjack.server.idleTimeout", config.getIdleTimeoutSeconds()));
+        return config;
+    }
+
+    public ServerMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ServerMode mode) {
+        this.mode = mode;
+    }
+
+    public int getMaxSessions() {
+        return max_sessions;
+    }
+
+    public void setMaxSessions(int max_sessions) {
+        this.max_sessions = max_sessions;
+    }
+
+    public int getMaxAcceptsPerSecond() {
+        return max_accepts_per_second;
+    }
+
+    public void setMaxAcceptsPerSecond(int max_accepts_per_second) {
+        this.max_accepts_per_second = max_accepts_per_second;
+    }
+
+    public int getHandshakeQueueSize() {
+        return handshake_queue_size;
+    }
+
+    public void setHandshakeQueueSize(int handshake_queue_size) {
+        this.handshake_queue_size = handshake_queue_size;
+    }
+
+    public int getIoThreads() {
+        return io_threads;
+    }
+
+    public void setIoThreads(int io_threads) {
+        this.io_threads = io_threads;
+    }
+
+    public int getIdleTimeoutSeconds() {
+        return idle_timeout_seconds;
+    }
+
+    public void setIdleTimeoutSeconds(int idle_timeout_seconds) {
+        this.idle_timeout_seconds = idle_timeout_seconds;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.blackjack.utils.server;
+
+/**
+ * Legt fest, wie der Server die Verbindungen der Clients ausführt.
+ * Der Modus wird beim Start über die System-Property "blackjack.server.mode" gewählt.
+ */
+public enum ServerMode {
+    /**
+     * Ein Plattform-Thread pro Verbindung (bisheriges Verhalten).
+     */
+    PLATFORM,
+
+    /**
+     * Ein virtueller Thread pro Verbindung. Wartende Verbindungen belegen nur wenige KB Stack.
+     */
+    VIRTUAL,
+
+    /**
+     * Nicht-blockierender NioServer mit einer festen Anzahl an I/O-Threads.
+     */
+    NIO;
+
+    /**
+     * Liest den Modus aus der System-Property "blackjack.server.mode" (platform, virtual oder nio).
+     *
+     * @return der gewählte Modus, PLATFORM falls keine Property gesetzt ist
+     * @throws IllegalArgumentException wenn der Wert keinem Modus entspricht
+     */
+    public static ServerMode fromSystemProperty() {
+        String mode = System.getProperty("blackjack.server.mode");
+        if (mode == null || mode.isBlank()) {
+            return PLATFORM;
+        }
+        return valueOf(mode.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.blackjack.utils.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Räumt Sitzungen auf, von denen seit dem Idle-Timeout keine Anfrage mehr kam, z.B. weil der
+ * Client-Prozess ohne "logout" beendet wurde. Clients halten ihre Sitzung mit "ping" am Leben.
+ *
+ * Ein Hintergrund-Thread prüft regelmäßig alle registrierten ClientHandler. Für eine inaktive Sitzung
+ * wird dasselbe aufgeräumt wie bei "leavetable", "leaveroom" und "logout", danach wird die
+ * Verbindung geschlossen und die Sitzung mitgezählt.
+ */
+public class SessionReaper {
+    private final long idle_timeout_millis;
+    private final Map<ClientHandler, Runnable> sessions = new ConcurrentHashMap<>(); // ClientHandler -> schließt die Verbindung
+    private final AtomicLong reclaimed_sessions = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Konstruktor für den SessionReaper.
+     *
+     * @param idle_timeout_millis Zeit ohne Anfrage, nach der eine Sitzung als tot gilt (0 = nie)
+     */
+    public SessionReaper(long idle_timeout_millis) {
+        if (idle_timeout_millis < 0) {
+            throw new IllegalArgumentException("Der Idle-Timeout darf nicht negativ sein.");
+        }
+        this.idle_timeout_millis = idle_timeout_millis;
+    }
+
+    /**
+     * Startet den Hintergrund-Thread, der die Sitzungen in Abständen von einem halben Idle-Timeout prüft.
+     * Bei einem Idle-Timeout von 0 wird kein Thread gestartet.
+     */
+    public synchronized void start() {
+        if (idle_timeout_millis == 0 || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, idle_timeout_millis / 2);
+        scheduler.scheduleWithFixedDelay(this::reapIdleSessions, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Beendet den Hintergrund-Thread. Bestehende Verbindungen bleiben davon unberührt.
+     */
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Meldet eine neue Sitzung an.
+     *
+     * @param handler der ClientHandler der Sitzung
+     * @param close schließt die Verbindung der Sitzung
+     */
+    public void register(ClientHandler handler, Runnable close) {
+        sessions.put(handler, close);
+    }
+
+    /**
+     * Meldet eine beendete Sitzung ab.
+     *
+     * @param handler der ClientHandler der Sitzung
+     */
+    public void unregister(ClientHandler handler) {
+        sessions.remove(handler);
+    }
+
+    /**
+     * Räumt alle Sitzungen auf, die länger als der Idle-Timeout inaktiv sind.
+     *
+     * @return Anzahl der aufgeräumten Sitzungen
+     */
+    public int reapIdleSessions() {
+        if (idle_timeout_millis == 0) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        int reaped = 0;
+        for (Map.Entry<ClientHandler, Runnable> session : sessions.entrySet()) {
+            ClientHandler handler = session.getKey();
+            long idle_millis = handler.getIdleMillis(now);
+            if (idle_millis < idle_timeout_millis || !sessions.remove(handler, session.getValue())) {
+                continue;
+            }
+
+            System.out.println("[Server] Sitzung seit " + idle_millis / 1000 + " s inaktiv, wird geschlossen");
+            try {
+                handler.releaseSession();
+            } finally {
+                session.getValue().run();
+            }
+            reaped++;
+        }
+
+        reclaimed_sessions.addAndGet(reaped);
+        return reaped;
+    }
+
+    /**
+     * Gibt zurück, wie viele Sitzungen seit dem Start wegen Inaktivität aufgeräumt wurden.
+     *
+     * @return Anzahl aufgeräumter Sitzungen
+     */
+    public long getReclaimedSessions() {
+        return reclaimed_sessions.get();
+    }
+
+    /**
+     * Gibt die Anzahl der angemeldeten Sitzungen zurück.
+     *
+     * @return Anzahl der Sitzungen
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idle_timeout_millis;
+    }
+}
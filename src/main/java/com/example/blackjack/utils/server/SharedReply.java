@@ -0,0 +1,48 @@
+package com.example.blackjack.utils.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Eine Antwort, die unverändert an viele Clients geht, z.B. ein LobbySnapshot oder die neuen Nachrichten
+ * eines Chat-Kanals. Sie wird nur einmal als writeUTF-Frame kodiert; ClientHandler schreibt im Textprotokoll
+ * ohne Korrelations-ID direkt diese Bytes.
+ */
+public class SharedReply {
+    private final String text;
+    private volatile byte[] encoded; // Antwort als writeUTF-Frame, wird beim ersten Senden erstellt
+
+    /**
+     * Konstruktor für eine SharedReply.
+     *
+     * @param text die vollständige Antwort
+     */
+    SharedReply(String text) {
+        this.text = text;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Gibt die Antwort so zurück, wie sie DataOutputStream.writeUTF schreiben würde. Die Bytes werden
+     * nur einmal erstellt und von allen Verbindungen gemeinsam verwendet.
+     *
+     * @return Längenpräfix und modifiziertes UTF-8
+     * @throws IOException wenn die Antwort für writeUTF zu lang ist
+     */
+    byte[] getEncoded() throws IOException {
+        byte[] bytes = encoded;
+        if (bytes == null) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(text.length() + 2);
+            try (DataOutputStream data = new DataOutputStream(buffer)) {
+                data.writeUTF(text);
+            }
+            bytes = buffer.toByteArray();
+            encoded = bytes;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.blackjack.utils.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Zwischengespeicherte Antwort auf eine Abfrage, die deutlich öfter gelesen als geändert wird
+ * (z.B. "reloadactiverooms"). Jede Änderung erhöht nur die Version; die Antwort wird erst beim nächsten
+ * Lesen neu erstellt und bis zur nächsten Änderung als dieselbe SharedReply an alle Clients gegeben.
+ *
+ * Die Version wird vor dem Erstellen gelesen. Ändert sich die Liste währenddessen, ist die neue Antwort
+ * bereits veraltet und wird beim nächsten Lesen erneut erstellt.
+ */
+public class VersionedCache {
+    private final Supplier<String> builder;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<Entry> cached = new AtomicReference<>(new Entry(-1, null));
+
+    private record Entry(long version, SharedReply reply) {
+    }
+
+    /**
+     * Konstruktor für einen VersionedCache.
+     *
+     * @param builder erstellt die Antwort aus dem aktuellen Stand
+     */
+    public VersionedCache(Supplier<String> builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * Markiert die Antwort als veraltet.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Gibt die aktuelle Version zurück.
+     *
+     * @return die Anzahl der bisherigen Änderungen
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Gibt die Antwort zum aktuellen Stand zurück und erstellt sie nur, wenn sich seit dem letzten Erstellen
+     * etwas geändert hat.
+     *
+     * @return die geteilte Antwort
+     */
+    public SharedReply get() {
+        long current = version.get();
+        Entry entry = cached.get();
+        if (entry.version == current) {
+            return entry.reply;
+        }
+
+        Entry created = new Entry(current, new SharedReply(builder.get()));
+        // Nur eine ältere Antwort ersetzen, falls ein anderer Thread schon eine neuere gespeichert hat
+        while (entry.version < current && !cached.compareAndSet(entry, created)) {
+            entry = cached.get();
+        }
+        return created.reply;
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.blackjack.views;
 
 import com.example.blackjack.utils.Client;
+import com.example.blackjack.utils.server.NioServer;
 import com.example.blackjack.utils.server.Server;
+import com.example.blackjack.utils.server.ServerConfig;
+import com.example.blackjack.utils.server.ServerMode;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
@@ -45,8 +48,14 @@ public class Main extends Application {
                 int extra_clients = Integer.parseInt(input);
                 executor = Executors.newFixedThreadPool(extra_clients + 2);
 
-                // Server Start
-                Server server = new Server(5000, extra_clients);
+                // Server Start (Modus und Limits über -Dblackjack.server.*, siehe ServerConfig)
+                ServerConfig config = ServerConfig.fromSystemProperties();
+                Runnable server;
+                if (config.getMode() == ServerMode.NIO) {
+                    server = new NioServer(5000, config);
+                } else {
+                    server = new Server(5000, config);
+                }
                 executor.submit(server);
 
                 // Client Start
@@ -0,0 +1,77 @@
+package com.example.blackjack.benchmarks;
+
+import com.example.blackjack.utils.game.Card;
+import com.example.blackjack.utils.game.Deck;
+import com.example.blackjack.utils.game.exceptions.DeckEmptyException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Vergleicht das Deck (Kartencodes in einem short-Array mit Zeiger auf die oberste Karte) mit der früheren
+ * Umsetzung als ArrayList&lt;Card&gt; mit remove(0). Gemessen wird eine typische Runde: neues Deck erstellen,
+ * mischen und 20 Karten austeilen, sowie das Austeilen des ganzen Stapels.
+ *
+ * Aufruf: DeckBenchmark [runden]
+ */
+public class DeckBenchmark {
+    private static final int CARDS_PER_ROUND = 20;
+
+    public static void main(String[] args) throws DeckEmptyException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        // Aufwärmen
+        for (int i = 0; i < 3; i++) {
+            runDeck(rounds / 10, CARDS_PER_ROUND);
+            runList(rounds / 10, CARDS_PER_ROUND);
+        }
+
+        report("Deck,      20 Karten", rounds, () -> runDeck(rounds, CARDS_PER_ROUND));
+        report("ArrayList, 20 Karten", rounds, () -> runList(rounds, CARDS_PER_ROUND));
+        report("Deck,      312 Karten", rounds / 10, () -> runDeck(rounds / 10, Deck.SIZE));
+        report("ArrayList, 312 Karten", rounds / 10, () -> runList(rounds / 10, Deck.SIZE));
+    }
+
+    private interface Run {
+        int run() throws DeckEmptyException;
+    }
+
+    private static void report(String name, int rounds, Run run) throws DeckEmptyException {
+        long start = System.nanoTime();
+        int checksum = run.run();
+        long nanos = System.nanoTime() - start;
+
+        System.out.println(name + ": " + nanos / rounds + " ns pro Runde (" + checksum + ")");
+    }
+
+    private static int runDeck(int rounds, int cards) throws DeckEmptyException {
+        int checksum = 0;
+        for (int r = 0; r < rounds; r++) {
+            Deck deck = new Deck();
+            deck.shuffle();
+            for (int i = 0; i < cards; i++) {
+                checksum += deck.dealCard().getRank();
+            }
+        }
+        return checksum;
+    }
+
+    private static int runList(int rounds, int cards) {
+        int checksum = 0;
+        for (int r = 0; r < rounds; r++) {
+            ArrayList<Card> deck = new ArrayList<>(Deck.SIZE);
+            for (int i = 0; i < Deck.DECK_COUNT; i++) {
+                for (int j = 0; j < 4; j++) {
+                    for (int k = 1; k <= 13; k++) {
+                        deck.add(new Card(i, k, j));
+                    }
+                }
+            }
+            Collections.shuffle(deck);
+            for (int i = 0; i < cards; i++) {
+                checksum += deck.remove(0).getRank();
+            }
+        }
+        return checksum;
+    }
+}
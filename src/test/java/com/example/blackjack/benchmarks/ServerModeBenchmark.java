@@ -0,0 +1,121 @@
+package com.example.blackjack.benchmarks;
+
+import com.example.blackjack.utils.server.Server;
+import com.example.blackjack.utils.server.ServerConfig;
+import com.example.blackjack.utils.server.ServerMode;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Vergleicht den Plattform-Thread-Modus mit dem Virtual-Thread-Modus des Servers.
+ * Es werden viele größtenteils inaktive Lobby-Verbindungen geöffnet und anschließend
+ * Speicherverbrauch pro Verbindung, Anzahl der Plattform-Threads und die Dauer einer
+ * Anfragerunde über alle Verbindungen gemessen.
+ *
+ * Aufruf: ServerModeBenchmark [verbindungen] [platform|virtual]
+ * Für aussagekräftige Werte sollte jeder Modus in einer eigenen JVM laufen,
+ * z.B. mit -Xss1m und ausreichend hohem ulimit -n.
+ */
+public class ServerModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        List<ServerMode> modes = args.length > 1
+                ? List.of(ServerMode.valueOf(args[1].toUpperCase()))
+                : List.of(ServerMode.PLATFORM, ServerMode.VIRTUAL);
+
+        for (ServerMode mode : modes) {
+            run(mode, connections);
+        }
+    }
+
+    private static void run(ServerMode mode, int connections) throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setMode(mode);
+        config.setMaxSessions(connections);
+        config.setMaxAcceptsPerSecond(Integer.MAX_VALUE);
+        Server server = new Server(0, config);
+        Thread serverThread = new Thread(server);
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        System.gc();
+        long rssBefore = residentSetKb();
+        long heapBefore = usedHeapKb();
+        int threadsBefore = Thread.activeCount();
+
+        List<Socket> sockets = new ArrayList<>(connections);
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            Socket socket = new Socket("localhost", server.getLocalPort());
+            sockets.add(socket);
+            // Eine Anfrage pro Verbindung stellt sicher, dass der ClientHandler wirklich läuft
+            request(socket, "reloadactiveusers");
+        }
+        long connectMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.gc();
+        long rssAfter = residentSetKb();
+        long heapAfter = usedHeapKb();
+        int threadsAfter = Thread.activeCount();
+
+        // Eine Runde "Lobby-Poll" über alle (jetzt inaktiven) Verbindungen
+        start = System.nanoTime();
+        for (Socket socket : sockets) {
+            request(socket, "reloadactiverooms");
+        }
+        long roundMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("---- " + mode + " (" + connections + " Verbindungen) ----");
+        System.out.println("Verbindungsaufbau:      " + connectMillis + " ms");
+        System.out.println("Anfragerunde:           " + roundMillis + " ms");
+        System.out.println("Plattform-Threads:      +" + (threadsAfter - threadsBefore));
+        System.out.println("Heap pro Verbindung:    " + (heapAfter - heapBefore) / connections + " KB");
+        if (rssBefore >= 0) {
+            System.out.println("RSS pro Verbindung:     " + (rssAfter - rssBefore) / connections + " KB");
+        }
+
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        server.close();
+    }
+
+    private static void request(Socket socket, String command) throws IOException {
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeUTF(command);
+        out.flush();
+        new DataInputStream(socket.getInputStream()).readUTF();
+    }
+
+    private static long usedHeapKb() {
+        Runtime runtime = Runtime.getRuntime();
+        return (runtime.totalMemory() - runtime.freeMemory()) / 1024;
+    }
+
+    /**
+     * Liest den Resident Set Size des Prozesses (nur Linux). Erfasst im Gegensatz zum Heap
+     * auch die Stacks der Plattform-Threads.
+     *
+     * @return RSS in KB oder -1, falls nicht verfügbar
+     */
+    private static long residentSetKb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Kein /proc verfügbar
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.blackjack.benchmarks;
+
+import com.example.blackjack.utils.server.Database;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Misst Anmeldungen pro Sekunde (authenticate + removeActiveUser) in Abhängigkeit von der Anzahl
+ * registrierter Benutzer. Da die Benutzer im Speicher maßgeblich sind und login.txt bei der Anmeldung
+ * nicht mehr gelesen wird, sollte der Durchsatz bei 1.000 und bei 1.000.000 Benutzern etwa gleich sein.
+ *
+ * Die Benutzer werden in ein temporäres Verzeichnis geschrieben, die Dateien neben der JAR-Datei bleiben unberührt.
+ *
+ * Aufruf: UserStoreBenchmark [benutzer...] [anmeldungen]
+ * z.B. UserStoreBenchmark 1000 1000000 2000000 mit -Xmx2g
+ */
+public class UserStoreBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int logins = 1_000_000;
+        int[] user_counts = {1_000, 1_000_000};
+        if (args.length > 0) {
+            user_counts = new int[Math.max(1, args.length - 1)];
+            for (int i = 0; i < user_counts.length; i++) {
+                user_counts[i] = Integer.parseInt(args[i]);
+            }
+            if (args.length > 1) {
+                logins = Integer.parseInt(args[args.length - 1]);
+            }
+        }
+
+        for (int user_count : user_counts) {
+            run(user_count, logins);
+        }
+    }
+
+    private static void run(int user_count, int logins) throws IOException {
+        Path dir = Files.createTempDirectory("blackjack-users");
+        writeUsers(dir, user_count);
+
+        long start = System.nanoTime();
+        Database database = new Database(dir.toString());
+        long load_millis = (System.nanoTime() - start) / 1_000_000;
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            // Aufwärmen
+            login(database, user_count, Math.min(logins, 100_000));
+
+            start = System.nanoTime();
+            int successful = login(database, user_count, logins);
+            long nanos = System.nanoTime() - start;
+
+            System.setOut(console);
+            System.out.println("---- " + user_count + " Benutzer ----");
+            System.out.println("Laden:                  " + load_millis + " ms");
+            System.out.println("Anmeldungen:            " + successful + " von " + logins);
+            System.out.println("Anmeldungen pro s:      " + (long) (logins / (nanos / 1e9)));
+            System.out.println("ns pro Anmeldung:       " + nanos / logins);
+        } finally {
+            System.setOut(console);
+            Files.deleteIfExists(dir.resolve("temp_login.txt"));
+            Files.deleteIfExists(dir.resolve("temp_scoreboard.txt"));
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static int login(Database database, int user_count, int logins) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int successful = 0;
+        for (int i = 0; i < logins; i++) {
+            int user = random.nextInt(user_count);
+            String username = "user" + user;
+            if (database.authenticate(username, "pass" + user) != null) {
+                successful++;
+                database.removeActiveUser(username);
+            }
+        }
+        return successful;
+    }
+
+    private static void writeUsers(Path dir, int user_count) throws IOException {
+        try (BufferedWriter login = Files.newBufferedWriter(dir.resolve("temp_login.txt"));
+             BufferedWriter scoreboard = Files.newBufferedWriter(dir.resolve("temp_scoreboard.txt"))) {
+            for (int i = 0; i < user_count; i++) {
+                login.write("user" + i + ":pass" + i);
+                login.newLine();
+            }
+            scoreboard.write("user0:500");
+            scoreboard.newLine();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.blackjack.tests;
+
+import com.example.blackjack.utils.server.BinaryProtocol;
+import com.example.blackjack.utils.server.GameStateSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryProtocolTest {
+
+    private static byte[] readFrame(byte[] encoded) throws IOException {
+        return BinaryProtocol.readFrame(new DataInputStream(new ByteArrayInputStream(encoded)));
+    }
+
+    private static GameStateSnapshot runningState() {
+        GameStateSnapshot state = new GameStateSnapshot();
+        state.setRound("Athie", true, false, true);
+        state.setHands(new byte[][]{{15, 39}, {}});
+        state.setDealer(false, new byte[]{26, 40});
+        state.setStakes(new String[]{"Athie", "Jonas"}, new int[]{100, 250});
+        return state;
+    }
+
+    @Test
+    void testRequestRoundTrip() throws IOException {
+        byte[] frame = readFrame(BinaryProtocol.encodeRequest("reloadgamestate", "tisch", "Jönas"));
+        assertArrayEquals(new String[]{"reloadgamestate", "tisch", "Jönas"}, BinaryProtocol.decodeRequest(frame));
+    }
+
+    @Test
+    void testUnknownOpcode() throws IOException {
+        assertNull(BinaryProtocol.decodeRequest(new byte[]{(byte) 200})[0]);
+        assertThrows(IllegalArgumentException.class, () -> BinaryProtocol.opcodeOf("gibtsnicht"));
+    }
+
+    @Test
+    void testTextLongerThanWriteUtfLimit() throws IOException {
+        String text = "x".repeat(70000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryProtocol.writeText(new DataOutputStream(bytes), text);
+        assertEquals(text, BinaryProtocol.decodeText(readFrame(bytes.toByteArray())));
+    }
+
+    @Test
+    void testRunningStateMatchesTextFormat() throws IOException {
+        GameStateSnapshot state = runningState();
+        assertEquals("@Athie:true:false:true@15:39:&&@false&26:40:@Athie&100:Jonas&250:", state.toText());
+
+        byte[] encoded = state.encode();
+        assertEquals(state.toText(), GameStateSnapshot.decode(readFrame(encoded)).toText());
+        assertTrue(encoded.length < state.toText().length());
+    }
+
+    @Test
+    void testResultAndCountdownRoundTrip() throws IOException {
+        GameStateSnapshot result = runningState();
+        result.setResult(1200, "1200:200");
+        assertEquals("result#1200@Athie:true:false:true@15:39:&&@false&26:40:@Athie&100:Jonas&250:#1200:200", result.toText());
+        assertEquals(result.toText(), GameStateSnapshot.decode(readFrame(result.encode())).toText());
+
+        GameStateSnapshot countdown = GameStateSnapshot.countdown(17);
+        assertEquals("countdown:17", GameStateSnapshot.decode(readFrame(countdown.encode())).toText());
+    }
+
+    @Test
+    void testTruncatedFrameIsRejected() {
+        byte[] frame = runningState().encode();
+        byte[] truncated = new byte[frame.length - 3];
+        System.arraycopy(frame, 1, truncated, 0, truncated.length);
+        assertThrows(IOException.class, () -> GameStateSnapshot.decode(truncated));
+    }
+
+    @Test
+    void testTextRoundTripAndDelta() {
+        String text = "@Athie:true:false:true@15:39:&&@false&26:40:@Athie&100:Jonas&250:";
+        GameStateSnapshot state = GameStateSnapshot.fromText(text);
+        assertEquals(text, state.toText());
+
+        state.applyDelta("Jonas:false:false:true@c&0&7:s&Jonas&500:");
+        assertEquals("@Jonas:false:false:true@15:39:7:&&@false&26:40:@Athie&100:Jonas&500:", state.toText());
+    }
+}
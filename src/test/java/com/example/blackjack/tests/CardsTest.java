@@ -103,6 +103,151 @@ public class CardsTest {
     }
 
 
+    @Test
+    public void testDeckDealsEveryCardOnce() throws DeckEmptyException {
+        Deck deck = new Deck();
+        deck.shuffle();
+        assertEquals(Deck.SIZE, deck.getSize());
+
+        boolean[] seen = new boolean[Deck.SIZE];
+        for (int i = 0; i < Deck.SIZE; i++) {
+            Card card = deck.dealCard();
+            assertSame(Card.of(card.getCode()), card);
+            assertFalse(seen[card.getCode()]);
+            seen[card.getCode()] = true;
+        }
+        assertThrows(DeckEmptyException.class, deck::dealCard);
+
+        // Mehr Karten hinzufügen als ein voller Stapel hat
+        Card card = Card.of(5, 13, 3);
+        for (int i = 0; i < Deck.SIZE + 10; i++) {
+            deck.addCard(card);
+        }
+        assertEquals(Deck.SIZE + 10, deck.getSize());
+        assertEquals(13, deck.dealCard().getRank());
+    }
+
+    @Test
+    public void testShoeReshufflesAtCutCard() throws DeckEmptyException {
+        Deck deck = new Deck(0.5);
+        assertTrue(deck.shuffleIfNeeded()); // neuer Schuh wird vor der ersten Runde gemischt
+        assertFalse(deck.shuffleIfNeeded());
+
+        for (int i = 0; i < Deck.SIZE / 2 - 1; i++) {
+            deck.dealCard();
+        }
+        assertFalse(deck.isCutCardReached());
+        assertFalse(deck.shuffleIfNeeded());
+
+        deck.dealCard();
+        assertTrue(deck.isCutCardReached());
+        assertEquals(Deck.SIZE / 2, deck.getDiscardSize());
+
+        assertTrue(deck.shuffleIfNeeded());
+        assertEquals(Deck.SIZE, deck.getSize());
+        assertEquals(0, deck.getDiscardSize());
+        assertThrows(IllegalArgumentException.class, () -> new Deck(0));
+    }
+
+    @Test
+    public void testSameSeedSameShoe() throws DeckEmptyException {
+        for (RandomProvider provider : new RandomProvider[] {RandomProvider.SPLITTABLE, RandomProvider.XOSHIRO}) {
+            Deck deck = new Deck(0.75, null, provider);
+            deck.reshuffle(42);
+            assertEquals(42, deck.getShoeSeed());
+            for (int i = 0; i < 10; i++) {
+                deck.dealCard();
+            }
+
+            Deck replay = Deck.replay(provider, 42, 10);
+            assertEquals(deck.getSize(), replay.getSize());
+            while (deck.getSize() > 0) {
+                assertSame(deck.dealCard(), replay.dealCard());
+            }
+        }
+    }
+
+    @Test
+    public void testFullPenetrationKeepsRoundReserve() throws DeckEmptyException {
+        Deck deck = new Deck(1.0);
+        deck.shuffleIfNeeded();
+        for (int i = 0; i < Deck.SIZE - Deck.ROUND_RESERVE - 1; i++) {
+            deck.dealCard();
+        }
+        assertFalse(deck.isCutCardReached());
+        deck.dealCard();
+        assertTrue(deck.isCutCardReached());
+        assertEquals(Deck.ROUND_RESERVE, deck.getSize());
+
+        // Volle Runden an allen Plätzen laufen nie in einen leeren Schuh
+        for (int round = 0; round < 100; round++) {
+            deck.shuffleIfNeeded();
+            for (int i = 0; i < Deck.ROUND_RESERVE; i++) {
+                deck.dealCard();
+            }
+        }
+    }
+
+    @Test
+    public void testShoeRefillsFromDiscardWhenDry() throws DeckEmptyException {
+        Deck deck = new Deck(1.0, null, RandomProvider.SPLITTABLE);
+        deck.reshuffle(7);
+        for (int i = 0; i < 200; i++) {
+            deck.dealCard();
+        }
+        assertFalse(deck.shuffleIfNeeded()); // Runde beginnt nach 200 Karten
+        Deck replay = Deck.replay(RandomProvider.SPLITTABLE, 7, 200);
+
+        // Die Runde braucht mehr Karten als der Schuh noch hat
+        boolean[] seen = new boolean[Deck.SIZE];
+        for (int i = 0; i < Deck.SIZE - 200 + 50; i++) {
+            Card card = deck.dealCard();
+            assertFalse(seen[card.getCode()]);
+            seen[card.getCode()] = true;
+            assertSame(card, replay.dealCard());
+        }
+        assertTrue(deck.isCutCardReached());
+        assertTrue(deck.shuffleIfNeeded());
+        assertEquals(Deck.SIZE, deck.getSize());
+    }
+
+    @Test
+    public void testUnknownRandomProviderFallsBack() {
+        String previous = System.getProperty("blackjack.table.random");
+        try {
+            System.setProperty("blackjack.table.random", "gibtsnicht");
+            assertSame(RandomProvider.SPLITTABLE, RandomProvider.fromSystemProperty());
+            System.setProperty("blackjack.table.random", "Xoshiro");
+            assertSame(RandomProvider.XOSHIRO, RandomProvider.fromSystemProperty());
+        } finally {
+            if (previous == null) {
+                System.clearProperty("blackjack.table.random");
+            } else {
+                System.setProperty("blackjack.table.random", previous);
+            }
+        }
+    }
+
+    @Test
+    public void testCanonicalCards() {
+        for (int code = 0; code < Card.CODE_COUNT; code++) {
+            Card card = Card.of(code);
+            assertEquals(code, card.getCode());
+            assertSame(card, Card.of(card.getDeckId(), card.getRank(), card.getSymbol()));
+        }
+
+        Card card = new Card(1, 3, 1); // = Karo 3
+        assertNotSame(Card.of(1, 3, 1), card);
+        assertEquals(Card.of(1, 3, 1), card);
+        assertEquals(16, Card.of(card.getCode()).getBildIdent());
+        assertNotEquals(Card.of(2, 3, 1), card);
+
+        assertThrows(IllegalArgumentException.class, () -> new Card(6, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> Card.of(1, 14, 0));
+        assertThrows(IllegalArgumentException.class, () -> Card.of(Card.CODE_COUNT));
+    }
+
+
     /*
     @Test
     public void testDealerTable() throws DeckEmptyException {
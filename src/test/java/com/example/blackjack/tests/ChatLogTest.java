@@ -0,0 +1,78 @@
+package com.example.blackjack.tests;
+
+import com.example.blackjack.utils.server.ChatLog;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class ChatLogTest {
+    private ChatLog chat;
+
+    @BeforeEach
+    public void setUp() {
+        chat = new ChatLog(5);
+    }
+
+    @Test
+    public void testSequenceNumbers() {
+        assertEquals(0, chat.getLatestSequence());
+        assertEquals(1, chat.append("a: 1"));
+        assertEquals(2, chat.append("a: 2"));
+        assertEquals(2, chat.getLatestSequence());
+        assertEquals(1, chat.getOldestSequence());
+    }
+
+    @Test
+    public void testOnlyNewerMessagesSinceCursor() {
+        chat.append("a: 1");
+        chat.append("b: 2");
+        chat.append("a: 3");
+
+        StringBuilder messages = new StringBuilder();
+        assertEquals(3, chat.appendSince(1, 100, messages));
+        assertEquals("b: 2@a: 3@", messages.toString());
+
+        messages.setLength(0);
+        assertEquals(3, chat.appendSince(3, 100, messages));
+        assertEquals("", messages.toString());
+    }
+
+    @Test
+    public void testRingBufferOverwritesOldest() {
+        for (int i = 1; i <= 8; i++) {
+            chat.append("a: " + i);
+        }
+
+        assertEquals(4, chat.getOldestSequence());
+        assertEquals(List.of("a: 4", "a: 5", "a: 6", "a: 7", "a: 8"), chat.getAll());
+
+        StringBuilder messages = new StringBuilder();
+        assertEquals(8, chat.appendSince(0, 100, messages));
+        assertEquals("a: 4@a: 5@a: 6@a: 7@a: 8@", messages.toString());
+    }
+
+    @Test
+    public void testPageSizeAndHistory() {
+        for (int i = 1; i <= 5; i++) {
+            chat.append("a: " + i);
+        }
+
+        StringBuilder messages = new StringBuilder();
+        assertEquals(5, chat.appendSince(0, 2, messages));
+        assertEquals("a: 4@a: 5@", messages.toString());
+
+        messages.setLength(0);
+        assertEquals(2, chat.appendBefore(4, 2, messages));
+        assertEquals("a: 2@a: 3@", messages.toString());
+
+        messages.setLength(0);
+        assertEquals(1, chat.appendBefore(2, 2, messages));
+        assertEquals("a: 1@", messages.toString());
+
+        messages.setLength(0);
+        assertEquals(0, chat.appendBefore(1, 2, messages));
+        assertEquals("", messages.toString());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.blackjack.tests;
+
+import com.example.blackjack.utils.server.ClientHandler;
+import com.example.blackjack.utils.server.CommandRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandRegistryTest {
+
+    private CommandRegistry registry;
+    private List<String> executed;
+
+    @BeforeEach
+    void setUp() {
+        registry = new CommandRegistry();
+        executed = new ArrayList<>();
+        registry.register("stand", 2, (handler, data) -> executed.add("stand:" + data[1]));
+        registry.register("started", 2, (handler, data) -> executed.add("started:" + data[1]));
+        registry.register("reloadchat", CommandRegistry.ANY_LENGTH, (handler, data) -> executed.add("reloadchat"));
+    }
+
+    @Test
+    void testDispatchMatchesWholeKeyword() throws Exception {
+        assertTrue(registry.dispatch(null, "started:raum"));
+        assertEquals(List.of("started:raum"), executed);
+        assertEquals(0, registry.getInvocationCount("stand"));
+    }
+
+    @Test
+    void testInvocationCounts() throws Exception {
+        registry.dispatch(null, "stand:tisch");
+        registry.dispatch(null, "stand:tisch");
+        registry.dispatch(null, "reloadchat");
+
+        assertEquals(2, registry.getInvocationCount("stand"));
+        assertEquals(1, registry.getInvocationCounts().get("reloadchat"));
+        assertEquals(0, registry.getInvocationCounts().get("started"));
+    }
+
+    @Test
+    void testWrongLengthAndUnknownCommandAreIgnored() throws Exception {
+        assertFalse(registry.dispatch(null, "stand:tisch:zuviel"));
+        assertFalse(registry.dispatch(null, "standup:tisch"));
+
+        assertTrue(executed.isEmpty());
+        assertEquals(0, registry.getInvocationCount("stand"));
+        assertEquals(1, registry.getUnknownCommandCount());
+    }
+
+    @Test
+    void testDuplicateRegistration() {
+        assertThrows(IllegalArgumentException.class, () -> registry.register("stand", 2, (handler, data) -> { }));
+    }
+
+    @Test
+    void testClientHandlerRegistersProtocol() {
+        assertTrue(ClientHandler.getCommands().getInvocationCounts().keySet().containsAll(
+                List.of("auth", "reloadgamestate", "hit", "stand", "split", "getallscores")));
+    }
+}
@@ -1,12 +1,19 @@
 package com.example.blackjack.tests;
 
+import com.example.blackjack.utils.game.Table;
+import com.example.blackjack.utils.game.exceptions.DeckEmptyException;
 import com.example.blackjack.utils.game.exceptions.InvalidMoveException;
 import com.example.blackjack.utils.server.Database;
+import com.example.blackjack.utils.server.LobbySnapshot;
+import com.example.blackjack.utils.server.SharedReply;
 import org.junit.jupiter.api.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class DatabaseTest {
@@ -30,6 +37,18 @@ public class DatabaseTest {
         database.deleteUser("testUser");
     }
 
+    @Test
+    public void testAddUserRejectsDuplicate() {
+        assertTrue(database.addUser("testUser", "testPass"));
+        database.setGlobalScore("testUser", 700);
+
+        assertFalse(database.addUser("testUser", "otherPass"));
+        assertEquals("testUser", database.authenticate("testUser", "testPass"));
+        assertNull(database.authenticate("testUser", "otherPass"));
+        assertEquals(700, database.getGlobalScore("testUser"));
+        database.deleteUser("testUser");
+    }
+
     @Test
     public void testDeleteUser() {
         database.addUser("testUser", "testPass");
@@ -63,6 +82,18 @@ public class DatabaseTest {
         database.deleteUser("testUser");
     }
 
+    @Test
+    public void testScoreboardRankAndPaging() {
+        database.addUser("testUser", "testPass");
+        database.setGlobalScore("testUser", 1_000_000_000);
+
+        assertEquals("1:1000000000", database.getScoreboardRank("testUser"));
+        assertEquals("testUser:1000000000@", database.getScoreboard(0, 1));
+        assertTrue(database.getScoreboardAround("testUser", 1).startsWith("1@testUser:1000000000@"));
+        assertEquals("0:0", database.getScoreboardRank("unknownUser"));
+        database.deleteUser("testUser");
+    }
+
     @Test
     public void testSaveChatMessage() {
         database.saveChatMessage("testUser", "Hello, world!");
@@ -80,6 +111,20 @@ public class DatabaseTest {
         assertTrue(database.getActiveRooms().contains("testRoom"));
     }
 
+    @Test
+    public void testAddRoomRejectsDuplicates() throws InvalidMoveException {
+        database.addRoom("uniqueRoom", 0, 0);
+        database.joinRoom("uniqueRoom", "testUser");
+
+        assertThrows(InvalidMoveException.class, () -> database.addRoom("uniqueRoom", 1, 0));
+        assertTrue(database.getActiveRooms().contains("uniqueRoom:1")); // der bestehende Raum bleibt erhalten
+
+        database.startGame("uniqueRoom");
+        assertThrows(InvalidMoveException.class, () -> database.addRoom("uniqueRoom", 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> database.addRoom(null, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> database.addRoom("", 0, 0));
+    }
+
     @Test
     public void testStartGame() throws InvalidMoveException {
         database.addRoom("testRoom", 0, 0);
@@ -89,6 +134,21 @@ public class DatabaseTest {
         assertTrue(database.hasGameStarted("testRoom"));
     }
 
+    @Test
+    public void testRoomMovesToTableRegistry() throws InvalidMoveException {
+        database.addRoom("indexedRoom", 0, 0);
+        database.joinRoom("indexedRoom", "testUser");
+        assertTrue(database.duplicateRoomName("indexedRoom"));
+        assertNull(database.getTable("indexedRoom"));
+
+        database.startGame("indexedRoom");
+
+        assertFalse(database.getActiveRooms().contains("indexedRoom"));
+        assertTrue(database.duplicateRoomName("indexedRoom"));
+        assertEquals("indexedRoom", database.getTable("indexedRoom").getTableName());
+        assertTrue(database.getActive_tables().contains(database.getTable("indexedRoom")));
+    }
+
     @Test
     public void testChatMessages() {
         database.saveChatMessage("user1", "Hello!");
@@ -100,6 +160,19 @@ public class DatabaseTest {
         assertEquals("user2: Hi!", messages.get(1));
     }
 
+    @Test
+    public void testUserChangesPersistedWriteBehind() {
+        database.addUser("persistedUser", "persistedPass");
+        assertEquals("persistedUser", database.authenticate("persistedUser", "persistedPass"));
+
+        // Eine neue Instanz wartet auf ausstehende Schreibvorgänge und liest dann login.txt
+        Database reloaded = new Database();
+        assertTrue(reloaded.duplicateUsername("persistedUser"));
+
+        reloaded.deleteUser("persistedUser");
+        assertFalse(new Database().duplicateUsername("persistedUser"));
+    }
+
     @Test
     public void testAuthenticateFailure() {
         assertNull(database.authenticate("nonExistentUser", "somePass"));
@@ -167,4 +240,130 @@ public class DatabaseTest {
         assertFalse(roomInfo.contains("#BotSimple"));
         assertFalse(roomInfo.contains("*BotAdvanced"));
     }
+
+    @Test
+    public void testLobbySnapshotSharedWithinEpoch() {
+        LobbySnapshot first = database.getLobbySnapshot(0);
+        assertSame(first, database.getLobbySnapshot(0));
+
+        database.saveChatMessage("testUser", "hallo");
+        LobbySnapshot second = database.getLobbySnapshot(0);
+        assertNotSame(first, second);
+        assertTrue(second.getEpoch() > first.getEpoch());
+
+        String[] sections = database.getLobbySnapshot(0).getText().split(LobbySnapshot.SECTION_SEPARATOR, -1);
+        assertEquals(5, sections.length);
+        assertEquals("1", sections[0]);
+        assertEquals(database.getScoreboard(0, LobbySnapshot.SCOREBOARD_SIZE), sections[1]);
+        assertEquals("testUser: hallo@", sections[4]);
+        assertTrue(database.getLobbySnapshot(1).getText().endsWith(LobbySnapshot.SECTION_SEPARATOR));
+    }
+
+    @Test
+    public void testRoomChatChannel() throws InvalidMoveException {
+        database.addRoom("chatRoom", 0, 0);
+        String channel = Database.roomChannel("chatRoom");
+        database.saveChatMessage(channel, "user1", "nur im Raum");
+
+        assertTrue(database.getChatMessages().isEmpty());
+        SharedReply reply = database.getChatMessagesSince(channel, 0);
+        assertEquals("1\nuser1: nur im Raum@", reply.getText());
+        assertSame(reply, database.getChatMessagesSince(channel, 0));
+        assertEquals("1\n", database.getChatMessagesSince(channel, 1).getText());
+
+        // Kanäle nicht existierender Räume werden nicht angelegt
+        database.saveChatMessage(Database.roomChannel("unknownRoom"), "user1", "hallo");
+        assertEquals("0\n", database.getChatMessagesSince(Database.roomChannel("unknownRoom"), 0).getText());
+    }
+
+    @Test
+    public void testListingsCachedUntilChange() throws InvalidMoveException {
+        SharedReply rooms = database.getActiveRoomsReply();
+        assertSame(rooms, database.getActiveRoomsReply());
+
+        database.addRoom("cachedRoom", 0, 0);
+        SharedReply changed = database.getActiveRoomsReply();
+        assertNotSame(rooms, changed);
+        assertTrue(changed.getText().contains("cachedRoom"));
+
+        database.addUser("cachedUser", "pass");
+        SharedReply scoreboard = database.getScoreboardReply();
+        assertSame(scoreboard, database.getScoreboardReply());
+        database.setGlobalScore("cachedUser", 1234);
+        assertTrue(database.getScoreboardReply().getText().contains("cachedUser:1234@"));
+        database.deleteUser("cachedUser");
+    }
+
+    @Test
+    public void testConcurrentMovesAndSnapshots() throws InvalidMoveException, DeckEmptyException, InterruptedException {
+        database.addUser("concurrentUser1", "pass");
+        database.addUser("concurrentUser2", "pass");
+        database.addRoom("concurrentTable", 0, 0);
+        database.joinRoom("concurrentTable", "concurrentUser1");
+        database.joinRoom("concurrentTable", "concurrentUser2");
+        database.startGame("concurrentTable");
+
+        Table table = database.getTable("concurrentTable");
+        ReentrantLock lock = database.getGameLock("concurrentTable");
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // Liest den Tisch, während der Test-Thread Runden spielt
+        Thread reader = new Thread(() -> {
+            try {
+                long version = 0;
+                while (running.get()) {
+                    database.getAllScores("concurrentTable");
+                    database.isDdAllowedBot("concurrentTable");
+                    database.isSurrenderAllowedBot("concurrentTable");
+                    database.initializeGame("concurrentTable", "concurrentUser1");
+                    database.getGameStateSnapshot("concurrentTable", "concurrentUser2");
+                    String delta = database.getGameStateDelta("concurrentTable", "concurrentUser1", version);
+                    version = Long.parseLong(delta.split(":")[1]);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+
+        try {
+            for (int round = 0; round < 5; round++) {
+                database.setStake("concurrentTable", "concurrentUser1", 1);
+                database.setStake("concurrentTable", "concurrentUser2", 1);
+                lock.lock();
+                try {
+                    table.beginRound();
+                } finally {
+                    lock.unlock();
+                }
+
+                while (!finished(table, lock)) {
+                    database.hit("concurrentTable");
+                    if (!finished(table, lock)) {
+                        database.stand("concurrentTable");
+                    }
+                }
+                while (finished(table, lock)) { // Neustart des Tisches nach 400ms abwarten
+                    Thread.sleep(20);
+                }
+            }
+        } finally {
+            running.set(false);
+            reader.join();
+            database.deleteUser("concurrentUser1");
+            database.deleteUser("concurrentUser2");
+        }
+
+        assertNull(failure.get());
+    }
+
+    private static boolean finished(Table table, ReentrantLock lock) {
+        lock.lock();
+        try {
+            return table.isGameFinished();
+        } finally {
+            lock.unlock();
+        }
+    }
 }
@@ -0,0 +1,95 @@
+package com.example.blackjack.tests;
+
+import com.example.blackjack.utils.game.Card;
+import com.example.blackjack.utils.game.Hand;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HandTest {
+    private Hand hand;
+
+    @BeforeEach
+    public void setUp() {
+        hand = new Hand();
+    }
+
+    @Test
+    public void testEmptyHand() {
+        assertEquals(0, hand.getScore());
+        assertFalse(hand.isBlackjack());
+        assertFalse(hand.isBust());
+        assertFalse(hand.isSoft());
+    }
+
+    @Test
+    public void testSoftAce() {
+        hand.add(Card.of(0, 1, 0)); // Ass
+        hand.add(Card.of(0, 6, 0));
+        assertEquals(17, hand.getScore());
+        assertTrue(hand.isSoft());
+        assertEquals(7, hand.getHardTotal());
+
+        hand.add(Card.of(0, 9, 0)); // Ass zählt jetzt 1
+        assertEquals(16, hand.getScore());
+        assertFalse(hand.isSoft());
+        assertFalse(hand.isBust());
+
+        hand.add(Card.of(0, 13, 0));
+        assertEquals(26, hand.getScore());
+        assertTrue(hand.isBust());
+    }
+
+    @Test
+    public void testTwoAces() {
+        hand.add(Card.of(0, 1, 0));
+        hand.add(Card.of(1, 1, 0));
+        assertEquals(12, hand.getScore());
+        assertEquals(2, hand.getAces());
+        assertFalse(hand.isBlackjack());
+    }
+
+    @Test
+    public void testBlackjack() {
+        hand.add(Card.of(0, 12, 2)); // Dame
+        hand.add(Card.of(0, 1, 2)); // Ass
+        assertTrue(hand.isBlackjack());
+        assertEquals(21, hand.getScore());
+
+        hand.set(1, Card.of(0, 9, 2));
+        assertFalse(hand.isBlackjack());
+        assertEquals(19, hand.getScore());
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        hand.add(Card.of(0, 10, 0));
+        hand.add(Card.of(0, 1, 0));
+        hand.remove(0);
+        assertEquals(11, hand.getScore());
+        assertFalse(hand.isBlackjack());
+
+        hand.clear();
+        assertEquals(0, hand.getScore());
+        assertEquals(0, hand.getAces());
+    }
+
+    @Test
+    public void testMatchesRecount() {
+        ArrayList<Card> cards = new ArrayList<>();
+        cards.add(Card.of(2, 1, 3));
+        cards.add(Card.of(2, 5, 3));
+        cards.add(Card.of(2, 1, 1));
+        cards.add(Card.of(2, 4, 1));
+
+        Hand copy = new Hand(cards);
+        for (Card c : cards) {
+            hand.add(c);
+        }
+        assertEquals(21, copy.getScore());
+        assertEquals(copy.getScore(), hand.getScore());
+        assertEquals(copy.getAces(), hand.getAces());
+    }
+}
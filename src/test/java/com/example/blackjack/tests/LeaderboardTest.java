@@ -0,0 +1,86 @@
+package com.example.blackjack.tests;
+
+import com.example.blackjack.utils.game.Score;
+import com.example.blackjack.utils.server.Leaderboard;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LeaderboardTest {
+    private Leaderboard leaderboard;
+
+    @BeforeEach
+    public void setUp() {
+        leaderboard = new Leaderboard();
+        leaderboard.update("carol", 300);
+        leaderboard.update("alice", 500);
+        leaderboard.update("dave", 100);
+        leaderboard.update("bob", 300);
+        leaderboard.update("erin", 200);
+    }
+
+    private static List<String> users(List<Score> scores) {
+        List<String> users = new ArrayList<>();
+        for (Score s : scores) {
+            users.add(s.getUser());
+        }
+        return users;
+    }
+
+    @Test
+    public void testOrderByScoreThenName() {
+        assertEquals(List.of("alice", "bob", "carol", "erin", "dave"), users(leaderboard.getPage(0, 10)));
+        assertEquals(1, leaderboard.getRank("alice"));
+        assertEquals(2, leaderboard.getRank("bob"));
+        assertEquals(5, leaderboard.getRank("dave"));
+        assertEquals(0, leaderboard.getRank("unknown"));
+        assertEquals(5, leaderboard.size());
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        leaderboard.update("dave", 1000);
+        assertEquals(1, leaderboard.getRank("dave"));
+        assertEquals(1000, leaderboard.getScore("dave"));
+
+        assertTrue(leaderboard.remove("alice"));
+        assertFalse(leaderboard.remove("alice"));
+        assertNull(leaderboard.getScore("alice"));
+        assertEquals(List.of("dave", "bob", "carol", "erin"), users(leaderboard.getTop(10)));
+    }
+
+    @Test
+    public void testPaging() {
+        assertEquals(List.of("alice", "bob"), users(leaderboard.getTop(2)));
+        assertEquals(List.of("carol", "erin"), users(leaderboard.getPage(2, 2)));
+        assertEquals(List.of("dave"), users(leaderboard.getPage(4, 50)));
+        assertTrue(leaderboard.getPage(5, 50).isEmpty());
+    }
+
+    @Test
+    public void testAround() {
+        assertEquals(List.of("bob", "carol", "erin"), users(leaderboard.getAround("carol", 1)));
+        assertEquals(List.of("alice", "bob"), users(leaderboard.getAround("alice", 1)));
+        assertEquals(List.of("erin", "dave"), users(leaderboard.getAround("dave", 1)));
+        assertTrue(leaderboard.getAround("unknown", 1).isEmpty());
+    }
+
+    @Test
+    public void testRankMatchesSortedOrder() {
+        Leaderboard large = new Leaderboard();
+        for (int i = 0; i < 10_000; i++) {
+            large.update("user" + i, (i * 7919) % 1000);
+        }
+        List<Score> all = large.getPage(0, Integer.MAX_VALUE);
+        assertEquals(10_000, all.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(i + 1, large.getRank(all.get(i).getUser()));
+            if (i > 0) {
+                assertTrue(all.get(i - 1).getScore() >= all.get(i).getScore());
+            }
+        }
+    }
+}
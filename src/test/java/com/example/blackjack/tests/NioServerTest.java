@@ -0,0 +1,96 @@
+package com.example.blackjack.tests;
+
+import com.example.blackjack.utils.server.NioServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class NioServerTest {
+
+    private NioServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new NioServer(0, 2);
+        new Thread(server).start();
+    }
+
+    @Test
+    void testRequestResponse() throws IOException {
+        try (Socket socket = new Socket("localhost", server.getLocalPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            out.writeUTF("dupuser:nioTestUserDoesNotExist");
+            out.flush();
+            assertEquals("false", in.readUTF());
+        }
+    }
+
+    @Test
+    void testSeveralFramesInOneWrite() throws IOException {
+        try (Socket socket = new Socket("localhost", server.getLocalPort())) {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream frames = new DataOutputStream(bytes);
+            frames.writeUTF("duproom:nioTestRoomDoesNotExist");
+            frames.writeUTF("dupuser:nioTestUserDoesNotExist");
+            socket.getOutputStream().write(bytes.toByteArray());
+            socket.getOutputStream().flush();
+
+            assertEquals("false", in.readUTF());
+            assertEquals("false", in.readUTF());
+        }
+    }
+
+    @Test
+    void testFrameLargerThanInitialBuffer() throws IOException {
+        try (Socket socket = new Socket("localhost", server.getLocalPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            out.writeUTF("dupuser:" + "x".repeat(5000));
+            out.flush();
+            assertEquals("false", in.readUTF());
+        }
+    }
+
+    @Test
+    void testMalformedRequestClosesOnlyItsSession() throws IOException {
+        server.close();
+        server = new NioServer(0, 1); // beide Verbindungen auf demselben I/O-Thread
+        new Thread(server).start();
+
+        try (Socket good = new Socket("localhost", server.getLocalPort());
+             Socket bad = new Socket("localhost", server.getLocalPort())) {
+            DataOutputStream good_out = new DataOutputStream(good.getOutputStream());
+            DataInputStream good_in = new DataInputStream(good.getInputStream());
+            good_out.writeUTF("dupuser:nioTestUserDoesNotExist");
+            good_out.flush();
+            assertEquals("false", good_in.readUTF());
+
+            DataOutputStream bad_out = new DataOutputStream(bad.getOutputStream());
+            bad_out.writeUTF("setstake:t:u:abc"); // NumberFormatException
+            bad_out.flush();
+            assertEquals(-1, bad.getInputStream().read()); // nur diese Verbindung wird geschlossen
+
+            good_out.writeUTF("dupuser:nioTestUserDoesNotExist");
+            good_out.flush();
+            assertEquals("false", good_in.readUTF());
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.blackjack.tests;
+
+import com.example.blackjack.utils.server.ScoreJournal;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+public class ScoreJournalTest {
+    private Path dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("score-journal");
+        Files.write(dir.resolve("temp_scoreboard.txt"), List.of("alice:700", "bob:500"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (File file : dir.toFile().listFiles()) {
+            file.delete();
+        }
+        dir.toFile().delete();
+    }
+
+    @Test
+    public void testReplayAfterReopen() throws IOException {
+        ScoreJournal journal = ScoreJournal.open(dir.toString(), 100);
+        journal.set("bob", 650).join();
+        journal.set("carol", 500).join();
+        journal.delete("alice").join();
+        journal.close();
+
+        // Der Snapshot wurde nicht neu geschrieben, nur das Journal
+        assertEquals(List.of("alice:700", "bob:500"), Files.readAllLines(dir.resolve("temp_scoreboard.txt")));
+        assertEquals(3, Files.readAllLines(dir.resolve("temp_scoreboard_journal.txt")).size());
+
+        ScoreJournal reopened = ScoreJournal.open(dir.toString(), 100);
+        assertEquals(Map.of("bob", 650, "carol", 500), reopened.getScores());
+        assertEquals(3, reopened.getJournalEntries());
+        reopened.close();
+    }
+
+    @Test
+    public void testIncompleteLastEntryIsDiscarded() throws IOException {
+        Files.writeString(dir.resolve("temp_scoreboard_journal.txt"), "set:bob:900\nset:alice:1", StandardCharsets.UTF_8);
+
+        ScoreJournal journal = ScoreJournal.open(dir.toString(), 100);
+        assertEquals(Map.of("alice", 700, "bob", 900), journal.getScores());
+
+        journal.set("alice", 800).join();
+        journal.close();
+        assertEquals(List.of("set:bob:900", "set:alice:800"), Files.readAllLines(dir.resolve("temp_scoreboard_journal.txt")));
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        ScoreJournal journal = ScoreJournal.open(dir.toString(), 3);
+        journal.set("bob", 800).join();
+        journal.set("carol", 100).join();
+        journal.set("alice", 750).join();
+        journal.set("dave", 50).join();
+        journal.close();
+
+        assertEquals(List.of("bob:800", "alice:750", "carol:100"), Files.readAllLines(dir.resolve("temp_scoreboard.txt")));
+        assertEquals(List.of("set:dave:50"), Files.readAllLines(dir.resolve("temp_scoreboard_journal.txt")));
+
+        ScoreJournal reopened = ScoreJournal.open(dir.toString(), 3);
+        assertEquals(Map.of("alice", 750, "bob", 800, "carol", 100, "dave", 50), reopened.getScores());
+        reopened.close();
+    }
+
+    @Test
+    public void testAppendAfterCloseFails() throws IOException {
+        ScoreJournal journal = ScoreJournal.open(dir.toString(), 100);
+        journal.close();
+
+        assertTrue(journal.set("bob", 1).isCompletedExceptionally());
+
+        ScoreJournal reopened = ScoreJournal.open(dir.toString(), 100);
+        assertNotSame(journal, reopened);
+        reopened.close();
+    }
+}
@@ -1,14 +1,24 @@
 package com.example.blackjack.tests;
 
+import com.example.blackjack.utils.ProtocolOutputStream;
+import com.example.blackjack.utils.RequestPipeline;
+import com.example.blackjack.utils.server.BinaryProtocol;
 import com.example.blackjack.utils.server.Server;
+import com.example.blackjack.utils.server.ServerConfig;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.ServerSocket;
+import java.net.Socket;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ServerTest {
 
@@ -36,6 +46,170 @@ public class ServerTest {
         });
     }
 
+    @Test
+    void testBusyWhenSessionLimitReached() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setMaxSessions(1);
+        Server limitedServer = new Server(0, config);
+        Thread serverThread = new Thread(limitedServer);
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        try (Socket first = new Socket("localhost", limitedServer.getLocalPort())) {
+            DataOutputStream out = new DataOutputStream(first.getOutputStream());
+            DataInputStream in = new DataInputStream(first.getInputStream());
+            out.writeUTF("dupuser:niemand");
+            assertNotEquals("busy", in.readUTF());
+
+            try (Socket second = new Socket("localhost", limitedServer.getLocalPort())) {
+                assertEquals("busy", new DataInputStream(second.getInputStream()).readUTF());
+            }
+            assertEquals(1, limitedServer.getActiveSessions());
+            assertEquals(1, limitedServer.getRejectedConnections());
+        } finally {
+            limitedServer.close();
+        }
+    }
+
+    @Test
+    void testPipelinedRequestsWithCorrelationIds() throws Exception {
+        Server pipelineServer = new Server(0, new ServerConfig());
+        Thread serverThread = new Thread(pipelineServer);
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        try (Socket socket = new Socket("localhost", pipelineServer.getLocalPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            RequestPipeline pipeline = new RequestPipeline(out, in);
+            String duplicate = pipeline.add("dupuser:Athie");
+            String unknown = pipeline.add("unbekannt");
+            String free = pipeline.add("dupuser:niemand");
+            pipeline.send();
+
+            assertEquals("true", pipeline.getResponse(duplicate));
+            assertEquals("", pipeline.getResponse(unknown));
+            assertEquals("false", pipeline.getResponse(free));
+
+            // Anfragen ohne Korrelations-ID werden weiterhin unverändert beantwortet
+            out.writeUTF("dupuser:Athie");
+            assertEquals("true", in.readUTF());
+        } finally {
+            pipelineServer.close();
+        }
+    }
+
+    @Test
+    void testSwitchToBinaryAndBackToText() throws Exception {
+        Server switchServer = new Server(0, new ServerConfig());
+        Thread serverThread = new Thread(switchServer);
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        try (Socket socket = new Socket("localhost", switchServer.getLocalPort())) {
+            ProtocolOutputStream out = new ProtocolOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            assertTrue(out.switchProtocol(true, in));
+            out.writeRequest("ping");
+            out.writeRequest("dupuser:Athie");
+            assertEquals("true", BinaryProtocol.decodeText(BinaryProtocol.readFrame(in)));
+
+            // Zurück zum Textprotokoll, wie beim Verlassen des Tisches
+            assertTrue(out.switchProtocol(false, in));
+            out.writeRequest("ping");
+            out.writeRequest("dupuser:niemand");
+            assertEquals("false", in.readUTF());
+        } finally {
+            switchServer.close();
+        }
+    }
+
+    @Test
+    void testChatFromUsersNamedLikeChannels() throws Exception {
+        Server chatServer = new Server(0, new ServerConfig());
+        Thread serverThread = new Thread(chatServer);
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        try (Socket socket = new Socket("localhost", chatServer.getLocalPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            // Benutzer "room" und "lobby" schreiben in der alten Form in die Lobby
+            out.writeUTF("chatmessage:room:hallo");
+            out.writeUTF("chatmessage:lobby:hi");
+            out.writeUTF("chatmessage:lobby:user:nachricht");
+            out.writeUTF("reloadchat");
+            assertEquals("room: hallo@lobby: hi@user: nachricht@", in.readUTF());
+        } finally {
+            chatServer.close();
+        }
+    }
+
+    @Test
+    void testIdleSessionIsReaped() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setIdleTimeoutSeconds(1);
+        Server reapingServer = new Server(0, config);
+        Thread serverThread = new Thread(reapingServer);
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        try (Socket idle = new Socket("localhost", reapingServer.getLocalPort());
+             Socket alive = new Socket("localhost", reapingServer.getLocalPort())) {
+            DataOutputStream idle_out = new DataOutputStream(idle.getOutputStream());
+            DataInputStream idle_in = new DataInputStream(idle.getInputStream());
+            idle_out.writeUTF("auth:Athie:123");
+            assertEquals("Athie", idle_in.readUTF());
+
+            DataOutputStream alive_out = new DataOutputStream(alive.getOutputStream());
+            DataInputStream alive_in = new DataInputStream(alive.getInputStream());
+            for (int i = 0; i < 8; i++) {
+                Thread.sleep(250);
+                alive_out.writeUTF("ping");
+            }
+
+            // Die inaktive Sitzung wurde geschlossen und der Benutzer abgemeldet, die andere läuft weiter
+            assertEquals(-1, idle_in.read());
+            assertEquals(1, reapingServer.getReclaimedSessions());
+            alive_out.writeUTF("reloadactiveusers");
+            assertEquals("", alive_in.readUTF());
+        } finally {
+            reapingServer.close();
+        }
+    }
+
+    @Test
+    void testBinaryPingKeepsSessionAlive() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setIdleTimeoutSeconds(1);
+        Server reapingServer = new Server(0, config);
+        Thread serverThread = new Thread(reapingServer);
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        try (Socket alive = new Socket("localhost", reapingServer.getLocalPort())) {
+            DataOutputStream alive_out = new DataOutputStream(alive.getOutputStream());
+            DataInputStream alive_in = new DataInputStream(alive.getInputStream());
+            alive_out.writeUTF(BinaryProtocol.HELLO);
+            assertEquals(BinaryProtocol.HELLO, alive_in.readUTF());
+
+            for (int i = 0; i < 12; i++) {
+                Thread.sleep(250);
+                alive_out.write(BinaryProtocol.encodeRequest("ping"));
+            }
+
+            // Die binäre Sitzung läuft nach mehr als dem Idle-Timeout weiter
+            assertEquals(0, reapingServer.getReclaimedSessions());
+            alive_out.write(BinaryProtocol.encodeRequest("dupuser", "Athie"));
+            assertEquals("true", BinaryProtocol.decodeText(BinaryProtocol.readFrame(alive_in)));
+        } finally {
+            reapingServer.close();
+        }
+    }
+
     @AfterEach
     void tearDown() {
         if (server != null) {
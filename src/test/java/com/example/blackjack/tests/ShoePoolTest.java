@@ -0,0 +1,78 @@
+package com.example.blackjack.tests;
+
+import com.example.blackjack.utils.game.Deck;
+import com.example.blackjack.utils.game.ShoePool;
+import com.example.blackjack.utils.game.exceptions.DeckEmptyException;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShoePoolTest {
+    private ShoePool pool;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new ShoePool(4, 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private void awaitFull() throws InterruptedException {
+        for (int i = 0; i < 500 && pool.getAvailable() < pool.getDepth(); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(pool.getDepth(), pool.getAvailable());
+    }
+
+    @Test
+    public void testTakeCopiesShuffledShoe() throws InterruptedException {
+        awaitFull();
+
+        short[] shoe = new short[Deck.SIZE];
+        assertTrue(pool.take(shoe).isPresent());
+        assertEquals(1, pool.getHits());
+        assertEquals(0, pool.getMisses());
+        assertTrue(pool.getRefills() >= pool.getDepth());
+        assertTrue(pool.getAverageRefillNanos() > 0);
+
+        boolean[] seen = new boolean[Deck.SIZE];
+        for (short code : shoe) {
+            assertFalse(seen[code]);
+            seen[code] = true;
+        }
+    }
+
+    @Test
+    public void testMissWhenEmpty() throws InterruptedException {
+        awaitFull();
+        pool.shutdown();
+
+        short[] shoe = new short[Deck.SIZE];
+        for (int i = 0; i < pool.getDepth(); i++) {
+            assertTrue(pool.take(shoe).isPresent());
+        }
+        assertFalse(pool.take(shoe).isPresent());
+        assertEquals(pool.getDepth(), pool.getHits());
+        assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    public void testDeckReshufflesFromPool() throws InterruptedException, DeckEmptyException {
+        awaitFull();
+
+        Deck deck = new Deck(0.75, pool);
+        assertTrue(deck.shuffleIfNeeded());
+        assertEquals(1, pool.getHits());
+        assertEquals(Deck.SIZE, deck.getSize());
+
+        boolean[] seen = new boolean[Deck.SIZE];
+        for (int i = 0; i < Deck.SIZE; i++) {
+            int code = deck.dealCard().getCode();
+            assertFalse(seen[code]);
+            seen[code] = true;
+        }
+    }
+}
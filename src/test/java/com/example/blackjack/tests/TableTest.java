@@ -2,6 +2,8 @@ package com.example.blackjack.tests;
 
 import com.example.blackjack.utils.game.Deck;
 import com.example.blackjack.utils.game.Table;
+import com.example.blackjack.utils.game.TableEvent;
+import com.example.blackjack.utils.game.TableListener;
 import com.example.blackjack.utils.game.WinningsEntry;
 import com.example.blackjack.utils.game.exceptions.DeckEmptyException;
 import com.example.blackjack.utils.game.exceptions.InvalidMoveException;
@@ -342,8 +344,104 @@ public class TableTest {
         table.setStake(player, 100);
         table.beginRound();
         table.stand();
-        int groesse = table.getDeck().getSize();
+        Deck deck = table.getDeck();
+        int groesse = deck.getSize();
+        assertTrue(groesse < Deck.SIZE);
         table.restartGame();
-        assertNotEquals(groesse, table.getDeck().getSize());
+
+        // Der Schuh bleibt erhalten, die ausgeteilten Karten liegen im Ablagestapel
+        assertSame(deck, table.getDeck());
+        assertEquals(groesse, table.getDeck().getSize());
+        assertEquals(Deck.SIZE - groesse, table.getDeck().getDiscardSize());
+        assertTrue(table.getDealer().getHand().isEmpty());
+    }
+
+    @Test
+    public void testSeatLimit() throws InvalidMoveException {
+        for (int i = 0; i < Table.MAX_SEATS; i++) {
+            Player p = new Player("seat" + i, 1000);
+            table.addPlayer(p);
+            table.setStake(p, 100);
+            assertEquals(i, table.getSeat(p.getUsername()));
+        }
+        Player late = new Player("late", 1000);
+        table.addPlayer(late);
+        assertThrows(InvalidMoveException.class, () -> table.setStake(late, 100));
+        assertEquals(-1, table.getSeat("late"));
+        assertNull(table.getHand("late"));
+    }
+
+    @Test
+    public void testRemovePlayerMovesSeats() throws InvalidMoveException, DeckEmptyException {
+        Player p2 = new Player("player2", 1000);
+        Player p3 = new Player("player3", 1000);
+        table.addPlayer(player);
+        table.addPlayer(p2);
+        table.addPlayer(p3);
+        table.setStake(player, 100);
+        table.setStake(p2, 200);
+        table.setStake(p3, 300);
+        table.beginRound();
+        ArrayList<Card> hand = new ArrayList<>(table.getHand("player3").get(0));
+
+        table.removePlayer("player2");
+        assertEquals(1, table.getSeat("player3"));
+        assertEquals(300, table.getStakeSum("player3"));
+        assertEquals(hand, table.getHand("player3").get(0));
+        assertEquals(player, table.getCurrentPlayer());
+    }
+
+    @Test
+    public void testRoundReplay() throws InvalidMoveException, DeckEmptyException {
+        table.addPlayer(player);
+        table.setStake(player, 100);
+        table.beginRound();
+
+        // Spieler, Dealer, Spieler, Dealer
+        Deck replay = Deck.replay(table.getDeck().getRandomProvider(), table.getRoundSeed(), table.getRoundOffset());
+        assertSame(table.getHand(player.getUsername()).get(0).get(0), replay.dealCard());
+        assertSame(table.getDealer().getHand().get(0), replay.dealCard());
+        assertSame(table.getHand(player.getUsername()).get(0).get(1), replay.dealCard());
+        assertSame(table.getDealer().getHand().get(1), replay.dealCard());
+    }
+
+    @Test
+    public void testTableListenerNotifiedOnChanges() throws InvalidMoveException, DeckEmptyException {
+        ArrayList<Table> changes = new ArrayList<>();
+        TableListener listener = changes::add;
+        table.addTableListener(listener);
+
+        table.addPlayer(player);
+        table.setStake(player, 100);
+        assertEquals(1, changes.size());
+        assertSame(table, changes.get(0));
+
+        table.beginRound();
+        assertEquals(2, changes.size());
+
+        table.removeTableListener(listener);
+        table.removePlayer("testPlayer");
+        assertEquals(2, changes.size());
+    }
+
+    @Test
+    public void testEventsSinceVersion() throws InvalidMoveException, DeckEmptyException {
+        table.addPlayer(player);
+        table.setStake(player, 100);
+        table.beginRound();
+        long version = table.getStateVersion();
+
+        table.hit();
+        assertTrue(table.getStateVersion() > version);
+
+        ArrayList<TableEvent> events = table.getEventsSince(version);
+        assertEquals(1, events.size());
+        assertEquals(TableEvent.Type.CARD, events.get(0).getType());
+        assertEquals("testPlayer", events.get(0).getPlayer());
+        ArrayList<Card> hand = table.getHand("testPlayer").get(0);
+        assertEquals(hand.get(hand.size() - 1).getBildIdent(), events.get(0).getValue());
+
+        assertTrue(table.getEventsSince(table.getStateVersion()).isEmpty());
+        assertNull(table.getEventsSince(0)); // Version aus der Zeit vor der Runde
     }
 }